@@ -0,0 +1,218 @@
+package com.tienda.inventario.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.app.Instrumentation;
+import android.content.Context;
+import android.database.Cursor;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.Observer;
+import androidx.room.Room;
+import androidx.sqlite.db.SimpleSQLiteQuery;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.tienda.inventario.database.entities.Categoria;
+import com.tienda.inventario.database.entities.Producto;
+import com.tienda.inventario.database.entities.ProductoFila;
+import com.tienda.inventario.database.entities.Proveedor;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Latencia de ProductoDao.searchByName sobre 100k productos, desde que se observa el
+ * LiveData hasta que llega la lista, como en la pantalla de búsqueda. Mide un término
+ * acotado, uno amplio, un código de barras exacto y uno sin resultados.
+ * El ranking (CASE con LIKE) solo se evalúa sobre las filas que ya pasaron el MATCH;
+ * con el término más amplio se compara la misma consulta con y sin ese orden para
+ * acotar su costo.
+ */
+@RunWith(AndroidJUnit4.class)
+public class BusquedaFtsBenchmarkTest {
+
+    private static final String TAG = "BusquedaFtsBenchmark";
+    private static final String DB_NAME = "benchmark_busqueda.db";
+    private static final int FILAS = 100_000;
+    private static final int RONDAS = 10;
+
+    private static final String[] ARTICULOS = {"Arroz", "Azúcar", "Aceite", "Atún", "Leche",
+            "Harina", "Jabón", "Galletas", "Frijol", "Café"};
+    private static final String[] MARCAS = {"Norte", "Sol", "Campo", "Real", "Montaña"};
+
+    private Instrumentation instrumentation;
+    private Context context;
+    private AppDatabase db;
+
+    @Before
+    public void setUp() {
+        instrumentation = InstrumentationRegistry.getInstrumentation();
+        context = instrumentation.getTargetContext();
+        context.deleteDatabase(DB_NAME);
+        db = Room.databaseBuilder(context, AppDatabase.class, DB_NAME).build();
+
+        Categoria categoria = new Categoria("General", "");
+        categoria.setIdCategoria(1);
+        db.categoriaDao().insert(categoria);
+
+        Proveedor proveedor = new Proveedor("General", "", "", "", "", "");
+        proveedor.setIdProveedor(1);
+        db.proveedorDao().insert(proveedor);
+
+        db.runInTransaction(() -> db.productoDao().upsertAll(crearProductos(FILAS)));
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+        context.deleteDatabase(DB_NAME);
+    }
+
+    @Test
+    public void latenciaDeBusqueda() throws Exception {
+        // Calentamiento: páginas del índice FTS y de productos en caché
+        buscar("leche");
+
+        long[] acotado = medir("leche norte 1");
+        long[] amplio = medir("a");
+        long[] codigo = medir("7500000050000");
+        long[] vacio = medir("zzz");
+        reportar("Acotado \"leche norte 1\"", acotado);
+        reportar("Amplio \"a\"", amplio);
+        reportar("Código exacto", codigo);
+        reportar("Sin resultados", vacio);
+
+        // Arroz, Azúcar, Aceite y Atún: 4 de cada 10 artículos
+        assertEquals(FILAS * 4 / 10, amplio[0]);
+        assertEquals(0, vacio[0]);
+        List<ProductoFila> porCodigo = buscar("7500000050000");
+        assertEquals(1, porCodigo.size());
+        assertEquals(50_000, porCodigo.get(0).getIdProducto());
+        // El ranking pone primero los nombres que empiezan por el término
+        List<ProductoFila> leches = buscar("leche");
+        assertTrue(leches.get(0).getNombreProducto().startsWith("Leche"));
+    }
+
+    @Test
+    public void costoDelRanking() {
+        String base = "SELECT " + ProductoFila.COLUMNAS + " FROM productos p "
+                + "JOIN productos_fts ON productos_fts.rowid = p.id_producto" + ProductoFila.UNIONES
+                + "WHERE productos_fts MATCH ? AND p.activo = 1 ";
+        String conRanking = base + "ORDER BY CASE "
+                + "WHEN p.codigo_barras = ? THEN 0 "
+                + "WHEN p.nombre_producto LIKE ? || '%' THEN 1 "
+                + "WHEN p.nombre_producto LIKE '%' || ? || '%' THEN 2 "
+                + "ELSE 3 END, p.nombre_producto ASC";
+        String soloNombre = base + "ORDER BY p.nombre_producto ASC";
+        String consulta = ConsultaFts.prefijos("a");
+
+        contar(conRanking, consulta, "a", "a", "a");
+        long[] ranking = new long[RONDAS];
+        long[] nombre = new long[RONDAS];
+        long filas = 0;
+        for (int i = 0; i < RONDAS; i++) {
+            long inicio = SystemClock.elapsedRealtimeNanos();
+            filas = contar(conRanking, consulta, "a", "a", "a");
+            ranking[i] = SystemClock.elapsedRealtimeNanos() - inicio;
+
+            inicio = SystemClock.elapsedRealtimeNanos();
+            contar(soloNombre, consulta);
+            nombre[i] = SystemClock.elapsedRealtimeNanos() - inicio;
+        }
+
+        long medianaRanking = mediana(ranking) / 1_000_000L;
+        long medianaNombre = mediana(nombre) / 1_000_000L;
+        Log.i(TAG, "Ranking CASE/LIKE sobre " + filas + " coincidencias: " + medianaRanking
+                + " ms con ranking, " + medianaNombre + " ms solo por nombre (+"
+                + (medianaRanking - medianaNombre) + " ms)");
+        assertEquals(FILAS * 4 / 10, filas);
+    }
+
+    // Mediana de RONDAS búsquedas. Devuelve {filas, mediana ms, máximo ms}.
+    private long[] medir(String termino) throws Exception {
+        long[] ns = new long[RONDAS];
+        int filas = 0;
+        for (int i = 0; i < RONDAS; i++) {
+            long inicio = SystemClock.elapsedRealtimeNanos();
+            filas = buscar(termino).size();
+            ns[i] = SystemClock.elapsedRealtimeNanos() - inicio;
+        }
+        long maximo = Arrays.stream(ns).max().orElse(0);
+        return new long[]{filas, mediana(ns) / 1_000_000L, maximo / 1_000_000L};
+    }
+
+    // Observa el LiveData del DAO en el hilo principal hasta que entrega la lista
+    private List<ProductoFila> buscar(String termino) throws Exception {
+        CountDownLatch listo = new CountDownLatch(1);
+        AtomicReference<List<ProductoFila>> resultado = new AtomicReference<>();
+        AtomicReference<LiveData<List<ProductoFila>>> datos = new AtomicReference<>();
+        Observer<List<ProductoFila>> observador = filas -> {
+            resultado.set(filas);
+            listo.countDown();
+        };
+        instrumentation.runOnMainSync(() -> {
+            datos.set(db.productoDao().searchByName(termino));
+            datos.get().observeForever(observador);
+        });
+        assertTrue(listo.await(30, TimeUnit.SECONDS));
+        instrumentation.runOnMainSync(() -> datos.get().removeObserver(observador));
+        return resultado.get();
+    }
+
+    // Ejecuta la consulta leyendo cada fila; devuelve cuántas trajo
+    private long contar(String sql, Object... argumentos) {
+        long filas = 0;
+        try (Cursor cursor = db.query(new SimpleSQLiteQuery(sql, argumentos))) {
+            while (cursor.moveToNext()) {
+                cursor.getString(1);
+                filas++;
+            }
+        }
+        return filas;
+    }
+
+    private static long mediana(long[] valores) {
+        long[] copia = valores.clone();
+        Arrays.sort(copia);
+        return copia[copia.length / 2];
+    }
+
+    private static void reportar(String etiqueta, long[] resultado) {
+        Log.i(TAG, etiqueta + ": " + resultado[0] + " filas de " + FILAS + ", mediana "
+                + resultado[1] + " ms, máximo " + resultado[2] + " ms");
+    }
+
+    private List<Producto> crearProductos(int cantidad) {
+        List<Producto> productos = new ArrayList<>(cantidad);
+        for (int i = 1; i <= cantidad; i++) {
+            String articulo = ARTICULOS[i % ARTICULOS.length];
+            String marca = MARCAS[(i / ARTICULOS.length) % MARCAS.length];
+            Producto producto = new Producto();
+            producto.setIdProducto(i);
+            producto.setDocId("doc-" + i);
+            producto.setNombreProducto(articulo + " " + marca + " " + (i % 1000));
+            producto.setDescripcion("Presentación de " + (i % 5 + 1) + " unidades, marca " + marca);
+            producto.setPrecioUnitario(i * 1.5);
+            producto.setStockActual(i % 50);
+            producto.setStockMinimo(10);
+            producto.setCodigoBarras(String.valueOf(7500000000000L + i));
+            producto.setIdCategoria(1);
+            producto.setIdProveedor(1);
+            productos.add(producto);
+        }
+        return productos;
+    }
+}
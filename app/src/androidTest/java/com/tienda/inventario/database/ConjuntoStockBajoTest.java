@@ -0,0 +1,288 @@
+package com.tienda.inventario.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import android.app.Instrumentation;
+import android.content.Context;
+import android.database.Cursor;
+import android.os.SystemClock;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.Observer;
+import androidx.room.Room;
+import androidx.room.RoomDatabase;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.tienda.inventario.database.dao.ProductoDao;
+import com.tienda.inventario.database.entities.Categoria;
+import com.tienda.inventario.database.entities.Producto;
+import com.tienda.inventario.database.entities.Proveedor;
+import com.tienda.inventario.repository.CambiosStockBajo;
+import com.tienda.inventario.repository.ProductoRepository;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Cruces del umbral de stock mínimo: el registro que llenan los triggers de
+ * ConjuntoStockBajo, el cambio neto que calcula ProductoRepository.getCambiosStockBajo
+ * (entrar y salir, entrar dos veces, registro podado o recreado) y la entrega en orden
+ * de observarCambiosStockBajo.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ConjuntoStockBajoTest {
+
+    private static final int PRODUCTOS = 6;
+    private static final int STOCK_MINIMO = 5;
+    private static final long ESPERA_MS = 10_000;
+
+    private Context context;
+    private AppDatabase db;
+    private ProductoDao productoDao;
+    private ProductoRepository repository;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        db = abrir();
+        productoDao = db.productoDao();
+        repository = new ProductoRepository(db);
+        poblar(db);
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    @Test
+    public void entraYSale() {
+        long inicio = ultimoCambio();
+        stock(1, 3);
+        long trasEntrar = ultimoCambio();
+        CambiosStockBajo entrada = repository.getCambiosStockBajo(inicio, trasEntrar);
+        assertEquals(Collections.singletonList(1), entrada.getEntraron());
+        assertTrue(entrada.getSalieron().isEmpty());
+
+        // Bajar más sin salir del umbral no es un cruce
+        stock(1, 2);
+        assertEquals(trasEntrar, ultimoCambio());
+
+        stock(1, 8);
+        CambiosStockBajo salida = repository.getCambiosStockBajo(trasEntrar, ultimoCambio());
+        assertTrue(salida.getEntraron().isEmpty());
+        assertEquals(Collections.singletonList(1), salida.getSalieron());
+
+        // Visto de una sola vez, entró y volvió a salir: no hay cambio neto
+        CambiosStockBajo neto = repository.getCambiosStockBajo(inicio, ultimoCambio());
+        assertTrue(neto.isVacio());
+        assertEquals(ultimoCambio(), neto.getHasta());
+    }
+
+    @Test
+    public void entraDosVecesCuentaUnaSola() {
+        long inicio = ultimoCambio();
+        stock(2, 1);
+        stock(2, 9);
+        stock(2, 4);
+        CambiosStockBajo cambios = repository.getCambiosStockBajo(inicio, ultimoCambio());
+        assertEquals(Collections.singletonList(2), cambios.getEntraron());
+        assertTrue(cambios.getSalieron().isEmpty());
+        assertFalse(cambios.isIncompleto());
+
+        // Dar de baja un producto en stock bajo lo saca del conjunto
+        long antesDeBaja = ultimoCambio();
+        productoDao.softDelete(2);
+        assertEquals(Collections.singletonList(2),
+                repository.getCambiosStockBajo(antesDeBaja, ultimoCambio()).getSalieron());
+    }
+
+    @Test
+    public void registroPodadoEsIncompleto() {
+        long inicio = ultimoCambio();
+        // Dos cruces por vuelta: más de los que se conservan
+        for (int i = 0; i < ConjuntoStockBajo.MAX_CAMBIOS / 2 + 10; i++) {
+            stock(3, 1);
+            stock(3, 10);
+        }
+        ConjuntoStockBajo.instalar(db.getOpenHelper().getWritableDatabase());
+
+        long hasta = ultimoCambio();
+        CambiosStockBajo desdeElInicio = repository.getCambiosStockBajo(inicio, hasta);
+        assertTrue(desdeElInicio.isIncompleto());
+        assertEquals(hasta, desdeElInicio.getHasta());
+
+        // Desde una marca que el registro todavía conserva, el tramo está completo
+        long reciente = hasta - 4;
+        stock(3, 1);
+        CambiosStockBajo tramo = repository.getCambiosStockBajo(reciente, ultimoCambio());
+        assertFalse(tramo.isIncompleto());
+        assertEquals(Collections.singletonList(3), tramo.getEntraron());
+    }
+
+    @Test
+    public void registroReconstruidoOBaseRecreadaEsIncompleto() {
+        stock(4, 2);
+        long leido = ultimoCambio();
+
+        // Sin un trigger un cruce no queda registrado; al abrir se detecta y el conjunto
+        // se reconstruye desde productos, sin historia
+        SupportSQLiteDatabase sqlite = db.getOpenHelper().getWritableDatabase();
+        sqlite.execSQL("DROP TRIGGER productos_stock_bajo_sale");
+        stock(4, 10);
+        ConjuntoStockBajo.instalar(sqlite);
+        assertTrue(idsEnConjunto().isEmpty());
+        stock(5, 0);
+        assertTrue(repository.getCambiosStockBajo(leido, ultimoCambio()).isIncompleto());
+
+        // Una base nueva vuelve a numerar desde 1: la marca leída queda por delante
+        long marcaAnterior = ultimoCambio();
+        db.close();
+        db = abrir();
+        productoDao = db.productoDao();
+        repository = new ProductoRepository(db);
+        poblar(db);
+        stock(1, 0);
+        assertTrue(ultimoCambio() < marcaAnterior);
+        assertTrue(repository.getCambiosStockBajo(marcaAnterior, ultimoCambio()).isIncompleto());
+    }
+
+    @Test
+    public void observarEntregaLosTramosEnOrden() {
+        Instrumentation instrumentation = InstrumentationRegistry.getInstrumentation();
+        List<CambiosStockBajo> emitidos = Collections.synchronizedList(new ArrayList<>());
+        Observer<CambiosStockBajo> observador = emitidos::add;
+        @SuppressWarnings("unchecked")
+        LiveData<CambiosStockBajo>[] cambios = new LiveData[1];
+        instrumentation.runOnMainSync(() -> {
+            cambios[0] = repository.observarCambiosStockBajo();
+            cambios[0].observeForever(observador);
+        });
+
+        // La primera lectura solo fija el punto de partida: se cruza hasta ver un tramo
+        long limite = SystemClock.elapsedRealtime() + ESPERA_MS;
+        for (int i = 0; emitidos.isEmpty(); i++) {
+            assertTrue("Sin emisiones", SystemClock.elapsedRealtime() < limite);
+            stock(1, i % 2 == 0 ? 1 : 10);
+            SystemClock.sleep(50);
+        }
+        // Desde el tramo con la entrada del producto 5 (que no vuelve a cruzar) se conoce
+        // el conjunto de partida
+        stock(5, 0);
+        int base = esperarEntrada(emitidos, 5) + 1;
+        Set<Integer> enConjunto = new HashSet<>(idsEnConjunto());
+
+        // Ráfaga de cruces, cada uno en su transacción; cierra el producto 6, que entra
+        // una sola vez, así el último tramo nunca es vacío
+        for (int vuelta = 0; vuelta < 3; vuelta++) {
+            for (int id = 1; id <= 4; id++) {
+                stock(id, (id + vuelta) % 2 == 0 ? 0 : 10);
+            }
+        }
+        stock(6, 0);
+        long objetivo = ultimoCambio();
+        int fin = esperarEntrada(emitidos, 6);
+        instrumentation.runOnMainSync(() -> cambios[0].removeObserver(observador));
+
+        // Cada tramo continúa al anterior y aplicarlos en orden da el conjunto actual
+        List<CambiosStockBajo> tramos;
+        synchronized (emitidos) {
+            tramos = new ArrayList<>(emitidos.subList(base, fin + 1));
+        }
+        long anterior = emitidos.get(base - 1).getHasta();
+        for (CambiosStockBajo tramo : tramos) {
+            assertFalse(tramo.isIncompleto());
+            assertTrue("Tramos fuera de orden", tramo.getHasta() > anterior);
+            anterior = tramo.getHasta();
+            enConjunto.addAll(tramo.getEntraron());
+            enConjunto.removeAll(tramo.getSalieron());
+        }
+        assertEquals(objetivo, anterior);
+        assertEquals(new HashSet<>(idsEnConjunto()), enConjunto);
+    }
+
+    private AppDatabase abrir() {
+        return Room.inMemoryDatabaseBuilder(context, AppDatabase.class)
+                .allowMainThreadQueries()
+                .addCallback(new RoomDatabase.Callback() {
+                    @Override
+                    public void onOpen(@NonNull SupportSQLiteDatabase sqlite) {
+                        ConjuntoStockBajo.instalar(sqlite);
+                    }
+                })
+                .build();
+    }
+
+    private static void poblar(AppDatabase db) {
+        Categoria categoria = new Categoria("General", "");
+        categoria.setIdCategoria(1);
+        db.categoriaDao().insert(categoria);
+        Proveedor proveedor = new Proveedor("General", "", "", "", "", "");
+        proveedor.setIdProveedor(1);
+        db.proveedorDao().insert(proveedor);
+
+        List<Producto> productos = new ArrayList<>(PRODUCTOS);
+        for (int i = 1; i <= PRODUCTOS; i++) {
+            Producto producto = new Producto();
+            producto.setIdProducto(i);
+            producto.setDocId("doc-" + i);
+            producto.setNombreProducto("Producto " + i);
+            producto.setStockActual(10);
+            producto.setStockMinimo(STOCK_MINIMO);
+            producto.setIdCategoria(1);
+            producto.setIdProveedor(1);
+            productos.add(producto);
+        }
+        db.productoDao().upsertAll(productos);
+    }
+
+    private void stock(int idProducto, int stock) {
+        productoDao.updateStock(idProducto, stock, System.currentTimeMillis());
+    }
+
+    private long ultimoCambio() {
+        try (Cursor cursor = db.query("SELECT IFNULL(MAX(seq), 0) FROM stock_bajo_cambios", null)) {
+            return cursor.moveToFirst() ? cursor.getLong(0) : 0;
+        }
+    }
+
+    private List<Integer> idsEnConjunto() {
+        List<Integer> ids = new ArrayList<>();
+        try (Cursor cursor = db.query(
+                "SELECT id_producto FROM productos_stock_bajo ORDER BY id_producto", null)) {
+            while (cursor.moveToNext()) {
+                ids.add(cursor.getInt(0));
+            }
+        }
+        return ids;
+    }
+
+    // Espera el tramo en el que entra el producto; devuelve su posición
+    private static int esperarEntrada(List<CambiosStockBajo> emitidos, int idProducto) {
+        long limite = SystemClock.elapsedRealtime() + ESPERA_MS;
+        while (true) {
+            synchronized (emitidos) {
+                for (int i = 0; i < emitidos.size(); i++) {
+                    if (emitidos.get(i).getEntraron().contains(idProducto)) {
+                        return i;
+                    }
+                }
+            }
+            assertTrue("No llegó la entrada de " + idProducto, SystemClock.elapsedRealtime() < limite);
+            SystemClock.sleep(10);
+        }
+    }
+}
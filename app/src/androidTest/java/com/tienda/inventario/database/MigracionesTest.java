@@ -0,0 +1,168 @@
+package com.tienda.inventario.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.room.Room;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.tienda.inventario.database.entities.Categoria;
+import com.tienda.inventario.database.entities.OperacionPendiente;
+import com.tienda.inventario.database.entities.Producto;
+import com.tienda.inventario.database.entities.Proveedor;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Lleva una base con cambios sin subir a la forma de la versión 4 (la primera con
+ * operaciones_pendientes) y la reabre con Room: las migraciones deben llegar a la
+ * versión actual sin perder la cola de salida ni los productos, con el esquema que
+ * Room valida al abrir y los índices FTS llenos.
+ */
+@RunWith(AndroidJUnit4.class)
+public class MigracionesTest {
+
+    private static final String DB_NAME = "migraciones_test.db";
+
+    // Lo que agregaron las versiones 5 a 12
+    private static final String[] TABLAS_NUEVAS = {"productos_staging", "productos_fts",
+            "categorias_fts", "proveedores_fts", "inventario_totales", "productos_stock_bajo",
+            "stock_bajo_cambios"};
+    private static final String[] INDICES_NUEVOS = {
+            "index_productos_activo_nombre_producto_id_producto",
+            "index_productos_activo_ultima_actualizacion"};
+
+    private Context context;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(DB_NAME);
+    }
+
+    @After
+    public void tearDown() {
+        context.deleteDatabase(DB_NAME);
+    }
+
+    @Test
+    public void desdeVersion4ConservaLaColaDeSalida() {
+        AppDatabase db = abrir();
+        Categoria categoria = new Categoria("Lácteos", "");
+        categoria.setIdCategoria(1);
+        db.categoriaDao().insert(categoria);
+        Proveedor proveedor = new Proveedor("Granja", "", "", "", "", "");
+        proveedor.setIdProveedor(1);
+        db.proveedorDao().insert(proveedor);
+        Producto producto = new Producto();
+        producto.setIdProducto(7);
+        producto.setDocId("doc-7");
+        producto.setNombreProducto("Leche entera");
+        producto.setCodigoBarras("7501");
+        producto.setIdCategoria(1);
+        producto.setIdProveedor(1);
+        producto.setStockActual(3);
+        producto.setStockMinimo(5);
+        producto.setActivo(true);
+        db.productoDao().upsertAll(Collections.singletonList(producto));
+        db.operacionPendienteDao().encolar("doc-7", OperacionPendiente.GUARDAR, 1_000L);
+        db.operacionPendienteDao().encolar("doc-8", OperacionPendiente.ELIMINAR, 2_000L);
+        db.close();
+
+        volverAVersion4();
+
+        db = abrir();
+        List<OperacionPendiente> pendientes = db.operacionPendienteDao().getListas(Long.MAX_VALUE, 10);
+        assertEquals(2, pendientes.size());
+        assertEquals("doc-7", pendientes.get(0).getDocId());
+        assertEquals(OperacionPendiente.GUARDAR, pendientes.get(0).getTipo());
+        assertEquals(0, pendientes.get(0).getDeltaStock());
+        assertNull(pendientes.get(0).getIdEnvio());
+        assertEquals(OperacionPendiente.ELIMINAR, pendientes.get(1).getTipo());
+        assertNotNull(db.productoDao().getByDocId("doc-7"));
+
+        // El índice FTS se llenó con lo que ya había y lo mantienen sus triggers
+        assertEquals(1, contar(db, "SELECT rowid FROM productos_fts WHERE productos_fts MATCH 'leche*'"));
+        assertEquals(1, contar(db, "SELECT rowid FROM categorias_fts WHERE categorias_fts MATCH 'lac*'"));
+        db.productoDao().upsertAll(Collections.singletonList(copia(producto, "Yogur natural")));
+        assertEquals(0, contar(db, "SELECT rowid FROM productos_fts WHERE productos_fts MATCH 'leche*'"));
+        assertEquals(1, contar(db, "SELECT rowid FROM productos_fts WHERE productos_fts MATCH 'yogur*'"));
+        db.close();
+    }
+
+    private AppDatabase abrir() {
+        return Room.databaseBuilder(context, AppDatabase.class, DB_NAME)
+                .addMigrations(Migraciones.TODAS)
+                .allowMainThreadQueries()
+                .build();
+    }
+
+    // Deshace a mano lo que agregaron las versiones 5 a 12, conservando los datos
+    private void volverAVersion4() {
+        SQLiteDatabase sqlite = SQLiteDatabase.openDatabase(
+                context.getDatabasePath(DB_NAME).getPath(), null, SQLiteDatabase.OPEN_READWRITE);
+        try {
+            List<String> triggers = new ArrayList<>();
+            try (Cursor cursor = sqlite.rawQuery(
+                    "SELECT name FROM sqlite_master WHERE type = 'trigger'", null)) {
+                while (cursor.moveToNext()) {
+                    triggers.add(cursor.getString(0));
+                }
+            }
+            for (String trigger : triggers) {
+                sqlite.execSQL("DROP TRIGGER `" + trigger + "`");
+            }
+            for (String tabla : TABLAS_NUEVAS) {
+                sqlite.execSQL("DROP TABLE IF EXISTS `" + tabla + "`");
+            }
+            for (String indice : INDICES_NUEVOS) {
+                sqlite.execSQL("DROP INDEX IF EXISTS `" + indice + "`");
+            }
+            // operaciones_pendientes sin delta_stock ni envío, como antes de la versión 10
+            sqlite.execSQL("CREATE TABLE `operaciones_v4` (`doc_id` TEXT NOT NULL, `tipo` TEXT, "
+                    + "`version` INTEGER NOT NULL, `intentos` INTEGER NOT NULL, "
+                    + "`creada` INTEGER NOT NULL, `proximo_intento` INTEGER NOT NULL, "
+                    + "PRIMARY KEY(`doc_id`))");
+            sqlite.execSQL("INSERT INTO `operaciones_v4` SELECT `doc_id`, `tipo`, `version`, "
+                    + "`intentos`, `creada`, `proximo_intento` FROM `operaciones_pendientes`");
+            sqlite.execSQL("DROP TABLE `operaciones_pendientes`");
+            sqlite.execSQL("ALTER TABLE `operaciones_v4` RENAME TO `operaciones_pendientes`");
+            sqlite.setVersion(4);
+        } finally {
+            sqlite.close();
+        }
+    }
+
+    private static int contar(AppDatabase db, String sql) {
+        try (Cursor cursor = db.query(sql, null)) {
+            return cursor.getCount();
+        }
+    }
+
+    private static Producto copia(Producto producto, String nombre) {
+        Producto otro = new Producto();
+        otro.setIdProducto(producto.getIdProducto());
+        otro.setDocId(producto.getDocId());
+        otro.setNombreProducto(nombre);
+        otro.setCodigoBarras(producto.getCodigoBarras());
+        otro.setIdCategoria(producto.getIdCategoria());
+        otro.setIdProveedor(producto.getIdProveedor());
+        otro.setStockActual(producto.getStockActual());
+        otro.setStockMinimo(producto.getStockMinimo());
+        otro.setActivo(true);
+        return otro;
+    }
+}
@@ -0,0 +1,184 @@
+package com.tienda.inventario.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.room.Room;
+import androidx.sqlite.db.SimpleSQLiteQuery;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.tienda.inventario.database.dao.ProductoDao;
+import com.tienda.inventario.database.entities.Categoria;
+import com.tienda.inventario.database.entities.Producto;
+import com.tienda.inventario.database.entities.ProductoFila;
+import com.tienda.inventario.database.entities.Proveedor;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Recorre 50k productos en páginas de 50, como la lista principal, trayendo
+ * SELECT * o solo las columnas de ProductoFila. Informa tiempo y bytes leídos
+ * del cursor (lo que ocupa el CursorWindow y luego los objetos de cada fila).
+ */
+@RunWith(AndroidJUnit4.class)
+public class ProductoFilaBenchmarkTest {
+
+    private static final String TAG = "ProductoFilaBenchmark";
+    private static final String DB_NAME = "benchmark_filas.db";
+    private static final int FILAS = 50_000;
+    private static final int PAGINA = 50;
+
+    private Context context;
+    private AppDatabase db;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(DB_NAME);
+        db = Room.databaseBuilder(context, AppDatabase.class, DB_NAME).build();
+
+        Categoria categoria = new Categoria("General", "");
+        categoria.setIdCategoria(1);
+        db.categoriaDao().insert(categoria);
+
+        Proveedor proveedor = new Proveedor("General", "", "", "", "", "");
+        proveedor.setIdProveedor(1);
+        db.proveedorDao().insert(proveedor);
+
+        db.runInTransaction(() -> db.productoDao().upsertAll(crearProductos(FILAS)));
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+        context.deleteDatabase(DB_NAME);
+    }
+
+    @Test
+    public void comparaSelectTodoContraFila() {
+        // Una pasada de calentamiento para que ambas lecturas encuentren las páginas en caché
+        recorrer("p.*", " ");
+
+        long[] entidad = recorrer("p.*", " ");
+        long[] fila = recorrer(ProductoFila.COLUMNAS, ProductoFila.UNIONES);
+        reportar("SELECT *", entidad);
+        reportar("ProductoFila", fila);
+
+        assertEquals(FILAS, entidad[0]);
+        assertEquals(FILAS, fila[0]);
+        assertTrue("La fila debería leer menos bytes", fila[1] < entidad[1]);
+    }
+
+    @Test
+    public void paginasDelDao() {
+        ProductoDao dao = db.productoDao();
+        long inicio = SystemClock.elapsedRealtime();
+        int filas = 0;
+        List<ProductoFila> pagina = dao.getPaginaInicial(PAGINA);
+        while (!pagina.isEmpty()) {
+            filas += pagina.size();
+            ProductoFila ultima = pagina.get(pagina.size() - 1);
+            pagina = dao.getPaginaDespuesDe(ultima.getNombreProducto(), ultima.getIdProducto(), PAGINA);
+        }
+        long duracion = SystemClock.elapsedRealtime() - inicio;
+
+        Log.i(TAG, "ProductoDao.getPaginaDespuesDe: " + filas + " filas en " + duracion + " ms");
+        assertEquals(FILAS, filas);
+    }
+
+    // Recorre todas las páginas leyendo cada columna como lo haría el código generado
+    // por Room. Devuelve {filas, bytes, ms}.
+    private long[] recorrer(String columnas, String uniones) {
+        String base = "SELECT " + columnas + " FROM productos p" + uniones + "WHERE p.activo = 1 ";
+        String orden = "ORDER BY p.nombre_producto ASC, p.id_producto ASC LIMIT " + PAGINA;
+
+        long filas = 0;
+        long bytes = 0;
+        String nombre = null;
+        int id = 0;
+        long inicio = SystemClock.elapsedRealtime();
+        while (true) {
+            SimpleSQLiteQuery consulta = nombre == null
+                    ? new SimpleSQLiteQuery(base + orden)
+                    : new SimpleSQLiteQuery(base + "AND p.nombre_producto >= ? "
+                    + "AND (p.nombre_producto > ? OR p.id_producto > ?) " + orden,
+                    new Object[]{nombre, nombre, id});
+            int leidas = 0;
+            try (Cursor cursor = db.query(consulta)) {
+                int columnaNombre = cursor.getColumnIndexOrThrow("nombre_producto");
+                int columnaId = cursor.getColumnIndexOrThrow("id_producto");
+                while (cursor.moveToNext()) {
+                    for (int c = 0; c < cursor.getColumnCount(); c++) {
+                        bytes += leer(cursor, c);
+                    }
+                    nombre = cursor.getString(columnaNombre);
+                    id = cursor.getInt(columnaId);
+                    leidas++;
+                }
+            }
+            if (leidas == 0) {
+                break;
+            }
+            filas += leidas;
+        }
+        return new long[]{filas, bytes, SystemClock.elapsedRealtime() - inicio};
+    }
+
+    private static long leer(Cursor cursor, int columna) {
+        switch (cursor.getType(columna)) {
+            case Cursor.FIELD_TYPE_STRING:
+                return 2L * cursor.getString(columna).length();
+            case Cursor.FIELD_TYPE_INTEGER:
+                cursor.getLong(columna);
+                return 8;
+            case Cursor.FIELD_TYPE_FLOAT:
+                cursor.getDouble(columna);
+                return 8;
+            default:
+                return 0;
+        }
+    }
+
+    private void reportar(String modo, long[] resultado) {
+        Log.i(TAG, modo + ": " + resultado[0] + " filas en " + resultado[2] + " ms, "
+                + (resultado[1] / 1024) + " KiB leídos (" + (resultado[1] / Math.max(resultado[0], 1))
+                + " bytes/fila)");
+    }
+
+    private List<Producto> crearProductos(int cantidad) {
+        StringBuilder texto = new StringBuilder();
+        while (texto.length() < 400) {
+            texto.append("Descripción detallada con presentación, contenido y notas de almacenamiento. ");
+        }
+        String descripcion = texto.toString();
+
+        List<Producto> productos = new ArrayList<>(cantidad);
+        for (int i = 1; i <= cantidad; i++) {
+            Producto producto = new Producto();
+            producto.setIdProducto(i);
+            producto.setDocId("doc-" + i);
+            producto.setNombreProducto(String.format("Producto %06d", i));
+            producto.setDescripcion(descripcion);
+            producto.setPrecioUnitario(i * 1.5);
+            producto.setStockActual(i % 50);
+            producto.setStockMinimo(10);
+            producto.setCodigoBarras(String.valueOf(7500000000000L + i));
+            producto.setIdCategoria(1);
+            producto.setIdProveedor(1);
+            productos.add(producto);
+        }
+        return productos;
+    }
+}
@@ -0,0 +1,185 @@
+package com.tienda.inventario.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import android.database.Cursor;
+
+import androidx.annotation.NonNull;
+import androidx.room.Room;
+import androidx.room.RoomDatabase;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.tienda.inventario.database.dao.ProductoDao;
+import com.tienda.inventario.database.entities.Categoria;
+import com.tienda.inventario.database.entities.InventarioTotal;
+import com.tienda.inventario.database.entities.Producto;
+import com.tienda.inventario.database.entities.Proveedor;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Verifica que inventario_totales, mantenida por triggers, coincide con un
+ * COUNT/SUM completo sobre productos tras altas, ediciones, bajas y borrados.
+ */
+@RunWith(AndroidJUnit4.class)
+public class TotalesInventarioTest {
+
+    private static final double TOLERANCIA = 1e-6;
+
+    private AppDatabase db;
+    private ProductoDao productoDao;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        db = Room.inMemoryDatabaseBuilder(context, AppDatabase.class)
+                .allowMainThreadQueries()
+                .addCallback(new RoomDatabase.Callback() {
+                    @Override
+                    public void onOpen(@NonNull SupportSQLiteDatabase sqlite) {
+                        TotalesInventario.instalar(sqlite);
+                    }
+                })
+                .build();
+        productoDao = db.productoDao();
+
+        for (int i = 1; i <= 3; i++) {
+            Categoria categoria = new Categoria("Categoría " + i, "");
+            categoria.setIdCategoria(i);
+            db.categoriaDao().insert(categoria);
+
+            Proveedor proveedor = new Proveedor("Proveedor " + i, "", "", "", "", "");
+            proveedor.setIdProveedor(i);
+            db.proveedorDao().insert(proveedor);
+        }
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    @Test
+    public void altasYBajas() {
+        productoDao.upsertAll(crearProductos(60));
+        verificar();
+
+        productoDao.softDelete(5);
+        productoDao.softDelete(6);
+        productoDao.deleteByDocIds(Arrays.asList("doc-10", "doc-11", "doc-12"));
+        verificar();
+    }
+
+    @Test
+    public void cambiosDeStockPrecioYCategoria() {
+        productoDao.upsertAll(crearProductos(60));
+
+        productoDao.updateStock(1, 500, System.currentTimeMillis());
+        productoDao.updateStock(2, 0, System.currentTimeMillis());
+
+        Producto producto = productoDao.getByDocId("doc-3");
+        producto.setPrecioUnitario(999.99);
+        producto.setIdCategoria(3);
+        producto.setIdProveedor(2);
+        productoDao.update(producto);
+
+        // Reactivar un producto dado de baja vuelve a contarlo
+        productoDao.softDelete(4);
+        Producto reactivado = productoDao.getByDocId("doc-4");
+        reactivado.setActivo(true);
+        productoDao.update(reactivado);
+        verificar();
+    }
+
+    @Test
+    public void borrarTodo() {
+        productoDao.upsertAll(crearProductos(20));
+        productoDao.deleteAll();
+
+        assertTrue(db.inventarioTotalDao().getTodos().isEmpty());
+        assertEquals(recalcularCompleto(), leerTotales());
+    }
+
+    @Test
+    public void reinstalarReconstruyeTotales() {
+        productoDao.upsertAll(crearProductos(30));
+        SupportSQLiteDatabase sqlite = db.getOpenHelper().getWritableDatabase();
+
+        // Sin el trigger de update los totales quedan desfasados...
+        sqlite.execSQL("DROP TRIGGER productos_totales_update");
+        productoDao.updateStock(1, 1000, System.currentTimeMillis());
+
+        // ...y al volver a abrir se detecta y se reconstruyen
+        TotalesInventario.instalar(sqlite);
+        verificar();
+    }
+
+    private void verificar() {
+        Map<String, double[]> esperado = recalcularCompleto();
+        Map<String, double[]> actual = leerTotales();
+        assertEquals(esperado.keySet(), actual.keySet());
+        for (Map.Entry<String, double[]> entrada : esperado.entrySet()) {
+            double[] valores = actual.get(entrada.getKey());
+            assertEquals(entrada.getKey() + " productos", entrada.getValue()[0], valores[0], 0);
+            assertEquals(entrada.getKey() + " valor", entrada.getValue()[1], valores[1], TOLERANCIA);
+        }
+    }
+
+    private Map<String, double[]> leerTotales() {
+        Map<String, double[]> totales = new HashMap<>();
+        for (InventarioTotal total : db.inventarioTotalDao().getTodos()) {
+            totales.put(total.getAmbito() + ":" + total.getIdAmbito(),
+                    new double[]{total.getProductos(), total.getValor()});
+        }
+        return totales;
+    }
+
+    private Map<String, double[]> recalcularCompleto() {
+        String valor = "SUM(precio_unitario * stock_actual)";
+        String sql = "SELECT 'global', 0, COUNT(*), " + valor + " FROM productos WHERE activo = 1 "
+                + "UNION ALL SELECT 'categoria', id_categoria, COUNT(*), " + valor
+                + " FROM productos WHERE activo = 1 GROUP BY id_categoria "
+                + "UNION ALL SELECT 'proveedor', id_proveedor, COUNT(*), " + valor
+                + " FROM productos WHERE activo = 1 GROUP BY id_proveedor";
+        Map<String, double[]> totales = new HashMap<>();
+        try (Cursor cursor = db.query(sql, null)) {
+            while (cursor.moveToNext()) {
+                if (cursor.getInt(2) > 0) {
+                    totales.put(cursor.getString(0) + ":" + cursor.getInt(1),
+                            new double[]{cursor.getInt(2), cursor.getDouble(3)});
+                }
+            }
+        }
+        return totales;
+    }
+
+    private List<Producto> crearProductos(int cantidad) {
+        List<Producto> productos = new ArrayList<>(cantidad);
+        for (int i = 1; i <= cantidad; i++) {
+            Producto producto = new Producto();
+            producto.setIdProducto(i);
+            producto.setDocId("doc-" + i);
+            producto.setNombreProducto("Producto " + i);
+            producto.setPrecioUnitario(i * 1.25);
+            producto.setStockActual(i % 17);
+            producto.setStockMinimo(5);
+            producto.setIdCategoria(i % 3 + 1);
+            producto.setIdProveedor((i / 3) % 3 + 1);
+            productos.add(producto);
+        }
+        return productos;
+    }
+}
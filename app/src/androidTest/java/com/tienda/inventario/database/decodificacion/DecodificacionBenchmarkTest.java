@@ -0,0 +1,75 @@
+package com.tienda.inventario.database.decodificacion;
+
+import static com.tienda.inventario.database.decodificacion.MapeoAnterior.crearDocumentos;
+import static com.tienda.inventario.database.decodificacion.MapeoAnterior.crearIds;
+import static com.tienda.inventario.database.decodificacion.MapeoAnterior.renombrarALegado;
+import static org.junit.Assert.assertEquals;
+
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Informa en el dispositivo el costo de decodificar un snapshot ya convertido a Map con
+ * el mapeo campo por campo que usaba FirestoreManager y con el plan resuelto una vez por
+ * snapshot. Solo registra los números: el plan no es más rápido (sobre Map el mapeo
+ * anterior decodifica más documentos por segundo) y lo que aporta es validar tipos y
+ * contar fallos. El costo con DocumentSnapshot reales depende del SDK y no se mide aquí;
+ * el efecto en la interfaz de decodificar fuera del hilo principal lo mide
+ * DecodificacionFramesTest.
+ */
+@RunWith(AndroidJUnit4.class)
+public class DecodificacionBenchmarkTest {
+
+    private static final String TAG = "DecodificacionBenchmark";
+    private static final int DOCUMENTOS = 20_000;
+    private static final int CALENTAMIENTO = 20;
+    private static final int RONDAS = 50;
+
+    @Test
+    public void informaCostoDeDecodificacion() {
+        List<String> ids = crearIds(DOCUMENTOS);
+        // Snapshot con nombres antiguos: el peor caso del mapeo anterior
+        List<Map<String, Object>> datos = crearDocumentos(DOCUMENTOS, false);
+        for (Map<String, Object> doc : datos) {
+            renombrarALegado(doc);
+        }
+
+        long consumidor = 0;
+        long[] mejor = {Long.MAX_VALUE, Long.MAX_VALUE};
+        for (int i = 0; i < CALENTAMIENTO + RONDAS; i++) {
+            long[] ns = new long[2];
+
+            long inicio = SystemClock.elapsedRealtimeNanos();
+            consumidor += MapeoAnterior.decodificarMapas(ids, datos).size();
+            ns[0] = SystemClock.elapsedRealtimeNanos() - inicio;
+
+            inicio = SystemClock.elapsedRealtimeNanos();
+            consumidor += EsquemasFirestore.PRODUCTO.resolver(datos.get(0))
+                    .decodificarTodos(ids, datos).getElementos().size();
+            ns[1] = SystemClock.elapsedRealtimeNanos() - inicio;
+
+            if (i >= CALENTAMIENTO) {
+                for (int j = 0; j < ns.length; j++) {
+                    mejor[j] = Math.min(mejor[j], ns[j]);
+                }
+            }
+        }
+
+        Log.i(TAG, "Map - mapeo anterior: " + docsPorSegundo(mejor[0]) + " docs/s");
+        Log.i(TAG, "Map - plan resuelto: " + docsPorSegundo(mejor[1]) + " docs/s");
+
+        assertEquals((long) DOCUMENTOS * 2 * (CALENTAMIENTO + RONDAS), consumidor);
+    }
+
+    private static long docsPorSegundo(long ns) {
+        return DOCUMENTOS * 1_000_000_000L / Math.max(1, ns);
+    }
+}
@@ -0,0 +1,182 @@
+package com.tienda.inventario.database.decodificacion;
+
+import static com.tienda.inventario.database.decodificacion.MapeoAnterior.crearDocumentos;
+import static com.tienda.inventario.database.decodificacion.MapeoAnterior.crearIds;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+import android.view.FrameMetrics;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.Window;
+
+import androidx.test.core.app.ActivityScenario;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.tienda.inventario.database.entities.Producto;
+import com.tienda.inventario.ui.MainActivity;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tiempo de frame con FrameMetrics sobre la ventana de MainActivity mientras llega una
+ * sincronización grande: antes (el snapshot se decodificaba en el callback, en el hilo
+ * principal) y después (se decodifica en segundo plano y solo se publica la lista).
+ * Una vista que se redibuja en cada vsync mantiene los frames corriendo durante la
+ * medición. Informa frames, frames lentos (más de 16 ms), p50, p90 y máximo.
+ */
+@RunWith(AndroidJUnit4.class)
+public class DecodificacionFramesTest {
+
+    private static final String TAG = "DecodificacionFrames";
+    private static final int DOCUMENTOS = 20_000;
+    private static final long VENTANA_MS = 2_000;
+    private static final long FRAME_MS = 16;
+
+    private ActivityScenario<MainActivity> escenario;
+    private HandlerThread hiloMetricas;
+    private Window ventana;
+    private Window.OnFrameMetricsAvailableListener oyente;
+
+    // Duración total de cada frame medido (ns); se llena en hiloMetricas
+    private final List<Long> duraciones = Collections.synchronizedList(new ArrayList<>());
+    private volatile boolean midiendo;
+
+    @Before
+    public void setUp() throws Exception {
+        hiloMetricas = new HandlerThread("metricas-frames");
+        hiloMetricas.start();
+        escenario = ActivityScenario.launch(MainActivity.class);
+        escenario.onActivity(activity -> {
+            ventana = activity.getWindow();
+            ((ViewGroup) ventana.getDecorView()).addView(new Latido(activity), 1, 1);
+            oyente = (window, metricas, descartados) -> {
+                if (midiendo) {
+                    duraciones.add(metricas.getMetric(FrameMetrics.TOTAL_DURATION));
+                }
+            };
+            ventana.addOnFrameMetricsAvailableListener(oyente, new Handler(hiloMetricas.getLooper()));
+        });
+        // Que pase el arranque (primer layout, lectura de Room) antes de medir
+        SystemClock.sleep(VENTANA_MS);
+    }
+
+    @After
+    public void tearDown() {
+        escenario.onActivity(activity -> ventana.removeOnFrameMetricsAvailableListener(oyente));
+        escenario.close();
+        hiloMetricas.quitSafely();
+    }
+
+    @Test
+    public void decodificarEnSegundoPlanoNoTrabaFrames() throws Exception {
+        List<String> ids = crearIds(DOCUMENTOS);
+        List<Map<String, Object>> datos = crearDocumentos(DOCUMENTOS, true);
+        Handler principal = new Handler(Looper.getMainLooper());
+
+        // Antes: el callback de Firestore mapeaba cada documento en el hilo principal
+        long[] antes = medir(listo -> principal.post(() -> {
+            MapeoAnterior.decodificarMapas(ids, datos);
+            listo.countDown();
+        }));
+
+        // Después: decodificación fuera del hilo principal, solo se publica el resultado
+        ExecutorService coordinador = Executors.newSingleThreadExecutor();
+        long[] despues = medir(listo -> coordinador.execute(() -> {
+            List<Producto> productos = EsquemasFirestore.PRODUCTO.resolver(datos.get(0))
+                    .decodificarTodos(ids, datos).getElementos();
+            principal.post(() -> {
+                if (!productos.isEmpty()) {
+                    listo.countDown();
+                }
+            });
+        }));
+        coordinador.shutdown();
+
+        reportar("Antes (hilo principal)", antes);
+        reportar("Después (segundo plano)", despues);
+
+        assertTrue("Decodificar en segundo plano no debería dejar más frames lentos",
+                despues[1] <= antes[1]);
+    }
+
+    // Lanza la carga y mide los frames durante VENTANA_MS.
+    // Devuelve {frames, frames lentos, p50 µs, p90 µs, máximo µs}.
+    private long[] medir(Carga carga) throws Exception {
+        duraciones.clear();
+        midiendo = true;
+        long inicio = SystemClock.elapsedRealtime();
+        CountDownLatch listo = new CountDownLatch(1);
+        carga.lanzar(listo);
+        assertTrue(listo.await(30, TimeUnit.SECONDS));
+        SystemClock.sleep(Math.max(0, VENTANA_MS - (SystemClock.elapsedRealtime() - inicio)));
+        midiendo = false;
+        // Los últimos frames llegan al oyente un poco después de dibujarse
+        SystemClock.sleep(100);
+
+        List<Long> ordenadas;
+        synchronized (duraciones) {
+            ordenadas = new ArrayList<>(duraciones);
+        }
+        Collections.sort(ordenadas);
+        long lentos = 0;
+        for (long ns : ordenadas) {
+            if (ns > FRAME_MS * 1_000_000L) {
+                lentos++;
+            }
+        }
+        int n = ordenadas.size();
+        return new long[]{n, lentos, percentil(ordenadas, 50), percentil(ordenadas, 90),
+                n > 0 ? ordenadas.get(n - 1) / 1_000L : 0};
+    }
+
+    private static long percentil(List<Long> ordenadas, int p) {
+        if (ordenadas.isEmpty()) {
+            return 0;
+        }
+        int i = Math.min(ordenadas.size() - 1, ordenadas.size() * p / 100);
+        return ordenadas.get(i) / 1_000L;
+    }
+
+    private static void reportar(String etiqueta, long[] r) {
+        Log.i(TAG, etiqueta + ": " + DOCUMENTOS + " documentos, " + r[0] + " frames, " + r[1]
+                + " lentos (>" + FRAME_MS + " ms), p50 " + r[2] + " µs, p90 " + r[3]
+                + " µs, máximo " + r[4] / 1000 + " ms");
+    }
+
+    private interface Carga {
+        void lanzar(CountDownLatch listo);
+    }
+
+    // Se invalida en cada dibujo: un frame por vsync mientras la ventana está visible
+    private static final class Latido extends View {
+
+        Latido(Context context) {
+            super(context);
+        }
+
+        @Override
+        protected void onDraw(Canvas canvas) {
+            super.onDraw(canvas);
+            invalidate();
+        }
+    }
+}
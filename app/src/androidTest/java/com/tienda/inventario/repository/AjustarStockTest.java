@@ -0,0 +1,224 @@
+package com.tienda.inventario.repository;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import android.content.Context;
+
+import androidx.room.Room;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.tienda.inventario.database.AppDatabase;
+import com.tienda.inventario.database.dao.OperacionPendienteDao;
+import com.tienda.inventario.database.dao.ProductoDao;
+import com.tienda.inventario.database.entities.Categoria;
+import com.tienda.inventario.database.entities.OperacionPendiente;
+import com.tienda.inventario.database.entities.Producto;
+import com.tienda.inventario.database.entities.Proveedor;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ajuste de stock por lotes (ProductoRepository.ajustarStock): fusión de escaneos por
+ * código y por ID, los estados de cada resultado y lo que queda en la cola de salida,
+ * incluida la fusión de deltas mientras un envío está en vuelo.
+ */
+@RunWith(AndroidJUnit4.class)
+public class AjustarStockTest {
+
+    private AppDatabase db;
+    private ProductoDao productoDao;
+    private OperacionPendienteDao operacionDao;
+    private ProductoRepository repository;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        db = Room.inMemoryDatabaseBuilder(context, AppDatabase.class)
+                .allowMainThreadQueries()
+                .build();
+        productoDao = db.productoDao();
+        operacionDao = db.operacionPendienteDao();
+        repository = new ProductoRepository(db);
+
+        Categoria categoria = new Categoria("General", "");
+        categoria.setIdCategoria(1);
+        db.categoriaDao().insert(categoria);
+        Proveedor proveedor = new Proveedor("General", "", "", "", "", "");
+        proveedor.setIdProveedor(1);
+        db.proveedorDao().insert(proveedor);
+
+        List<Producto> productos = new ArrayList<>();
+        productos.add(crearProducto(1, "7501", 10));
+        productos.add(crearProducto(2, "7502", 1));
+        productos.add(crearProducto(3, "7503", 5));
+        productoDao.upsertAll(productos);
+        productoDao.softDelete(3);
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    @Test
+    public void mismoProductoPorCodigoYPorIdSeSumaUnaVez() throws Exception {
+        List<ResultadoAjuste> resultados = ajustar(
+                AjusteStock.porCodigo("7501", 2),
+                AjusteStock.porId(1, 3),
+                AjusteStock.porCodigo("7501", -1));
+
+        assertEquals(1, resultados.size());
+        ResultadoAjuste resultado = resultados.get(0);
+        assertEquals(ResultadoAjuste.Estado.APLICADO, resultado.getEstado());
+        assertEquals(1, resultado.getIdProducto());
+        assertEquals("7501", resultado.getCodigoBarras());
+        assertEquals(4, resultado.getDelta());
+        assertEquals(3, resultado.getEscaneos());
+        assertEquals(14, resultado.getStockResultante());
+        assertEquals(Integer.valueOf(14), productoDao.getStockActivo(1));
+
+        // Sube como un único ajuste relativo; otro lote se suma a la misma fila
+        OperacionPendiente operacion = operacionDao.getByDocId("doc-1");
+        assertEquals(OperacionPendiente.AJUSTAR, operacion.getTipo());
+        assertEquals(4, operacion.getDeltaStock());
+        ajustar(AjusteStock.porId(1, -6));
+        assertEquals(-2, operacionDao.getByDocId("doc-1").getDeltaStock());
+        assertEquals(Integer.valueOf(8), productoDao.getStockActivo(1));
+    }
+
+    @Test
+    public void estadosDeLosQueNoSeAplican() throws Exception {
+        List<ResultadoAjuste> resultados = ajustar(
+                AjusteStock.porCodigo("0000", 1),
+                AjusteStock.porId(2, -5),
+                AjusteStock.porId(1, 2),
+                AjusteStock.porId(99, 1),
+                AjusteStock.porCodigo("7503", 1),
+                AjusteStock.porId(1, -2),
+                AjusteStock.porCodigo("0000", 2));
+
+        // En el orden del primer escaneo; los códigos desconocidos van al final
+        assertEquals(5, resultados.size());
+
+        ResultadoAjuste insuficiente = resultados.get(0);
+        assertEquals(2, insuficiente.getIdProducto());
+        assertEquals(ResultadoAjuste.Estado.STOCK_INSUFICIENTE, insuficiente.getEstado());
+        assertEquals(1, insuficiente.getStockResultante());
+
+        ResultadoAjuste sinCambio = resultados.get(1);
+        assertEquals(1, sinCambio.getIdProducto());
+        assertEquals(ResultadoAjuste.Estado.SIN_CAMBIO, sinCambio.getEstado());
+        assertEquals(2, sinCambio.getEscaneos());
+        assertEquals(10, sinCambio.getStockResultante());
+
+        ResultadoAjuste sinProducto = resultados.get(2);
+        assertEquals(99, sinProducto.getIdProducto());
+        assertEquals(ResultadoAjuste.Estado.NO_ENCONTRADO, sinProducto.getEstado());
+        assertEquals(-1, sinProducto.getStockResultante());
+
+        // El código desconocido escaneado dos veces llega sumado
+        ResultadoAjuste desconocido = resultados.get(3);
+        assertEquals("0000", desconocido.getCodigoBarras());
+        assertEquals(0, desconocido.getIdProducto());
+        assertEquals(ResultadoAjuste.Estado.NO_ENCONTRADO, desconocido.getEstado());
+        assertEquals(3, desconocido.getDelta());
+        assertEquals(2, desconocido.getEscaneos());
+
+        // Un producto dado de baja no se resuelve por código: cuenta como desconocido
+        ResultadoAjuste inactivo = resultados.get(4);
+        assertEquals("7503", inactivo.getCodigoBarras());
+        assertEquals(ResultadoAjuste.Estado.NO_ENCONTRADO, inactivo.getEstado());
+
+        // Nada se aplicó: ni stock ni cola de salida
+        assertEquals(Integer.valueOf(1), productoDao.getStockActivo(2));
+        assertEquals(Integer.valueOf(10), productoDao.getStockActivo(1));
+        assertNull(operacionDao.getByDocId("doc-1"));
+        assertNull(operacionDao.getByDocId("doc-2"));
+    }
+
+    @Test
+    public void colaFusionaDeltasConEnvioEnVuelo() {
+        operacionDao.encolarAjuste("doc-1", 3, 1_000L);
+        operacionDao.encolarAjuste("doc-1", 2, 1_100L);
+        OperacionPendiente antes = operacionDao.getByDocId("doc-1");
+        assertEquals(5, antes.getDeltaStock());
+
+        // Se fija el envío: id y delta quedan guardados
+        operacionDao.fijarEnvio("doc-1", "envio-1");
+        OperacionPendiente enviada = operacionDao.getByDocId("doc-1");
+        assertEquals("envio-1", enviada.getIdEnvio());
+        assertEquals(5, enviada.getDeltaEnviado());
+
+        // Un escaneo durante el envío se acumula sin tocar lo enviado, y el envío fijado
+        // no se reemplaza: un reintento repite el mismo
+        operacionDao.encolarAjuste("doc-1", -1, 1_200L);
+        operacionDao.fijarEnvio("doc-1", "envio-2");
+        OperacionPendiente enVuelo = operacionDao.getByDocId("doc-1");
+        assertEquals(4, enVuelo.getDeltaStock());
+        assertEquals("envio-1", enVuelo.getIdEnvio());
+        assertEquals(5, enVuelo.getDeltaEnviado());
+
+        // Una confirmación de otro envío no descuenta nada
+        operacionDao.confirmarAjuste("doc-1", enviada.getVersion(), "envio-viejo");
+        assertEquals(4, operacionDao.getByDocId("doc-1").getDeltaStock());
+
+        // Al confirmar queda solo la diferencia, sin envío fijado
+        operacionDao.confirmarAjuste("doc-1", enviada.getVersion(), "envio-1");
+        OperacionPendiente resto = operacionDao.getByDocId("doc-1");
+        assertEquals(-1, resto.getDeltaStock());
+        assertNull(resto.getIdEnvio());
+        assertEquals(0, resto.getDeltaEnviado());
+
+        // Sin cambios mientras tanto, la confirmación borra la fila
+        operacionDao.fijarEnvio("doc-1", "envio-3");
+        operacionDao.confirmarAjuste("doc-1", resto.getVersion(), "envio-3");
+        assertNull(operacionDao.getByDocId("doc-1"));
+    }
+
+    @Test
+    public void guardarReemplazaAlAjuste() {
+        operacionDao.encolarAjuste("doc-1", 3, 1_000L);
+        operacionDao.fijarEnvio("doc-1", "envio-1");
+
+        // Un GUARDAR sube el stock absoluto: el delta y el envío fijado dejan de contar
+        operacionDao.encolar("doc-1", OperacionPendiente.GUARDAR, 1_100L);
+        OperacionPendiente guardar = operacionDao.getByDocId("doc-1");
+        assertEquals(OperacionPendiente.GUARDAR, guardar.getTipo());
+        assertEquals(0, guardar.getDeltaStock());
+        assertNull(guardar.getIdEnvio());
+
+        // Un ajuste posterior no lo convierte en AJUSTAR, solo cambia la versión
+        operacionDao.encolarAjuste("doc-1", 2, 1_200L);
+        OperacionPendiente despues = operacionDao.getByDocId("doc-1");
+        assertEquals(OperacionPendiente.GUARDAR, despues.getTipo());
+        assertEquals(0, despues.getDeltaStock());
+        assertEquals(guardar.getVersion() + 1, despues.getVersion());
+    }
+
+    private List<ResultadoAjuste> ajustar(AjusteStock... ajustes) throws Exception {
+        return repository.ajustarStock(Arrays.asList(ajustes)).get(10, TimeUnit.SECONDS);
+    }
+
+    private static Producto crearProducto(int id, String codigo, int stock) {
+        Producto producto = new Producto();
+        producto.setIdProducto(id);
+        producto.setDocId("doc-" + id);
+        producto.setNombreProducto("Producto " + id);
+        producto.setCodigoBarras(codigo);
+        producto.setStockActual(stock);
+        producto.setStockMinimo(0);
+        producto.setIdCategoria(1);
+        producto.setIdProveedor(1);
+        return producto;
+    }
+}
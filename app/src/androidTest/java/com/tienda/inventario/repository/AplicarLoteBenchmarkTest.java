@@ -0,0 +1,128 @@
+package com.tienda.inventario.repository;
+
+import static org.junit.Assert.assertEquals;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.room.Room;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.tienda.inventario.database.AppDatabase;
+import com.tienda.inventario.database.entities.Categoria;
+import com.tienda.inventario.database.entities.Producto;
+import com.tienda.inventario.database.entities.Proveedor;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compara filas/s del bucle insert() por fila (una transacción por fila)
+ * contra ProductoRepository.aplicarLote(). Usa una base en disco para que
+ * el costo de cada commit sea real.
+ */
+@RunWith(AndroidJUnit4.class)
+public class AplicarLoteBenchmarkTest {
+
+    private static final String TAG = "AplicarLoteBenchmark";
+    private static final String DB_NAME = "benchmark_lote.db";
+    private static final int FILAS = 5000;
+
+    private Context context;
+    private AppDatabase db;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(DB_NAME);
+        db = Room.databaseBuilder(context, AppDatabase.class, DB_NAME).build();
+
+        Categoria categoria = new Categoria("General", "");
+        categoria.setIdCategoria(1);
+        db.categoriaDao().insert(categoria);
+
+        Proveedor proveedor = new Proveedor("General", "", "", "", "", "");
+        proveedor.setIdProveedor(1);
+        db.proveedorDao().insert(proveedor);
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+        context.deleteDatabase(DB_NAME);
+    }
+
+    @Test
+    public void bucleInsertPorFila() {
+        List<Producto> productos = crearProductos(FILAS);
+
+        long inicio = SystemClock.elapsedRealtime();
+        for (Producto producto : productos) {
+            db.productoDao().insert(producto);
+        }
+        long duracion = SystemClock.elapsedRealtime() - inicio;
+
+        reportar("insert() por fila", duracion);
+        assertEquals(FILAS, contarProductos());
+    }
+
+    @Test
+    public void aplicarLoteUnaTransaccion() {
+        LoteSync lote = new LoteSync();
+        lote.setProductos(crearProductos(FILAS));
+
+        long inicio = SystemClock.elapsedRealtime();
+        new ProductoRepository(db).aplicarLote(lote);
+        long duracion = SystemClock.elapsedRealtime() - inicio;
+
+        reportar("aplicarLote()", duracion);
+        assertEquals(FILAS, contarProductos());
+    }
+
+    @Test
+    public void aplicarLoteEnChunks() {
+        LoteSync lote = new LoteSync();
+        lote.setProductos(crearProductos(FILAS));
+
+        long inicio = SystemClock.elapsedRealtime();
+        new ProductoRepository(db).aplicarLote(lote, 500);
+        long duracion = SystemClock.elapsedRealtime() - inicio;
+
+        reportar("aplicarLote(500)", duracion);
+        assertEquals(FILAS, contarProductos());
+    }
+
+    private List<Producto> crearProductos(int cantidad) {
+        List<Producto> productos = new ArrayList<>(cantidad);
+        for (int i = 1; i <= cantidad; i++) {
+            Producto producto = new Producto();
+            producto.setIdProducto(i);
+            producto.setNombreProducto("Producto " + i);
+            producto.setDescripcion("Descripción del producto " + i);
+            producto.setPrecioUnitario(i * 1.5);
+            producto.setStockActual(i % 50);
+            producto.setStockMinimo(10);
+            producto.setCodigoBarras(String.valueOf(7500000000000L + i));
+            producto.setIdCategoria(1);
+            producto.setIdProveedor(1);
+            productos.add(producto);
+        }
+        return productos;
+    }
+
+    private int contarProductos() {
+        return (int) db.compileStatement("SELECT COUNT(*) FROM productos").simpleQueryForLong();
+    }
+
+    private void reportar(String modo, long duracionMs) {
+        long filasPorSegundo = duracionMs > 0 ? FILAS * 1000L / duracionMs : FILAS;
+        Log.i(TAG, modo + ": " + FILAS + " filas en " + duracionMs + " ms (" + filasPorSegundo + " filas/s)");
+    }
+}
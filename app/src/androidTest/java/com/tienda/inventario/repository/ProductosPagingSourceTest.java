@@ -0,0 +1,172 @@
+package com.tienda.inventario.repository;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+
+import androidx.paging.PagingSource;
+import androidx.room.Room;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.tienda.inventario.database.AppDatabase;
+import com.tienda.inventario.database.entities.Categoria;
+import com.tienda.inventario.database.entities.Producto;
+import com.tienda.inventario.database.entities.ProductoFila;
+import com.tienda.inventario.database.entities.Proveedor;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Recorre el catálogo con ProductosPagingSource hasta el final, de vuelta al principio y
+ * otra vez al final, reteniendo como Paging solo TAMANO_MAXIMO filas: cada carga parte
+ * de la página que quedó en el borde y ninguna fila debe saltarse ni repetirse.
+ * Los nombres se repiten y no siguen el orden de los ids, para cubrir el desempate.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ProductosPagingSourceTest {
+
+    private static final int PRODUCTOS = 1_000;
+    private static final int TAMANO_PAGINA = 50;
+    private static final int TAMANO_MAXIMO = 6 * TAMANO_PAGINA;
+
+    private AppDatabase db;
+    private ProductosPagingSource fuente;
+    // ids de los productos activos en el orden de la lista
+    private final List<Integer> esperado = new ArrayList<>();
+    // Páginas retenidas, de la primera a la última
+    private final Deque<PagingSource.LoadResult.Page<ProductosPagingSource.Clave, ProductoFila>> ventana =
+            new ArrayDeque<>();
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        db = Room.inMemoryDatabaseBuilder(context, AppDatabase.class)
+                .allowMainThreadQueries()
+                .build();
+
+        Categoria categoria = new Categoria("General", "");
+        categoria.setIdCategoria(1);
+        db.categoriaDao().insert(categoria);
+        Proveedor proveedor = new Proveedor("General", "", "", "", "", "");
+        proveedor.setIdProveedor(1);
+        db.proveedorDao().insert(proveedor);
+
+        List<Producto> productos = new ArrayList<>(PRODUCTOS);
+        for (int i = 1; i <= PRODUCTOS; i++) {
+            Producto producto = new Producto();
+            producto.setIdProducto(i);
+            producto.setDocId("doc-" + i);
+            // 337 nombres para 1000 productos, en otro orden que los ids
+            producto.setNombreProducto(String.format("Producto %03d", (i * 7) % 337));
+            producto.setIdCategoria(1);
+            producto.setIdProveedor(1);
+            producto.setActivo(true);
+            productos.add(producto);
+        }
+        db.productoDao().upsertAll(productos);
+
+        productos.sort(Comparator.comparing(Producto::getNombreProducto)
+                .thenComparingInt(Producto::getIdProducto));
+        for (Producto producto : productos) {
+            esperado.add(producto.getIdProducto());
+        }
+        fuente = new ProductosPagingSource(db);
+    }
+
+    @After
+    public void tearDown() {
+        fuente.invalidate();
+        db.close();
+    }
+
+    @Test
+    public void idaYVueltaDescartandoPaginasNoSaltaFilas() throws Exception {
+        // Hacia el final: se descartan las primeras páginas
+        agregarAlFinal(cargar(new PagingSource.LoadParams.Refresh<>(null, 2 * TAMANO_PAGINA, false)));
+        List<Integer> vistos = idsVentana();
+        while (ventana.getLast().getNextKey() != null) {
+            vistos.addAll(ids(agregarAlFinal(cargar(new PagingSource.LoadParams.Append<>(
+                    ventana.getLast().getNextKey(), TAMANO_PAGINA, false)))));
+        }
+        assertTrue(filasVentana() <= TAMANO_MAXIMO);
+        assertEquals(esperado, vistos);
+
+        // De vuelta al principio desde la primera página que quedó: se descartan las últimas
+        vistos = idsVentana();
+        while (ventana.getFirst().getPrevKey() != null) {
+            vistos.addAll(0, ids(agregarAlPrincipio(cargar(new PagingSource.LoadParams.Prepend<>(
+                    ventana.getFirst().getPrevKey(), TAMANO_PAGINA, false)))));
+        }
+        assertEquals(esperado, vistos);
+
+        // Otra vez hacia el final desde la última página que quedó, que vino de un prepend
+        vistos = idsVentana();
+        while (ventana.getLast().getNextKey() != null) {
+            vistos.addAll(ids(agregarAlFinal(cargar(new PagingSource.LoadParams.Append<>(
+                    ventana.getLast().getNextKey(), TAMANO_PAGINA, false)))));
+        }
+        assertEquals(esperado, vistos);
+    }
+
+    @SuppressWarnings("unchecked")
+    private PagingSource.LoadResult.Page<ProductosPagingSource.Clave, ProductoFila> cargar(
+            PagingSource.LoadParams<ProductosPagingSource.Clave> params) throws Exception {
+        PagingSource.LoadResult<ProductosPagingSource.Clave, ProductoFila> resultado =
+                fuente.loadFuture(params).get();
+        assertTrue("Se esperaba una página: " + resultado, resultado instanceof PagingSource.LoadResult.Page);
+        return (PagingSource.LoadResult.Page<ProductosPagingSource.Clave, ProductoFila>) resultado;
+    }
+
+    private PagingSource.LoadResult.Page<ProductosPagingSource.Clave, ProductoFila> agregarAlFinal(
+            PagingSource.LoadResult.Page<ProductosPagingSource.Clave, ProductoFila> pagina) {
+        ventana.addLast(pagina);
+        while (filasVentana() > TAMANO_MAXIMO) {
+            ventana.removeFirst();
+        }
+        return pagina;
+    }
+
+    private PagingSource.LoadResult.Page<ProductosPagingSource.Clave, ProductoFila> agregarAlPrincipio(
+            PagingSource.LoadResult.Page<ProductosPagingSource.Clave, ProductoFila> pagina) {
+        ventana.addFirst(pagina);
+        while (filasVentana() > TAMANO_MAXIMO) {
+            ventana.removeLast();
+        }
+        return pagina;
+    }
+
+    private int filasVentana() {
+        int filas = 0;
+        for (PagingSource.LoadResult.Page<ProductosPagingSource.Clave, ProductoFila> pagina : ventana) {
+            filas += pagina.getData().size();
+        }
+        return filas;
+    }
+
+    private List<Integer> idsVentana() {
+        List<Integer> ids = new ArrayList<>();
+        for (PagingSource.LoadResult.Page<ProductosPagingSource.Clave, ProductoFila> pagina : ventana) {
+            ids.addAll(ids(pagina));
+        }
+        return ids;
+    }
+
+    private static List<Integer> ids(PagingSource.LoadResult.Page<ProductosPagingSource.Clave, ProductoFila> pagina) {
+        List<Integer> ids = new ArrayList<>(pagina.getData().size());
+        for (ProductoFila fila : pagina.getData()) {
+            ids.add(fila.getIdProducto());
+        }
+        return ids;
+    }
+}
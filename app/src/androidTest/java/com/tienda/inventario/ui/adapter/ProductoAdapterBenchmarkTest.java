@@ -0,0 +1,221 @@
+package com.tienda.inventario.ui.adapter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.app.Instrumentation;
+import android.content.Context;
+import android.os.SystemClock;
+import android.util.Log;
+import android.view.ContextThemeWrapper;
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.tienda.inventario.R;
+import com.tienda.inventario.database.entities.ProductoFila;
+import com.tienda.inventario.viewmodel.FilaPresentacion;
+import com.tienda.inventario.viewmodel.PresentacionProductos;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cambia el stock de una fila en una lista de 10k productos, una y otra vez, con
+ * ProductoAdapter (diferencias en segundo plano) y con un adaptador que hace
+ * notifyDataSetChanged como el anterior. Informa tiempo de hilo principal (aplicar la
+ * lista y la pasada de layout) y filas redibujadas por actualización. Las filas se
+ * presentan fuera del hilo principal, como en la app.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ProductoAdapterBenchmarkTest {
+
+    private static final String TAG = "ProductoAdapterBenchmark";
+    private static final int FILAS = 10_000;
+    private static final int ACTUALIZACIONES = 50;
+    private static final int ANCHO = 1080;
+    private static final int ALTO = 1920;
+
+    private Instrumentation instrumentation;
+    private RecyclerView recycler;
+    private PresentacionProductos presentacion;
+
+    @Before
+    public void setUp() {
+        instrumentation = InstrumentationRegistry.getInstrumentation();
+        presentacion = PresentacionProductos.getInstance(instrumentation.getTargetContext());
+        instrumentation.runOnMainSync(() -> {
+            Context context = new ContextThemeWrapper(instrumentation.getTargetContext(),
+                    R.style.Theme_Inventario);
+            recycler = new RecyclerView(context);
+            recycler.setLayoutManager(new LinearLayoutManager(context));
+            // Sin animaciones el cambio se aplica entero en la pasada de layout medida
+            recycler.setItemAnimator(null);
+        });
+    }
+
+    @Test
+    public void listAdapterRedibujaSoloLaFilaCambiada() throws Exception {
+        List<FilaPresentacion> lista = crearFilas();
+
+        ContadorListAdapter listAdapter = new ContadorListAdapter();
+        instrumentation.runOnMainSync(() -> recycler.setAdapter(listAdapter));
+        enviar(listAdapter, lista);
+        medirLayout();
+        long[] diferencias = actualizar(lista, nueva -> enviar(listAdapter, nueva), listAdapter.binds);
+
+        ContadorCompleto completo = new ContadorCompleto();
+        instrumentation.runOnMainSync(() -> recycler.setAdapter(completo));
+        instrumentation.runOnMainSync(() -> completo.setProductos(lista));
+        medirLayout();
+        long[] todo = actualizar(lista, nueva -> enPrincipal(() -> completo.setProductos(nueva)),
+                completo.binds);
+
+        reportar("ListAdapter", diferencias);
+        reportar("notifyDataSetChanged", todo);
+
+        assertEquals("Un cambio de stock debería redibujar una sola fila",
+                ACTUALIZACIONES, diferencias[0]);
+        assertEquals("El cambio de stock debería llegar como payload (bind parcial)",
+                ACTUALIZACIONES, listAdapter.parciales);
+        assertTrue("notifyDataSetChanged redibuja todas las filas visibles", todo[0] > diferencias[0]);
+    }
+
+    // Entrega una lista al adaptador y devuelve los ns que ocupó el hilo principal
+    private interface Envio {
+        long enviar(List<FilaPresentacion> lista) throws Exception;
+    }
+
+    // Cambia el stock de una fila distinta en cada vuelta (siempre en pantalla).
+    // Devuelve {binds, µs de hilo principal}.
+    private long[] actualizar(List<FilaPresentacion> base, Envio envio, int[] binds) throws Exception {
+        List<FilaPresentacion> actual = base;
+        long bindsAntes = binds[0];
+        long nsPrincipal = 0;
+        for (int i = 0; i < ACTUALIZACIONES; i++) {
+            List<FilaPresentacion> nueva = new ArrayList<>(actual);
+            int posicion = i % 5;
+            ProductoFila anterior = nueva.get(posicion).getFila();
+            nueva.set(posicion, presentacion.de(fila(anterior.getIdProducto(), anterior.getStockActual() + 1)));
+
+            nsPrincipal += envio.enviar(nueva);
+            nsPrincipal += medirLayout();
+            actual = nueva;
+        }
+        return new long[]{binds[0] - bindsAntes, nsPrincipal / 1_000L};
+    }
+
+    // submitList vuelve enseguida; el diff corre en segundo plano y no cuenta como hilo
+    // principal. Se espera a que se aplique (el despacho de los cambios, proporcional a
+    // las filas cambiadas, queda fuera de la medición) y el layout se mide después.
+    private long enviar(ContadorListAdapter adapter, List<FilaPresentacion> lista) throws Exception {
+        CountDownLatch aplicada = new CountDownLatch(1);
+        long duracion = enPrincipal(() -> adapter.submitList(lista, aplicada::countDown));
+        assertTrue(aplicada.await(10, TimeUnit.SECONDS));
+        return duracion;
+    }
+
+    private long enPrincipal(Runnable tarea) {
+        long[] duracion = new long[1];
+        instrumentation.runOnMainSync(() -> {
+            long inicio = SystemClock.elapsedRealtimeNanos();
+            tarea.run();
+            duracion[0] = SystemClock.elapsedRealtimeNanos() - inicio;
+        });
+        return duracion[0];
+    }
+
+    // Devuelve ns de la pasada de measure + layout
+    private long medirLayout() {
+        return enPrincipal(() -> {
+            recycler.measure(View.MeasureSpec.makeMeasureSpec(ANCHO, View.MeasureSpec.EXACTLY),
+                    View.MeasureSpec.makeMeasureSpec(ALTO, View.MeasureSpec.EXACTLY));
+            recycler.layout(0, 0, ANCHO, ALTO);
+        });
+    }
+
+    private static void reportar(String etiqueta, long[] resultado) {
+        Log.i(TAG, etiqueta + ": " + ACTUALIZACIONES + " actualizaciones de " + FILAS + " filas, "
+                + resultado[0] + " filas redibujadas, " + resultado[1] / 1000 + " ms en hilo principal ("
+                + resultado[1] / ACTUALIZACIONES + " µs por actualización)");
+    }
+
+    private List<FilaPresentacion> crearFilas() {
+        List<ProductoFila> filas = new ArrayList<>(FILAS);
+        for (int i = 1; i <= FILAS; i++) {
+            filas.add(fila(i, 10));
+        }
+        return presentacion.deTodas(filas);
+    }
+
+    private static ProductoFila fila(int id, int stock) {
+        ProductoFila fila = new ProductoFila();
+        fila.setIdProducto(id);
+        fila.setNombreProducto(String.format("Producto %05d", id));
+        fila.setDescripcion("Descripción del producto " + id);
+        fila.setPrecioUnitario(10 + id % 100);
+        fila.setStockActual(stock);
+        fila.setStockMinimo(5);
+        fila.setCodigoBarras("750" + id);
+        fila.setIdCategoria(1);
+        fila.setIdProveedor(1);
+        fila.setNombreCategoria("General");
+        fila.setNombreProveedor("General");
+        return fila;
+    }
+
+    // Cuenta los binds completos y los parciales (con payload)
+    private static class ContadorListAdapter extends ProductoAdapter {
+        final int[] binds = new int[1];
+        int parciales;
+
+        @Override
+        public void onBindViewHolder(@NonNull ProductoViewHolder holder, int position,
+                                     @NonNull List<Object> payloads) {
+            binds[0]++;
+            if (!payloads.isEmpty()) {
+                parciales++;
+            }
+            super.onBindViewHolder(holder, position, payloads);
+        }
+    }
+
+    // El adaptador de antes: reemplaza la lista y redibuja todo
+    private static class ContadorCompleto extends RecyclerView.Adapter<ProductoViewHolder> {
+        final int[] binds = new int[1];
+        private List<FilaPresentacion> productos = new ArrayList<>();
+
+        void setProductos(List<FilaPresentacion> productos) {
+            this.productos = productos;
+            notifyDataSetChanged();
+        }
+
+        @NonNull
+        @Override
+        public ProductoViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+            return ProductoViewHolder.crear(parent);
+        }
+
+        @Override
+        public void onBindViewHolder(@NonNull ProductoViewHolder holder, int position) {
+            binds[0]++;
+            holder.bind(productos.get(position), null);
+        }
+
+        @Override
+        public int getItemCount() {
+            return productos.size();
+        }
+    }
+}
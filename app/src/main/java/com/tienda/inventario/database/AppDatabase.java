@@ -14,17 +14,31 @@ import androidx.room.RoomDatabase;
 import androidx.sqlite.db.SupportSQLiteDatabase;
 
 import com.tienda.inventario.database.dao.CategoriaDao;
+import com.tienda.inventario.database.dao.InventarioTotalDao;
+import com.tienda.inventario.database.dao.OperacionPendienteDao;
 import com.tienda.inventario.database.dao.ProductoDao;
+import com.tienda.inventario.database.dao.ProductoStagingDao;
 import com.tienda.inventario.database.dao.ProvedoorDao;
+import com.tienda.inventario.database.dao.StockBajoDao;
+import com.tienda.inventario.database.dao.SyncEstadoDao;
+import com.tienda.inventario.database.entities.CambioStockBajo;
 import com.tienda.inventario.database.entities.Categoria;
+import com.tienda.inventario.database.entities.CategoriaFts;
+import com.tienda.inventario.database.entities.InventarioTotal;
+import com.tienda.inventario.database.entities.OperacionPendiente;
 import com.tienda.inventario.database.entities.Producto;
+import com.tienda.inventario.database.entities.ProductoFts;
+import com.tienda.inventario.database.entities.ProductoStaging;
+import com.tienda.inventario.database.entities.ProductoStockBajo;
 import com.tienda.inventario.database.entities.Proveedor;
+import com.tienda.inventario.database.entities.ProveedorFts;
+import com.tienda.inventario.database.entities.SyncEstado;
 
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-
-@Database(entities = {Producto.class, Categoria.class, Proveedor.class},
-        version = 1,
+@Database(entities = {Producto.class, Categoria.class, Proveedor.class, SyncEstado.class,
+        OperacionPendiente.class, ProductoStaging.class,
+        ProductoFts.class, CategoriaFts.class, ProveedorFts.class, InventarioTotal.class,
+        ProductoStockBajo.class, CambioStockBajo.class},
+        version = 12,
         exportSchema = false)
 public abstract class AppDatabase extends RoomDatabase {
 
@@ -32,14 +46,34 @@ public abstract class AppDatabase extends RoomDatabase {
     public abstract ProductoDao productoDao();
     public abstract CategoriaDao categoriaDao();
     public abstract ProvedoorDao proveedorDao();
+    public abstract SyncEstadoDao syncEstadoDao();
+    public abstract OperacionPendienteDao operacionPendienteDao();
+    public abstract ProductoStagingDao productoStagingDao();
+    public abstract InventarioTotalDao inventarioTotalDao();
+    public abstract StockBajoDao stockBajoDao();
 
     // Singleton
     private static volatile AppDatabase INSTANCE;
-    private static final int NUMBER_OF_THREADS = 4;
+    private static final int NUMBER_OF_THREADS = 3;
+
+    // Lecturas en segundo plano por carril (con WAL no esperan al escritor).
+    // Las escrituras van por escritor().
+    public static final PlanificadorLecturas lecturas =
+            new PlanificadorLecturas("room-lectura", NUMBER_OF_THREADS);
+
+    private volatile EscritorLotes escritor;
 
-    // ExecutorService para operaciones en segundo plano
-    public static final ExecutorService databaseWriteExecutor =
-            Executors.newFixedThreadPool(NUMBER_OF_THREADS);
+    // Hilo escritor único de esta base
+    public EscritorLotes escritor() {
+        if (escritor == null) {
+            synchronized (this) {
+                if (escritor == null) {
+                    escritor = new EscritorLotes(this);
+                }
+            }
+        }
+        return escritor;
+    }
 
     public static AppDatabase getDatabase(final Context context) {
         if (INSTANCE == null) {
@@ -50,6 +84,11 @@ public abstract class AppDatabase extends RoomDatabase {
                                     AppDatabase.class,
                                     "inventario_tienda.db")
                             .addCallback(roomCallback)
+                            // operaciones_pendientes guarda cambios que aún no están en
+                            // Firestore: cada versión nueva lleva su migración (ver
+                            // Migraciones). Solo se recrean las bases anteriores a la cola.
+                            .addMigrations(Migraciones.TODAS)
+                            .fallbackToDestructiveMigrationFrom(Migraciones.DESTRUCTIVAS_DESDE)
                             .build();
                 }
             }
@@ -132,5 +171,12 @@ public abstract class AppDatabase extends RoomDatabase {
             // NOTA: Ya no insertar datos aquí, se cargarán desde Firestore
             Log.d("AppDatabase", "Base de datos creada");
         }
+
+        @Override
+        public void onOpen(@NonNull SupportSQLiteDatabase db) {
+            super.onOpen(db);
+            TotalesInventario.instalar(db);
+            ConjuntoStockBajo.instalar(db);
+        }
     };
 }
\ No newline at end of file
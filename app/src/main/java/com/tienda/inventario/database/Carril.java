@@ -0,0 +1,9 @@
+package com.tienda.inventario.database;
+
+// Prioridad de una tarea de base de datos. Lo que el usuario está esperando en pantalla
+// (abrir un formulario, la lista, guardar un cambio) va por INTERACTIVO; la
+// sincronización y los avisos de fondo, por FONDO.
+public enum Carril {
+    INTERACTIVO,
+    FONDO
+}
@@ -0,0 +1,93 @@
+package com.tienda.inventario.database;
+
+import android.database.Cursor;
+import android.util.Log;
+
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+// Triggers que mantienen productos_stock_bajo y registran en stock_bajo_cambios cada
+// producto que cruza el umbral, en cualquier sentido. Igual que TotalesInventario, se
+// instalan al abrir la base y, si faltaban, el conjunto se reconstruye desde productos.
+final class ConjuntoStockBajo {
+
+    private static final String TAG = "ConjuntoStockBajo";
+
+    // Cruces conservados; quien lea desde una marca más antigua recibe "incompleto"
+    static final int MAX_CAMBIOS = 1000;
+
+    private static final String[] TRIGGERS = {
+            "productos_stock_bajo_insert", "productos_stock_bajo_delete",
+            "productos_stock_bajo_entra", "productos_stock_bajo_sale"};
+
+    private ConjuntoStockBajo() {
+    }
+
+    static void instalar(SupportSQLiteDatabase db) {
+        if (contarTriggers(db) == TRIGGERS.length) {
+            podar(db);
+            return;
+        }
+        db.beginTransaction();
+        try {
+            db.execSQL("CREATE TRIGGER IF NOT EXISTS " + TRIGGERS[0]
+                    + " AFTER INSERT ON productos WHEN " + bajo("NEW")
+                    + " BEGIN " + entra("NEW") + " END");
+            db.execSQL("CREATE TRIGGER IF NOT EXISTS " + TRIGGERS[1]
+                    + " AFTER DELETE ON productos WHEN " + bajo("OLD")
+                    + " BEGIN " + sale("OLD") + " END");
+            db.execSQL("CREATE TRIGGER IF NOT EXISTS " + TRIGGERS[2]
+                    + " AFTER UPDATE OF activo, stock_actual, stock_minimo ON productos"
+                    + " WHEN NOT " + bajo("OLD") + " AND " + bajo("NEW")
+                    + " BEGIN " + entra("NEW") + " END");
+            db.execSQL("CREATE TRIGGER IF NOT EXISTS " + TRIGGERS[3]
+                    + " AFTER UPDATE OF activo, stock_actual, stock_minimo ON productos"
+                    + " WHEN " + bajo("OLD") + " AND NOT " + bajo("NEW")
+                    + " BEGIN " + sale("OLD") + " END");
+
+            // Sin triggers no hay historia fiable: se parte del estado actual. La
+            // numeración salta uno para que quien leyó hasta el último cruce vea el hueco
+            // (getCambiosStockBajo lo informa como incompleto) y relea el conjunto.
+            db.execSQL("DELETE FROM stock_bajo_cambios");
+            db.execSQL("UPDATE sqlite_sequence SET seq = seq + 1 WHERE name = 'stock_bajo_cambios'");
+            db.execSQL("DELETE FROM productos_stock_bajo");
+            db.execSQL("INSERT INTO productos_stock_bajo (id_producto) "
+                    + "SELECT id_producto FROM productos WHERE " + bajo(null));
+            db.setTransactionSuccessful();
+            Log.d(TAG, "Triggers instalados y conjunto reconstruido");
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    private static void podar(SupportSQLiteDatabase db) {
+        db.execSQL("DELETE FROM stock_bajo_cambios WHERE seq <= "
+                + "(SELECT MAX(seq) FROM stock_bajo_cambios) - " + MAX_CAMBIOS);
+    }
+
+    private static int contarTriggers(SupportSQLiteDatabase db) {
+        StringBuilder sql = new StringBuilder(
+                "SELECT COUNT(*) FROM sqlite_master WHERE type = 'trigger' AND name IN (");
+        for (int i = 0; i < TRIGGERS.length; i++) {
+            sql.append(i == 0 ? "'" : ", '").append(TRIGGERS[i]).append("'");
+        }
+        sql.append(")");
+        try (Cursor cursor = db.query(sql.toString())) {
+            return cursor.moveToFirst() ? cursor.getInt(0) : 0;
+        }
+    }
+
+    private static String bajo(String fila) {
+        String prefijo = fila == null ? "" : fila + ".";
+        return "(" + prefijo + "activo = 1 AND " + prefijo + "stock_actual <= " + prefijo + "stock_minimo)";
+    }
+
+    private static String entra(String fila) {
+        return "INSERT OR IGNORE INTO productos_stock_bajo (id_producto) VALUES (" + fila + ".id_producto); "
+                + "INSERT INTO stock_bajo_cambios (id_producto, entra) VALUES (" + fila + ".id_producto, 1); ";
+    }
+
+    private static String sale(String fila) {
+        return "DELETE FROM productos_stock_bajo WHERE id_producto = " + fila + ".id_producto; "
+                + "INSERT INTO stock_bajo_cambios (id_producto, entra) VALUES (" + fila + ".id_producto, 0); ";
+    }
+}
@@ -0,0 +1,31 @@
+package com.tienda.inventario.database;
+
+import java.util.Locale;
+
+// Construye expresiones MATCH para las tablas FTS: cada palabra escrita se busca
+// como prefijo y todas deben aparecer ("coca lit" → "coca* lit*")
+public final class ConsultaFts {
+
+    private ConsultaFts() {
+    }
+
+    // Devuelve null si el texto no tiene ninguna palabra buscable
+    public static String prefijos(String texto) {
+        if (texto == null) {
+            return null;
+        }
+        StringBuilder consulta = new StringBuilder();
+        // Solo letras y dígitos: las comillas, '*', '-' o ':' son operadores de FTS.
+        // En minúsculas para que "or"/"and"/"near" no se lean como operadores.
+        for (String palabra : texto.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (palabra.isEmpty()) {
+                continue;
+            }
+            if (consulta.length() > 0) {
+                consulta.append(' ');
+            }
+            consulta.append(palabra).append('*');
+        }
+        return consulta.length() > 0 ? consulta.toString() : null;
+    }
+}
@@ -0,0 +1,226 @@
+package com.tienda.inventario.database;
+
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.room.RoomDatabase;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+// Único hilo escritor de la base. SQLite admite un solo escritor a la vez: varios hilos
+// escribiendo solo compiten por el bloqueo y confirman cada uno por su lado. Aquí las
+// mutaciones que llegan juntas (por ejemplo, escaneos seguidos) se confirman en una sola
+// transacción: se toma la primera y se esperan más hasta VENTANA_MS o MAX_LOTE.
+// Cada llamada recibe un futuro que se completa cuando su cambio quedó confirmado.
+// Las mutaciones del usuario (carril interactivo) pasan antes que las tareas de
+// sincronización (carril de fondo), y estas ceden el hilo entre transacciones.
+public final class EscritorLotes {
+
+    private static final String TAG = "EscritorLotes";
+
+    private static final int MAX_LOTE = 100;
+    private static final long VENTANA_MS = 4;
+
+    private final RoomDatabase database;
+    private final Thread hilo;
+    private final Map<Carril, ArrayDeque<Tarea<?>>> colas = new EnumMap<>(Carril.class);
+    private final Map<Carril, MetricasCarril> metricas = new EnumMap<>(Carril.class);
+
+    private static final class Tarea<T> {
+        final Callable<T> accion;
+        final Carril carril;
+        final long encoladaEn;
+        final CompletableFuture<T> futuro = new CompletableFuture<>();
+
+        Tarea(Callable<T> accion, Carril carril, long encoladaEn) {
+            this.accion = accion;
+            this.carril = carril;
+            this.encoladaEn = encoladaEn;
+        }
+
+        // Corre la acción sin abrir transacción y completa el futuro
+        void correr() {
+            try {
+                futuro.complete(accion.call());
+            } catch (Throwable e) {
+                Log.w(TAG, "Escritura fallida: " + e.getMessage(), e);
+                futuro.completeExceptionally(e);
+            }
+        }
+
+        void correrEnTransaccion(RoomDatabase database) {
+            try {
+                futuro.complete(database.runInTransaction(accion));
+            } catch (Throwable e) {
+                Log.w(TAG, "Escritura fallida: " + e.getMessage(), e);
+                futuro.completeExceptionally(e);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        void completar(Object resultado) {
+            futuro.complete((T) resultado);
+        }
+    }
+
+    EscritorLotes(RoomDatabase database) {
+        this.database = database;
+        for (Carril carril : Carril.values()) {
+            colas.put(carril, new ArrayDeque<>());
+            metricas.put(carril, new MetricasCarril("escritor-" + carril.name().toLowerCase()));
+        }
+        hilo = new Thread(this::bucle, "room-escritor");
+        hilo.setDaemon(true);
+        hilo.start();
+    }
+
+    // Mutación corta del usuario; se confirma junto con las que lleguen en la misma
+    // ventana. Sin efectos fuera de la base (si el lote falla se repite sola) y sin
+    // atrapar excepciones de SQLite: una transacción anidada fallida deshace todo el lote.
+    public CompletableFuture<Void> escribir(Runnable mutacion) {
+        return encolar(() -> {
+            mutacion.run();
+            return null;
+        }, Carril.INTERACTIVO);
+    }
+
+    public <T> CompletableFuture<T> escribir(Callable<T> mutacion) {
+        return encolar(mutacion, Carril.INTERACTIVO);
+    }
+
+    // Trabajo de fondo que maneja sus propias transacciones (sincronización): corre en
+    // el hilo escritor, fuera de cualquier lote y solo cuando no hay mutaciones del
+    // usuario esperando. Si hace varias transacciones debe llamar a ceder() entre ellas.
+    public CompletableFuture<Void> ejecutar(Runnable tarea) {
+        return encolar(() -> {
+            tarea.run();
+            return null;
+        }, Carril.FONDO);
+    }
+
+    // Llamado desde una tarea de fondo entre dos transacciones: confirma antes las
+    // mutaciones interactivas que esperan. Fuera del hilo escritor no hace nada.
+    public void ceder() {
+        if (Thread.currentThread() != hilo) {
+            return;
+        }
+        List<Tarea<?>> lote = new ArrayList<>(MAX_LOTE);
+        while (true) {
+            synchronized (this) {
+                ArrayDeque<Tarea<?>> interactivas = colas.get(Carril.INTERACTIVO);
+                while (lote.size() < MAX_LOTE && !interactivas.isEmpty()) {
+                    lote.add(iniciar(interactivas.poll()));
+                }
+            }
+            if (lote.isEmpty()) {
+                return;
+            }
+            confirmar(lote);
+            lote.clear();
+        }
+    }
+
+    public MetricasCarril getMetricas(Carril carril) {
+        return metricas.get(carril);
+    }
+
+    private <T> CompletableFuture<T> encolar(Callable<T> accion, Carril carril) {
+        Tarea<T> tarea = new Tarea<>(accion, carril, metricas.get(carril).encolada());
+        synchronized (this) {
+            colas.get(carril).add(tarea);
+            notifyAll();
+        }
+        return tarea.futuro;
+    }
+
+    private Tarea<?> iniciar(Tarea<?> tarea) {
+        metricas.get(tarea.carril).iniciada(tarea.encoladaEn);
+        return tarea;
+    }
+
+    private void bucle() {
+        List<Tarea<?>> lote = new ArrayList<>(MAX_LOTE);
+        while (true) {
+            try {
+                Tarea<?> tarea;
+                synchronized (this) {
+                    while ((tarea = siguiente()) == null) {
+                        wait();
+                    }
+                }
+                iniciar(tarea);
+                if (tarea.carril == Carril.FONDO) {
+                    tarea.correr();
+                    continue;
+                }
+
+                lote.add(tarea);
+                long limite = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(VENTANA_MS);
+                synchronized (this) {
+                    ArrayDeque<Tarea<?>> interactivas = colas.get(Carril.INTERACTIVO);
+                    while (lote.size() < MAX_LOTE) {
+                        if (!interactivas.isEmpty()) {
+                            lote.add(iniciar(interactivas.poll()));
+                            continue;
+                        }
+                        long restante = limite - System.nanoTime();
+                        if (restante <= 0) {
+                            break;
+                        }
+                        TimeUnit.NANOSECONDS.timedWait(this, restante);
+                    }
+                }
+                confirmar(lote);
+                lote.clear();
+            } catch (InterruptedException e) {
+                Log.w(TAG, "Hilo escritor interrumpido");
+                return;
+            }
+        }
+    }
+
+    // Llamar con el monitor tomado
+    private Tarea<?> siguiente() {
+        Tarea<?> tarea = colas.get(Carril.INTERACTIVO).poll();
+        return tarea != null ? tarea : colas.get(Carril.FONDO).poll();
+    }
+
+    private void confirmar(List<Tarea<?>> lote) {
+        if (lote.size() == 1) {
+            lote.get(0).correrEnTransaccion(database);
+            return;
+        }
+
+        long inicio = SystemClock.elapsedRealtime();
+        Object[] resultados = new Object[lote.size()];
+        try {
+            database.runInTransaction(() -> {
+                for (int i = 0; i < lote.size(); i++) {
+                    resultados[i] = lote.get(i).accion.call();
+                }
+                return null;
+            });
+        } catch (Throwable e) {
+            // Se deshizo todo el lote: cada mutación se repite en su propia transacción
+            // para que el fallo de una no arrastre a las demás
+            Log.w(TAG, "Lote de " + lote.size() + " escrituras fallido, se repiten por separado: "
+                    + e.getMessage());
+            for (Tarea<?> tarea : lote) {
+                tarea.correrEnTransaccion(database);
+            }
+            return;
+        }
+        for (int i = 0; i < lote.size(); i++) {
+            lote.get(i).completar(resultados[i]);
+        }
+        Log.d(TAG, "Lote de " + lote.size() + " escrituras confirmado en "
+                + (SystemClock.elapsedRealtime() - inicio) + " ms");
+    }
+}
@@ -1,24 +1,62 @@
 package com.tienda.inventario.database;
 
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
 import android.util.Log;
 
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentChange;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
+import com.google.firebase.firestore.FieldValue;
 import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.Query;
 import com.google.firebase.firestore.QueryDocumentSnapshot;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.SetOptions;
+import com.tienda.inventario.database.decodificacion.EsquemaDocumento;
+import com.tienda.inventario.database.decodificacion.EsquemasFirestore;
+import com.tienda.inventario.database.decodificacion.PlanDecodificacion;
+import com.tienda.inventario.database.decodificacion.ResultadoDecodificacion;
 import com.tienda.inventario.database.entities.Categoria;
 import com.tienda.inventario.database.entities.Producto;
 import com.tienda.inventario.database.entities.Proveedor;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class FirestoreManager {
 
     private static final String TAG = "FirestoreManager";
+    public static final String COLECCION_PRODUCTOS = "productos";
+    private static final String CAMPO_TIMESTAMP = "timestamp";
+    private static final String SUBCOLECCION_AJUSTES = "ajustes_aplicados";
+
+    // Límite de escrituras de un lote (el de un WriteBatch o una transacción de Firestore)
+    public static final int MAX_OPERACIONES_LOTE = 500;
+
     private static FirestoreManager instance;
     private final FirebaseFirestore db;
 
+    // Los snapshots se decodifican fuera del hilo principal: un coordinador recibe
+    // cada respuesta y reparte los documentos en tramos entre los núcleos
+    private static final int NUCLEOS = Math.max(1, Runtime.getRuntime().availableProcessors());
+    private static final int TAMANO_TRAMO = 200;
+    private final ExecutorService coordinador = Executors.newSingleThreadExecutor();
+    private final ExecutorService decodificadores = Executors.newFixedThreadPool(NUCLEOS);
+    private final Handler hiloPrincipal = new Handler(Looper.getMainLooper());
+
     private FirestoreManager() {
         this.db = FirebaseFirestore.getInstance();
     }
@@ -38,123 +76,354 @@ public class FirestoreManager {
         void onError(String error);
     }
 
+    public interface OnProductosDeltaListener {
+        // marcaMaxima: mayor "timestamp" remoto recibido (nueva marca de sincronización)
+        void onSuccess(List<Producto> productos, long marcaMaxima);
+
+        void onError(String error);
+    }
+
     public void getProductos(OnProductosListener listener) {
-        db.collection("productos")
+        db.collection(COLECCION_PRODUCTOS)
                 .get()
-                .addOnSuccessListener(queryDocumentSnapshots -> {
-                    List<Producto> productos = new ArrayList<>();
-                    for (QueryDocumentSnapshot doc : queryDocumentSnapshots) {
-                        try {
-                            Producto producto = new Producto();
-
-                            // Usar el docId de Firestore como ID
-                            producto.setDocId(doc.getId());
-
-                            // ID del producto (usar hashCode del docId para mantener consistencia)
-                            producto.setIdProducto(doc.getId().hashCode());
-
-                            // Nombre del producto
-                            String nombre = doc.getString("nombre_producto");
-                            if (nombre == null)
-                                nombre = doc.getString("nombre");
-                            producto.setNombreProducto(nombre);
-
-                            // Descripción
-                            String descripcion = doc.getString("descripcion");
-                            producto.setDescripcion(descripcion != null ? descripcion : "");
-
-                            // Precio
-                            Object precioObj = doc.get("precio_unitario");
-                            if (precioObj == null)
-                                precioObj = doc.get("precio");
-                            if (precioObj instanceof Double) {
-                                producto.setPrecioUnitario((Double) precioObj);
-                            } else if (precioObj instanceof Long) {
-                                producto.setPrecioUnitario(((Long) precioObj).doubleValue());
-                            }
-
-                            // Stock actual
-                            Object stockObj = doc.get("stock_actual");
-                            if (stockObj == null)
-                                stockObj = doc.get("stock");
-                            if (stockObj instanceof Long) {
-                                producto.setStockActual(((Long) stockObj).intValue());
-                            } else if (stockObj instanceof Double) {
-                                producto.setStockActual(((Double) stockObj).intValue());
-                            }
-
-                            // Stock mínimo
-                            Object stockMinObj = doc.get("stock_minimo");
-                            if (stockMinObj == null)
-                                stockMinObj = doc.get("stockMin");
-                            if (stockMinObj instanceof Long) {
-                                producto.setStockMinimo(((Long) stockMinObj).intValue());
-                            } else if (stockMinObj instanceof Double) {
-                                producto.setStockMinimo(((Double) stockMinObj).intValue());
-                            }
-
-                            // Código de barras
-                            String codigoBarras = doc.getString("codigo_barras");
-                            if (codigoBarras == null)
-                                codigoBarras = doc.getString("codigoBarras");
-                            producto.setCodigoBarras(codigoBarras != null ? codigoBarras : "");
-
-                            // ID de categoría
-                            Object catIdObj = doc.get("id_categoria");
-                            if (catIdObj == null)
-                                catIdObj = doc.get("idCategoria");
-                            if (catIdObj instanceof Long) {
-                                producto.setIdCategoria(((Long) catIdObj).intValue());
-                            } else if (catIdObj instanceof Double) {
-                                producto.setIdCategoria(((Double) catIdObj).intValue());
-                            } else if (catIdObj instanceof String) {
-                                try {
-                                    producto.setIdCategoria(Integer.parseInt((String) catIdObj));
-                                } catch (NumberFormatException e) {
-                                    producto.setIdCategoria(1);
-                                }
-                            } else {
-                                producto.setIdCategoria(1);
-                            }
-
-                            // ID de proveedor
-                            Object provIdObj = doc.get("id_proveedor");
-                            if (provIdObj == null)
-                                provIdObj = doc.get("idProveedor");
-                            if (provIdObj instanceof Long) {
-                                producto.setIdProveedor(((Long) provIdObj).intValue());
-                            } else if (provIdObj instanceof Double) {
-                                producto.setIdProveedor(((Double) provIdObj).intValue());
-                            } else if (provIdObj instanceof String) {
-                                try {
-                                    producto.setIdProveedor(Integer.parseInt((String) provIdObj));
-                                } catch (NumberFormatException e) {
-                                    producto.setIdProveedor(1);
+                .addOnSuccessListener(coordinador, queryDocumentSnapshots -> {
+                    long inicio = SystemClock.elapsedRealtime();
+                    ResultadoDecodificacion<Producto> productos = decodificar(
+                            queryDocumentSnapshots.getDocuments(), EsquemasFirestore.PRODUCTO);
+                    enHiloPrincipal("productos", productos, inicio,
+                            () -> listener.onSuccess(productos.getElementos()));
+                })
+                .addOnFailureListener(e -> {
+                    Log.e(TAG, "Error al cargar productos: " + e.getMessage(), e);
+                    listener.onError(e.getMessage());
+                });
+    }
+
+    // Descarga solo los productos modificados desde la marca indicada.
+    // Con desde <= 0 descarga la colección completa (primera sincronización).
+    public void getProductosDesde(long desde, OnProductosDeltaListener listener) {
+        Query query = db.collection(COLECCION_PRODUCTOS);
+        if (desde > 0) {
+            // ">=" para no perder documentos escritos en el mismo milisegundo que la marca;
+            // volver a aplicar esos documentos es inofensivo porque se hace upsert
+            query = query.whereGreaterThanOrEqualTo(CAMPO_TIMESTAMP, desde)
+                    .orderBy(CAMPO_TIMESTAMP);
+        }
+
+        query.get()
+                .addOnSuccessListener(coordinador, queryDocumentSnapshots -> {
+                    long inicio = SystemClock.elapsedRealtime();
+                    List<DocumentSnapshot> documentos = queryDocumentSnapshots.getDocuments();
+                    ResultadoDecodificacion<Producto> productos = decodificar(documentos, EsquemasFirestore.PRODUCTO);
+                    if (productos.getPerdidos() > 0) {
+                        // Con la marca avanzada esos documentos no se volverían a pedir
+                        String error = productos.getPerdidos() + " documentos sin decodificar";
+                        hiloPrincipal.post(() -> listener.onError(error));
+                        return;
+                    }
+                    long marcaMaxima = Math.max(desde, marcaMaxima(documentos));
+                    enHiloPrincipal("productos desde " + desde, productos, inicio,
+                            () -> listener.onSuccess(productos.getElementos(), marcaMaxima));
+                })
+                .addOnFailureListener(e -> {
+                    Log.e(TAG, "Error al cargar cambios de productos: " + e.getMessage(), e);
+                    listener.onError(e.getMessage());
+                });
+    }
+
+    // Los métodos se llaman en un hilo de fondo (pensado para escribir en Room)
+    public interface OnPaginaProductosListener {
+        // Entrega una página; llamar a "continuar" cuando se haya persistido.
+        // Mientras tanto ya se está descargando la página siguiente.
+        void onPagina(List<Producto> pagina, Runnable continuar);
+
+        // "descartados": documentos inválidos (faltan campos obligatorios), excluidos.
+        // "perdidos": documentos que esta vez no llegaron a decodificarse; con perdidos
+        // la descarga no está completa y la marca no debe avanzar.
+        void onComplete(int total, int descartados, int perdidos, long marcaMaxima);
+
+        void onError(String error);
+    }
+
+    // Descarga los productos por páginas con cursores (orderBy/limit/startAfter).
+    // Como máximo hay dos páginas en memoria: la que procesa el consumidor y la siguiente.
+    public void getProductosPaginados(long desde, int tamanoPagina, OnPaginaProductosListener listener) {
+        Query query = db.collection(COLECCION_PRODUCTOS);
+        if (desde > 0) {
+            query = query.whereGreaterThanOrEqualTo(CAMPO_TIMESTAMP, desde)
+                    .orderBy(CAMPO_TIMESTAMP);
+        } else {
+            query = query.orderBy(FieldPath.documentId());
+        }
+        new PaginadorProductos(query, desde, tamanoPagina, listener).descargarSiguiente();
+    }
+
+    private class PaginadorProductos {
+
+        private final Query query;
+        private final int tamanoPagina;
+        private final OnPaginaProductosListener listener;
+
+        private DocumentSnapshot cursor;
+        private List<Producto> paginaDescargada;
+        private boolean ultimaDescargada;
+        private boolean consumidorLibre = true;
+        private boolean terminado;
+        private long marcaMaxima;
+        private int total;
+        private int descartados;
+        private int perdidos;
+
+        PaginadorProductos(Query query, long desde, int tamanoPagina, OnPaginaProductosListener listener) {
+            this.query = query;
+            this.tamanoPagina = tamanoPagina;
+            this.listener = listener;
+            this.marcaMaxima = desde;
+        }
+
+        void descargarSiguiente() {
+            Query pagina = query.limit(tamanoPagina);
+            if (cursor != null) {
+                pagina = pagina.startAfter(cursor);
+            }
+            pagina.get()
+                    .addOnSuccessListener(coordinador, this::onPaginaDescargada)
+                    .addOnFailureListener(coordinador, e -> {
+                        Log.e(TAG, "Error al cargar página de productos: " + e.getMessage(), e);
+                        synchronized (this) {
+                            terminado = true;
+                        }
+                        listener.onError(e.getMessage());
+                    });
+        }
+
+        private void onPaginaDescargada(QuerySnapshot snapshot) {
+            List<DocumentSnapshot> documentos = snapshot.getDocuments();
+            ResultadoDecodificacion<Producto> resultado = decodificar(documentos, EsquemasFirestore.PRODUCTO);
+            long marcaPagina = marcaMaxima(documentos);
+
+            synchronized (this) {
+                if (!documentos.isEmpty()) {
+                    cursor = documentos.get(documentos.size() - 1);
+                }
+                ultimaDescargada = documentos.size() < tamanoPagina;
+                paginaDescargada = resultado.getElementos();
+                marcaMaxima = Math.max(marcaMaxima, marcaPagina);
+                descartados += resultado.getFallidos();
+                perdidos += resultado.getPerdidos();
+            }
+            entregar();
+        }
+
+        // Entrega la página descargada si el consumidor terminó con la anterior
+        private void entregar() {
+            List<Producto> pagina;
+            boolean ultima;
+            long marca;
+            int entregados;
+            int fallidos;
+            int sinDecodificar;
+            synchronized (this) {
+                if (terminado || !consumidorLibre || paginaDescargada == null) {
+                    return;
+                }
+                pagina = paginaDescargada;
+                paginaDescargada = null;
+                ultima = ultimaDescargada;
+                marca = marcaMaxima;
+
+                if (pagina.isEmpty() && ultima) {
+                    terminado = true;
+                } else {
+                    consumidorLibre = false;
+                    total += pagina.size();
+                }
+                entregados = total;
+                fallidos = descartados;
+                sinDecodificar = perdidos;
+            }
+
+            if (pagina.isEmpty() && ultima) {
+                Log.d(TAG, "Total productos paginados: " + entregados + " (" + fallidos + " descartados, "
+                        + sinDecodificar + " perdidos)");
+                listener.onComplete(entregados, fallidos, sinDecodificar, marca);
+                return;
+            }
+
+            if (!ultima) {
+                // Descargar la siguiente página mientras el consumidor escribe esta
+                descargarSiguiente();
+            } else {
+                synchronized (this) {
+                    paginaDescargada = new ArrayList<>();
+                }
+            }
+
+            listener.onPagina(pagina, () -> {
+                synchronized (this) {
+                    consumidorLibre = true;
+                }
+                entregar();
+            });
+        }
+    }
+
+    public interface OnCambiosProductosListener {
+        // Cambios de un snapshot: productos agregados/modificados y docIds eliminados
+        void onCambios(List<Producto> modificados, List<String> eliminados, long marcaMaxima);
+
+        void onError(String error);
+    }
+
+    // Escucha en tiempo real los productos modificados desde la marca indicada.
+    // Devuelve el registro para poder desconectarlo con el ciclo de vida.
+    public ListenerRegistration escucharProductos(long desde, OnCambiosProductosListener listener) {
+        return db.collection(COLECCION_PRODUCTOS)
+                .whereGreaterThanOrEqualTo(CAMPO_TIMESTAMP, desde)
+                .addSnapshotListener(coordinador, (snapshot, e) -> {
+                    if (e != null) {
+                        Log.e(TAG, "Error en escucha de productos: " + e.getMessage(), e);
+                        hiloPrincipal.post(() -> listener.onError(e.getMessage()));
+                        return;
+                    }
+                    if (snapshot == null || snapshot.getDocumentChanges().isEmpty()) {
+                        return;
+                    }
+
+                    long inicio = SystemClock.elapsedRealtime();
+                    List<DocumentChange> cambios = snapshot.getDocumentChanges();
+                    PlanDecodificacion<Producto> plan =
+                            EsquemasFirestore.PRODUCTO.resolver(cambios.get(0).getDocument().getData());
+                    ResultadoDecodificacion<Producto> modificados = new ResultadoDecodificacion<>(cambios.size());
+                    List<String> eliminados = new ArrayList<>();
+                    long marcaMaxima = desde;
+                    for (DocumentChange cambio : cambios) {
+                        QueryDocumentSnapshot doc = cambio.getDocument();
+                        switch (cambio.getType()) {
+                            case ADDED:
+                            case MODIFIED:
+                                plan.decodificar(doc.getId(), doc.getData(), modificados);
+                                Long timestamp = timestampDe(doc);
+                                if (timestamp != null && timestamp > marcaMaxima) {
+                                    marcaMaxima = timestamp;
                                 }
-                            } else {
-                                producto.setIdProveedor(1);
-                            }
-
-                            // Activo
-                            Boolean activo = doc.getBoolean("activo");
-                            producto.setActivo(activo != null ? activo : true);
-
-                            productos.add(producto);
-                            Log.d(TAG, "Producto cargado: " + producto.getNombreProducto());
-                        } catch (Exception e) {
-                            Log.e(TAG, "Error al procesar producto: " + e.getMessage(), e);
+                                break;
+                            case REMOVED:
+                                eliminados.add(doc.getId());
+                                break;
                         }
                     }
-                    Log.d(TAG, "Total productos cargados: " + productos.size());
-                    listener.onSuccess(productos);
+                    long marca = marcaMaxima;
+                    enHiloPrincipal("cambios en tiempo real (" + eliminados.size() + " eliminados)",
+                            modificados, inicio,
+                            () -> listener.onCambios(modificados.getElementos(), eliminados, marca));
+                });
+    }
+
+    // Genera el ID de un documento nuevo sin ir al servidor, para poder guardar
+    // el producto en Room antes de subirlo
+    public String nuevoIdProducto() {
+        return db.collection(COLECCION_PRODUCTOS).document().getId();
+    }
+
+    public interface OnLoteListener {
+        // El lote se aplicó. Los ajustes de ajustesSinDocumento se descartaron porque
+        // su producto ya no existe en el servidor.
+        void onSuccess(List<String> ajustesSinDocumento);
+
+        void onError(String error);
+    }
+
+    // Ajuste de stock a enviar. idEnvio identifica el envío: el servidor guarda un
+    // marcador con ese id junto con el incremento, y un reenvío que lo encuentra no se
+    // vuelve a sumar.
+    public static final class EnvioAjuste {
+        public final String idEnvio;
+        public final long delta;
+
+        public EnvioAjuste(String idEnvio, long delta) {
+            this.idEnvio = idEnvio;
+            this.delta = delta;
+        }
+    }
+
+    // Escrituras que ocupa un lote en Firestore (cada ajuste escribe también su marcador)
+    public static int escrituras(int guardar, int ajustar, int eliminar) {
+        return guardar + 2 * ajustar + eliminar;
+    }
+
+    // Envía en una única transacción los productos a guardar (set con merge, sirve para
+    // altas y ediciones), los ajustes de stock por docId y los docIds a eliminar. Como
+    // máximo MAX_OPERACIONES_LOTE escrituras. El listener se llama en un hilo de fondo.
+    // Los ajustes son incrementos en el servidor con update (no pisan los de otros
+    // dispositivos ni recrean un producto borrado) y van con su marcador: si un envío
+    // anterior llegó al servidor aunque aquí se viera un error, o la app se reinició sin
+    // saberlo, el reenvío lo encuentra y no suma dos veces. A diferencia de un
+    // WriteBatch, una transacción no queda guardada sin red para subirse después.
+    public void enviarLote(List<Producto> guardar, Map<String, EnvioAjuste> ajustar, List<String> eliminar,
+                           OnLoteListener listener) {
+        if (escrituras(guardar.size(), ajustar.size(), eliminar.size()) > MAX_OPERACIONES_LOTE) {
+            throw new IllegalArgumentException("Un lote admite hasta " + MAX_OPERACIONES_LOTE + " escrituras");
+        }
+
+        long ahora = System.currentTimeMillis();
+        CollectionReference productos = db.collection(COLECCION_PRODUCTOS);
+        db.runTransaction(transaccion -> {
+            // Firestore exige todas las lecturas antes de la primera escritura
+            List<String> sinDocumento = new ArrayList<>();
+            Map<String, EnvioAjuste> aplicar = new LinkedHashMap<>();
+            for (Map.Entry<String, EnvioAjuste> ajuste : ajustar.entrySet()) {
+                DocumentReference producto = productos.document(ajuste.getKey());
+                if (transaccion.get(marcadorAjuste(producto, ajuste.getValue())).exists()) {
+                    // Ya aplicado por un envío anterior
+                    continue;
+                }
+                if (!transaccion.get(producto).exists()) {
+                    sinDocumento.add(ajuste.getKey());
+                    continue;
+                }
+                aplicar.put(ajuste.getKey(), ajuste.getValue());
+            }
+
+            for (Producto producto : guardar) {
+                Map<String, Object> data = datosProducto(producto, ahora);
+                data.put("activo", producto.isActivo());
+                transaccion.set(productos.document(producto.getDocId()), data, SetOptions.merge());
+            }
+            for (Map.Entry<String, EnvioAjuste> ajuste : aplicar.entrySet()) {
+                DocumentReference producto = productos.document(ajuste.getKey());
+                transaccion.update(producto, "stock_actual", FieldValue.increment(ajuste.getValue().delta),
+                        CAMPO_TIMESTAMP, ahora);
+                Map<String, Object> marcador = new HashMap<>();
+                marcador.put("delta", ajuste.getValue().delta);
+                marcador.put(CAMPO_TIMESTAMP, ahora);
+                transaccion.set(marcadorAjuste(producto, ajuste.getValue()), marcador);
+            }
+            for (String docId : eliminar) {
+                transaccion.delete(productos.document(docId));
+            }
+            return sinDocumento;
+        })
+                .addOnSuccessListener(coordinador, sinDocumento -> {
+                    Log.d(TAG, "Lote enviado: " + guardar.size() + " guardados, " + ajustar.size()
+                            + " ajustes de stock (" + sinDocumento.size() + " sin producto), "
+                            + eliminar.size() + " eliminados");
+                    listener.onSuccess(sinDocumento);
                 })
-                .addOnFailureListener(e -> {
-                    Log.e(TAG, "Error al cargar productos: " + e.getMessage(), e);
+                .addOnFailureListener(coordinador, e -> {
+                    Log.e(TAG, "Error al enviar lote: " + e.getMessage(), e);
                     listener.onError(e.getMessage());
                 });
     }
 
-    public void agregarProducto(Producto producto, OnSuccessListener listener) {
+    // Marcador de un ajuste aplicado, en una subcolección del producto (las consultas de
+    // la colección productos no la leen)
+    private static DocumentReference marcadorAjuste(DocumentReference producto, EnvioAjuste ajuste) {
+        return producto.collection(SUBCOLECCION_AJUSTES).document(ajuste.idEnvio);
+    }
+
+    // Campos de un producto tal como se guardan en Firestore
+    private Map<String, Object> datosProducto(Producto producto, long timestamp) {
         Map<String, Object> data = new HashMap<>();
         data.put("nombre_producto", producto.getNombreProducto());
         data.put("descripcion", producto.getDescripcion());
@@ -164,13 +433,20 @@ public class FirestoreManager {
         data.put("codigo_barras", producto.getCodigoBarras());
         data.put("id_categoria", producto.getIdCategoria());
         data.put("id_proveedor", producto.getIdProveedor());
+        data.put(CAMPO_TIMESTAMP, timestamp);
+        return data;
+    }
+
+    public void agregarProducto(Producto producto, OnSuccessListener listener) {
+        Map<String, Object> data = datosProducto(producto, System.currentTimeMillis());
         data.put("activo", true);
-        data.put("timestamp", System.currentTimeMillis());
 
-        db.collection("productos")
+        db.collection(COLECCION_PRODUCTOS)
                 .add(data)
                 .addOnSuccessListener(documentReference -> {
                     Log.d(TAG, "Producto agregado con ID: " + documentReference.getId());
+                    // Guardar la clave remota para que ediciones y borrados lleguen a Firestore
+                    producto.setDocId(documentReference.getId());
                     listener.onSuccess();
                 })
                 .addOnFailureListener(e -> {
@@ -180,18 +456,9 @@ public class FirestoreManager {
     }
 
     public void actualizarProducto(String documentId, Producto producto, OnSuccessListener listener) {
-        Map<String, Object> data = new HashMap<>();
-        data.put("nombre_producto", producto.getNombreProducto());
-        data.put("descripcion", producto.getDescripcion());
-        data.put("precio_unitario", producto.getPrecioUnitario());
-        data.put("stock_actual", producto.getStockActual());
-        data.put("stock_minimo", producto.getStockMinimo());
-        data.put("codigo_barras", producto.getCodigoBarras());
-        data.put("id_categoria", producto.getIdCategoria());
-        data.put("id_proveedor", producto.getIdProveedor());
-        data.put("timestamp", System.currentTimeMillis());
+        Map<String, Object> data = datosProducto(producto, System.currentTimeMillis());
 
-        db.collection("productos")
+        db.collection(COLECCION_PRODUCTOS)
                 .document(documentId)
                 .update(data)
                 .addOnSuccessListener(aVoid -> listener.onSuccess())
@@ -199,7 +466,7 @@ public class FirestoreManager {
     }
 
     public void eliminarProducto(String documentId, OnSuccessListener listener) {
-        db.collection("productos")
+        db.collection(COLECCION_PRODUCTOS)
                 .document(documentId)
                 .delete()
                 .addOnSuccessListener(aVoid -> listener.onSuccess())
@@ -217,29 +484,12 @@ public class FirestoreManager {
     public void getCategorias(OnCategoriasListener listener) {
         db.collection("categorias")
                 .get()
-                .addOnSuccessListener(queryDocumentSnapshots -> {
-                    List<Categoria> categorias = new ArrayList<>();
-                    for (QueryDocumentSnapshot doc : queryDocumentSnapshots) {
-                        try {
-                            Categoria categoria = new Categoria();
-                            categoria.setIdCategoria(doc.getId().hashCode());
-
-                            String nombre = doc.getString("nombre_categoria");
-                            if (nombre == null)
-                                nombre = doc.getString("nombre");
-                            categoria.setNombreCategoria(nombre);
-
-                            String descripcion = doc.getString("descripcion");
-                            categoria.setDescripcion(descripcion != null ? descripcion : "");
-
-                            categorias.add(categoria);
-                            Log.d(TAG, "Categoría cargada: " + categoria.getNombreCategoria());
-                        } catch (Exception e) {
-                            Log.e(TAG, "Error al procesar categoría: " + e.getMessage(), e);
-                        }
-                    }
-                    Log.d(TAG, "Total categorías cargadas: " + categorias.size());
-                    listener.onSuccess(categorias);
+                .addOnSuccessListener(coordinador, queryDocumentSnapshots -> {
+                    long inicio = SystemClock.elapsedRealtime();
+                    ResultadoDecodificacion<Categoria> categorias = decodificar(
+                            queryDocumentSnapshots.getDocuments(), EsquemasFirestore.CATEGORIA);
+                    enHiloPrincipal("categorías", categorias, inicio,
+                            () -> listener.onSuccess(categorias.getElementos()));
                 })
                 .addOnFailureListener(e -> {
                     Log.e(TAG, "Error al cargar categorías: " + e.getMessage(), e);
@@ -251,11 +501,14 @@ public class FirestoreManager {
         Map<String, Object> data = new HashMap<>();
         data.put("nombre_categoria", categoria.getNombreCategoria());
         data.put("descripcion", categoria.getDescripcion());
-        data.put("timestamp", System.currentTimeMillis());
+        data.put(CAMPO_TIMESTAMP, System.currentTimeMillis());
 
         db.collection("categorias")
                 .add(data)
-                .addOnSuccessListener(documentReference -> listener.onSuccess())
+                .addOnSuccessListener(documentReference -> {
+                    categoria.setDocId(documentReference.getId());
+                    listener.onSuccess();
+                })
                 .addOnFailureListener(e -> listener.onError(e.getMessage()));
     }
 
@@ -270,32 +523,12 @@ public class FirestoreManager {
     public void getProveedores(OnProveedoresListener listener) {
         db.collection("proveedores")
                 .get()
-                .addOnSuccessListener(queryDocumentSnapshots -> {
-                    List<Proveedor> proveedores = new ArrayList<>();
-                    for (QueryDocumentSnapshot doc : queryDocumentSnapshots) {
-                        try {
-                            Proveedor proveedor = new Proveedor();
-                            proveedor.setIdProveedor(doc.getId().hashCode());
-
-                            String nombre = doc.getString("nombre_proveedor");
-                            if (nombre == null)
-                                nombre = doc.getString("nombre");
-                            proveedor.setNombreProveedor(nombre);
-
-                            proveedor.setTelefono(doc.getString("telefono"));
-                            proveedor.setEmail(doc.getString("email"));
-                            proveedor.setDireccion(doc.getString("direccion"));
-                            proveedor.setCiudad(doc.getString("ciudad"));
-                            proveedor.setPais(doc.getString("pais"));
-
-                            proveedores.add(proveedor);
-                            Log.d(TAG, "Proveedor cargado: " + proveedor.getNombreProveedor());
-                        } catch (Exception e) {
-                            Log.e(TAG, "Error al procesar proveedor: " + e.getMessage(), e);
-                        }
-                    }
-                    Log.d(TAG, "Total proveedores cargados: " + proveedores.size());
-                    listener.onSuccess(proveedores);
+                .addOnSuccessListener(coordinador, queryDocumentSnapshots -> {
+                    long inicio = SystemClock.elapsedRealtime();
+                    ResultadoDecodificacion<Proveedor> proveedores = decodificar(
+                            queryDocumentSnapshots.getDocuments(), EsquemasFirestore.PROVEEDOR);
+                    enHiloPrincipal("proveedores", proveedores, inicio,
+                            () -> listener.onSuccess(proveedores.getElementos()));
                 })
                 .addOnFailureListener(e -> {
                     Log.e(TAG, "Error al cargar proveedores: " + e.getMessage(), e);
@@ -311,14 +544,120 @@ public class FirestoreManager {
         data.put("direccion", proveedor.getDireccion());
         data.put("ciudad", proveedor.getCiudad());
         data.put("pais", proveedor.getPais());
-        data.put("timestamp", System.currentTimeMillis());
+        data.put(CAMPO_TIMESTAMP, System.currentTimeMillis());
 
         db.collection("proveedores")
                 .add(data)
-                .addOnSuccessListener(documentReference -> listener.onSuccess())
+                .addOnSuccessListener(documentReference -> {
+                    proveedor.setDocId(documentReference.getId());
+                    listener.onSuccess();
+                })
                 .addOnFailureListener(e -> listener.onError(e.getMessage()));
     }
 
+    // ==================== DECODIFICACIÓN ====================
+
+    // Decodifica los documentos con el esquema resuelto una vez para todo el snapshot,
+    // repartiéndolos en tramos entre los núcleos. Conserva el orden.
+    private <T> ResultadoDecodificacion<T> decodificar(List<DocumentSnapshot> documentos,
+                                                       EsquemaDocumento<T> esquema) {
+        int total = documentos.size();
+        if (total == 0) {
+            return new ResultadoDecodificacion<>(0);
+        }
+        PlanDecodificacion<T> plan = esquema.resolver(documentos.get(0).getData());
+        if (total < TAMANO_TRAMO * 2 || NUCLEOS == 1) {
+            return decodificarTramo(documentos, plan);
+        }
+
+        int tamano = Math.max(TAMANO_TRAMO, (total + NUCLEOS - 1) / NUCLEOS);
+        List<Callable<ResultadoDecodificacion<T>>> tareas = new ArrayList<>();
+        List<Integer> tamanos = new ArrayList<>();
+        for (int i = 0; i < total; i += tamano) {
+            List<DocumentSnapshot> tramo = documentos.subList(i, Math.min(i + tamano, total));
+            tareas.add(() -> decodificarTramo(tramo, plan));
+            tamanos.add(tramo.size());
+        }
+
+        // Un tramo que no llega a decodificarse cuenta entero como fallido: el llamador
+        // nunca recibe un resultado parcial que parezca completo
+        ResultadoDecodificacion<T> resultado = new ResultadoDecodificacion<>(total);
+        List<Future<ResultadoDecodificacion<T>>> futuros;
+        try {
+            futuros = decodificadores.invokeAll(tareas);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            resultado.registrarPerdidos(total, "decodificación interrumpida");
+            return resultado;
+        }
+        for (int t = 0; t < futuros.size(); t++) {
+            try {
+                resultado.agregar(futuros.get(t).get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                int restantes = 0;
+                for (int r = t; r < tamanos.size(); r++) {
+                    restantes += tamanos.get(r);
+                }
+                resultado.registrarPerdidos(restantes, "decodificación interrumpida");
+                break;
+            } catch (ExecutionException e) {
+                Log.e(TAG, "Error al decodificar " + esquema.getEntidad() + ": " + e.getMessage(), e);
+                resultado.registrarPerdidos(tamanos.get(t), "error al decodificar: " + e.getCause());
+            }
+        }
+        return resultado;
+    }
+
+    private <T> ResultadoDecodificacion<T> decodificarTramo(List<DocumentSnapshot> documentos,
+                                                            PlanDecodificacion<T> plan) {
+        ResultadoDecodificacion<T> resultado = new ResultadoDecodificacion<>(documentos.size());
+        for (DocumentSnapshot doc : documentos) {
+            plan.decodificar(doc.getId(), doc.getData(), resultado);
+        }
+        return resultado;
+    }
+
+    // Mayor "timestamp" de los documentos (0 si ninguno lo tiene numérico)
+    private static long marcaMaxima(List<DocumentSnapshot> documentos) {
+        long marca = 0;
+        for (DocumentSnapshot doc : documentos) {
+            Long timestamp = timestampDe(doc);
+            if (timestamp != null && timestamp > marca) {
+                marca = timestamp;
+            }
+        }
+        return marca;
+    }
+
+    // "timestamp" numérico del documento, o null si falta o es de otro tipo (un String o
+    // un Timestamp no detienen la descarga: ese documento no cuenta para la marca, como
+    // tampoco lo encontraría el filtro numérico de una sincronización incremental)
+    private static Long timestampDe(DocumentSnapshot doc) {
+        Object valor = doc.get(CAMPO_TIMESTAMP);
+        return valor instanceof Number ? ((Number) valor).longValue() : null;
+    }
+
+    // Publica el resultado en el hilo principal y registra cuánto tiempo se decodificó en
+    // segundo plano frente a cuánto ocupa ahora el hilo principal
+    private void enHiloPrincipal(String etiqueta, ResultadoDecodificacion<?> resultado,
+                                 long inicioDecodificacion, Runnable callback) {
+        long msDecodificacion = SystemClock.elapsedRealtime() - inicioDecodificacion;
+        if (resultado.tieneProblemas()) {
+            Log.w(TAG, etiqueta + ": " + resultado.getFallidos() + " documentos descartados, "
+                    + resultado.getPerdidos() + " perdidos, "
+                    + resultado.getValoresInvalidos() + " valores inválidos " + resultado.getMotivos());
+        }
+        int cantidad = resultado.getElementos().size();
+        hiloPrincipal.post(() -> {
+            long inicio = SystemClock.elapsedRealtime();
+            callback.run();
+            Log.d(TAG, "Total " + etiqueta + " cargados: " + cantidad + " (decodificación "
+                    + msDecodificacion + " ms en segundo plano, "
+                    + (SystemClock.elapsedRealtime() - inicio) + " ms en hilo principal)");
+        });
+    }
+
     // ==================== INTERFACES ====================
 
     public interface OnSuccessListener {
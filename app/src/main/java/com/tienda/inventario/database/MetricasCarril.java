@@ -0,0 +1,67 @@
+package com.tienda.inventario.database;
+
+import android.util.Log;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Profundidad de cola y tiempo de espera (de encolar a empezar) de un carril
+public final class MetricasCarril {
+
+    private static final String TAG = "MetricasCarril";
+
+    // Una tarea interactiva que espera más que esto se nota en pantalla
+    private static final long UMBRAL_AVISO_MS = 100;
+
+    private final String nombre;
+    private final AtomicInteger enCola = new AtomicInteger();
+    private final AtomicLong atendidas = new AtomicLong();
+    private final AtomicLong esperaTotalNs = new AtomicLong();
+    private final AtomicLong esperaMaximaNs = new AtomicLong();
+
+    MetricasCarril(String nombre) {
+        this.nombre = nombre;
+    }
+
+    // Devuelve la marca de encolado para pasarla a iniciada()
+    long encolada() {
+        enCola.incrementAndGet();
+        return System.nanoTime();
+    }
+
+    void iniciada(long encoladaEn) {
+        int pendientes = enCola.decrementAndGet();
+        long espera = System.nanoTime() - encoladaEn;
+        atendidas.incrementAndGet();
+        esperaTotalNs.addAndGet(espera);
+        esperaMaximaNs.accumulateAndGet(espera, Math::max);
+        if (espera > UMBRAL_AVISO_MS * 1_000_000L) {
+            Log.w(TAG, nombre + ": tarea esperó " + espera / 1_000_000L + " ms (" + pendientes
+                    + " en cola)");
+        }
+    }
+
+    public int getEnCola() {
+        return enCola.get();
+    }
+
+    public long getAtendidas() {
+        return atendidas.get();
+    }
+
+    public double getEsperaMediaMs() {
+        long n = atendidas.get();
+        return n > 0 ? esperaTotalNs.get() / 1e6 / n : 0;
+    }
+
+    public double getEsperaMaximaMs() {
+        return esperaMaximaNs.get() / 1e6;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "%s{cola=%d, atendidas=%d, espera media=%.1f ms, máx=%.1f ms}",
+                nombre, getEnCola(), getAtendidas(), getEsperaMediaMs(), getEsperaMaximaMs());
+    }
+}
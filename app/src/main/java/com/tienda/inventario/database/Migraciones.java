@@ -0,0 +1,136 @@
+package com.tienda.inventario.database;
+
+import androidx.annotation.NonNull;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+// Migraciones desde la versión 4, la primera con operaciones_pendientes: desde ahí la
+// base guarda cambios del usuario que aún no están en Firestore y no puede recrearse.
+// El SQL reproduce el que genera Room para cada entidad (Room lo valida al abrir).
+// Los triggers de TotalesInventario y ConjuntoStockBajo no van aquí: se instalan en
+// onOpen y reconstruyen su tabla si faltaban.
+final class Migraciones {
+
+    // Anteriores a la cola de salida: la base era solo una copia de Firestore
+    static final int[] DESTRUCTIVAS_DESDE = {1, 2, 3};
+
+    private Migraciones() {
+    }
+
+    // Tabla de trabajo del refresco completo
+    static final Migration M4_5 = new Migration(4, 5) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `productos_staging` ("
+                    + "`id_producto` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, "
+                    + "`nombre_producto` TEXT, `descripcion` TEXT, "
+                    + "`precio_unitario` REAL NOT NULL, `stock_actual` INTEGER NOT NULL, "
+                    + "`stock_minimo` INTEGER NOT NULL, `id_categoria` INTEGER NOT NULL, "
+                    + "`id_proveedor` INTEGER NOT NULL, `codigo_barras` TEXT, "
+                    + "`fecha_registro` INTEGER NOT NULL, `ultima_actualizacion` INTEGER NOT NULL, "
+                    + "`activo` INTEGER NOT NULL, `doc_id` TEXT)");
+            db.execSQL("CREATE UNIQUE INDEX IF NOT EXISTS `index_productos_staging_doc_id` "
+                    + "ON `productos_staging` (`doc_id`)");
+        }
+    };
+
+    // Índices FTS4 de contenido externo, con los triggers que Room les asocia
+    static final Migration M5_6 = new Migration(5, 6) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            crearFts(db, "productos_fts", "productos", "nombre_producto", "descripcion", "codigo_barras");
+            crearFts(db, "categorias_fts", "categorias", "nombre_categoria", "descripcion");
+            crearFts(db, "proveedores_fts", "proveedores", "nombre_proveedor", "ciudad", "email");
+        }
+    };
+
+    // Orden de la lista paginada
+    static final Migration M6_7 = new Migration(6, 7) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_productos_activo_nombre_producto_id_producto` "
+                    + "ON `productos` (`activo`, `nombre_producto`, `id_producto`)");
+        }
+    };
+
+    static final Migration M7_8 = new Migration(7, 8) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `inventario_totales` ("
+                    + "`ambito` TEXT NOT NULL, `id_ambito` INTEGER NOT NULL, "
+                    + "`productos` INTEGER NOT NULL, `valor` REAL NOT NULL, "
+                    + "PRIMARY KEY(`ambito`, `id_ambito`))");
+        }
+    };
+
+    static final Migration M8_9 = new Migration(8, 9) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `productos_stock_bajo` ("
+                    + "`id_producto` INTEGER NOT NULL, PRIMARY KEY(`id_producto`))");
+            db.execSQL("CREATE TABLE IF NOT EXISTS `stock_bajo_cambios` ("
+                    + "`seq` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, "
+                    + "`id_producto` INTEGER NOT NULL, `entra` INTEGER NOT NULL)");
+        }
+    };
+
+    // Ajustes de stock acumulados en la cola de salida
+    static final Migration M9_10 = new Migration(9, 10) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE `operaciones_pendientes` "
+                    + "ADD COLUMN `delta_stock` INTEGER NOT NULL DEFAULT 0");
+        }
+    };
+
+    // Precalentado de la caché de escaneo
+    static final Migration M10_11 = new Migration(10, 11) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_productos_activo_ultima_actualizacion` "
+                    + "ON `productos` (`activo`, `ultima_actualizacion`)");
+        }
+    };
+
+    // Envío idempotente de los ajustes de stock
+    static final Migration M11_12 = new Migration(11, 12) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE `operaciones_pendientes` ADD COLUMN `id_envio` TEXT");
+            db.execSQL("ALTER TABLE `operaciones_pendientes` "
+                    + "ADD COLUMN `delta_enviado` INTEGER NOT NULL DEFAULT 0");
+        }
+    };
+
+    static final Migration[] TODAS = {M4_5, M5_6, M6_7, M7_8, M8_9, M9_10, M10_11, M11_12};
+
+    // Crea la tabla FTS4, los triggers que la sincronizan con su tabla de contenido
+    // (los mismos que crea Room) y la llena con las filas existentes
+    private static void crearFts(SupportSQLiteDatabase db, String tabla, String contenido,
+                                 String... columnas) {
+        StringBuilder definicion = new StringBuilder();
+        StringBuilder lista = new StringBuilder();
+        StringBuilder valores = new StringBuilder();
+        for (String columna : columnas) {
+            definicion.append('`').append(columna).append("` TEXT, ");
+            lista.append(", `").append(columna).append('`');
+            valores.append(", NEW.`").append(columna).append('`');
+        }
+        db.execSQL("CREATE VIRTUAL TABLE IF NOT EXISTS `" + tabla + "` USING FTS4("
+                + definicion + "tokenize=unicode61, content=`" + contenido + "`)");
+
+        String prefijo = "room_fts_content_sync_" + tabla + "_";
+        String borrar = "DELETE FROM `" + tabla + "` WHERE `docid`=OLD.`rowid`;";
+        String insertar = "INSERT INTO `" + tabla + "`(`docid`" + lista + ") VALUES (NEW.`rowid`"
+                + valores + ");";
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS " + prefijo + "BEFORE_UPDATE BEFORE UPDATE ON `"
+                + contenido + "` BEGIN " + borrar + " END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS " + prefijo + "BEFORE_DELETE BEFORE DELETE ON `"
+                + contenido + "` BEGIN " + borrar + " END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS " + prefijo + "AFTER_UPDATE AFTER UPDATE ON `"
+                + contenido + "` BEGIN " + insertar + " END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS " + prefijo + "AFTER_INSERT AFTER INSERT ON `"
+                + contenido + "` BEGIN " + insertar + " END");
+        db.execSQL("INSERT INTO `" + tabla + "`(`" + tabla + "`) VALUES('rebuild')");
+    }
+}
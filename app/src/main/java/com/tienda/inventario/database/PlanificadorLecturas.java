@@ -0,0 +1,107 @@
+package com.tienda.inventario.database;
+
+import android.util.Log;
+
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+// Hilos de lectura con dos carriles. Un hilo libre toma primero lo interactivo, y las
+// tareas de fondo nunca ocupan todos los hilos: siempre queda uno para la pantalla.
+public final class PlanificadorLecturas {
+
+    private static final String TAG = "PlanificadorLecturas";
+
+    private static final class Pendiente {
+        final Runnable tarea;
+        final long encoladaEn;
+
+        Pendiente(Runnable tarea, long encoladaEn) {
+            this.tarea = tarea;
+            this.encoladaEn = encoladaEn;
+        }
+    }
+
+    private final int hilos;
+    private final Map<Carril, ArrayDeque<Pendiente>> colas = new EnumMap<>(Carril.class);
+    private final Map<Carril, MetricasCarril> metricas = new EnumMap<>(Carril.class);
+
+    // Tareas de fondo corriendo ahora (protegido por this)
+    private int fondoEnCurso;
+
+    PlanificadorLecturas(String nombre, int hilos) {
+        this.hilos = Math.max(hilos, 2);
+        for (Carril carril : Carril.values()) {
+            colas.put(carril, new ArrayDeque<>());
+            metricas.put(carril, new MetricasCarril(nombre + "-" + carril.name().toLowerCase()));
+        }
+        for (int i = 0; i < this.hilos; i++) {
+            Thread hilo = new Thread(this::trabajar, nombre + "-" + i);
+            hilo.setDaemon(true);
+            hilo.start();
+        }
+    }
+
+    public void ejecutar(Carril carril, Runnable tarea) {
+        long encoladaEn = metricas.get(carril).encolada();
+        synchronized (this) {
+            colas.get(carril).add(new Pendiente(tarea, encoladaEn));
+            notifyAll();
+        }
+    }
+
+    // Vista como Executor de un carril (para APIs que reciben uno)
+    public Executor executor(Carril carril) {
+        return tarea -> ejecutar(carril, tarea);
+    }
+
+    public MetricasCarril getMetricas(Carril carril) {
+        return metricas.get(carril);
+    }
+
+    private void trabajar() {
+        while (true) {
+            Pendiente pendiente;
+            Carril carril;
+            try {
+                synchronized (this) {
+                    while ((carril = siguienteCarril()) == null) {
+                        wait();
+                    }
+                    pendiente = colas.get(carril).poll();
+                    if (carril == Carril.FONDO) {
+                        fondoEnCurso++;
+                    }
+                }
+            } catch (InterruptedException e) {
+                return;
+            }
+
+            metricas.get(carril).iniciada(pendiente.encoladaEn);
+            try {
+                pendiente.tarea.run();
+            } catch (RuntimeException e) {
+                Log.e(TAG, "Error en lectura de " + carril + ": " + e.getMessage(), e);
+            } finally {
+                if (carril == Carril.FONDO) {
+                    synchronized (this) {
+                        fondoEnCurso--;
+                        notifyAll();
+                    }
+                }
+            }
+        }
+    }
+
+    // Llamar con el monitor tomado
+    private Carril siguienteCarril() {
+        if (!colas.get(Carril.INTERACTIVO).isEmpty()) {
+            return Carril.INTERACTIVO;
+        }
+        if (!colas.get(Carril.FONDO).isEmpty() && fondoEnCurso < hilos - 1) {
+            return Carril.FONDO;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,109 @@
+package com.tienda.inventario.database;
+
+import android.database.Cursor;
+import android.util.Log;
+
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+import com.tienda.inventario.database.entities.InventarioTotal;
+
+// Triggers que mantienen inventario_totales al insertar, modificar o borrar productos.
+// Cada cambio suma o resta solo su propia contribución, así el encabezado lee una fila
+// en lugar de recorrer todo el catálogo con COUNT/SUM en cada actualización de stock.
+// Room no declara triggers: se instalan al abrir la base y, si faltaban (base nueva o
+// recreada), los totales se reconstruyen desde productos en la misma transacción.
+final class TotalesInventario {
+
+    private static final String TAG = "TotalesInventario";
+
+    private static final String[] TRIGGERS = {
+            "productos_totales_insert", "productos_totales_delete", "productos_totales_update"};
+
+    // Ámbito y expresión de su id dentro de la fila (NEW/OLD se antepone al usarla)
+    private static final String[][] AMBITOS = {
+            {InventarioTotal.GLOBAL, null},
+            {InventarioTotal.CATEGORIA, "id_categoria"},
+            {InventarioTotal.PROVEEDOR, "id_proveedor"}};
+
+    private TotalesInventario() {
+    }
+
+    static void instalar(SupportSQLiteDatabase db) {
+        if (contarTriggers(db) == TRIGGERS.length) {
+            return;
+        }
+        db.beginTransaction();
+        try {
+            db.execSQL("CREATE TRIGGER IF NOT EXISTS " + TRIGGERS[0]
+                    + " AFTER INSERT ON productos BEGIN " + sumar("NEW") + " END");
+            db.execSQL("CREATE TRIGGER IF NOT EXISTS " + TRIGGERS[1]
+                    + " AFTER DELETE ON productos BEGIN " + restar("OLD") + " END");
+            // Solo las columnas que cambian algún total; editar nombre o descripción no lo toca
+            db.execSQL("CREATE TRIGGER IF NOT EXISTS " + TRIGGERS[2]
+                    + " AFTER UPDATE OF activo, precio_unitario, stock_actual, id_categoria, id_proveedor"
+                    + " ON productos BEGIN " + restar("OLD") + sumar("NEW") + " END");
+            recalcular(db);
+            db.setTransactionSuccessful();
+            Log.d(TAG, "Triggers instalados y totales reconstruidos");
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    // Reconstruye todos los totales desde productos
+    static void recalcular(SupportSQLiteDatabase db) {
+        db.execSQL("DELETE FROM inventario_totales");
+        db.execSQL("INSERT INTO inventario_totales (ambito, id_ambito, productos, valor) "
+                + "SELECT '" + InventarioTotal.GLOBAL + "', 0, COUNT(*), "
+                + "IFNULL(SUM(precio_unitario * stock_actual), 0) FROM productos WHERE activo = 1");
+        for (int i = 1; i < AMBITOS.length; i++) {
+            String columna = AMBITOS[i][1];
+            db.execSQL("INSERT INTO inventario_totales (ambito, id_ambito, productos, valor) "
+                    + "SELECT '" + AMBITOS[i][0] + "', " + columna + ", SUM(activo), "
+                    + "SUM(activo * precio_unitario * stock_actual) FROM productos GROUP BY " + columna);
+        }
+    }
+
+    private static int contarTriggers(SupportSQLiteDatabase db) {
+        StringBuilder sql = new StringBuilder(
+                "SELECT COUNT(*) FROM sqlite_master WHERE type = 'trigger' AND name IN (");
+        for (int i = 0; i < TRIGGERS.length; i++) {
+            sql.append(i == 0 ? "'" : ", '").append(TRIGGERS[i]).append("'");
+        }
+        sql.append(")");
+        try (Cursor cursor = db.query(sql.toString())) {
+            return cursor.moveToFirst() ? cursor.getInt(0) : 0;
+        }
+    }
+
+    // activo vale 0 o 1: multiplicar por él descarta los productos dados de baja.
+    // Sin UPSERT (SQLite 3.24) en API 24: se asegura la fila y luego se actualiza.
+    private static String sumar(String fila) {
+        StringBuilder sql = new StringBuilder();
+        for (String[] ambito : AMBITOS) {
+            String id = id(fila, ambito);
+            sql.append("INSERT OR IGNORE INTO inventario_totales (ambito, id_ambito, productos, valor) VALUES ('")
+                    .append(ambito[0]).append("', ").append(id).append(", 0, 0); ");
+            sql.append(actualizar(fila, ambito, id, "+"));
+        }
+        return sql.toString();
+    }
+
+    private static String restar(String fila) {
+        StringBuilder sql = new StringBuilder();
+        for (String[] ambito : AMBITOS) {
+            sql.append(actualizar(fila, ambito, id(fila, ambito), "-"));
+        }
+        return sql.toString();
+    }
+
+    private static String actualizar(String fila, String[] ambito, String id, String signo) {
+        return "UPDATE inventario_totales SET productos = productos " + signo + " " + fila + ".activo, "
+                + "valor = valor " + signo + " " + fila + ".activo * " + fila + ".precio_unitario * "
+                + fila + ".stock_actual WHERE ambito = '" + ambito[0] + "' AND id_ambito = " + id + "; ";
+    }
+
+    private static String id(String fila, String[] ambito) {
+        return ambito[1] == null ? "0" : fila + "." + ambito[1];
+    }
+}
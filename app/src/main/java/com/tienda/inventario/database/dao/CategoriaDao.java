@@ -5,8 +5,11 @@ import androidx.room.Dao;
 import androidx.room.Delete;
 import androidx.room.Insert;
 import androidx.room.Query;
+import androidx.room.Transaction;
 import androidx.room.Update;
+import androidx.room.Upsert;
 
+import com.tienda.inventario.database.ConsultaFts;
 import com.tienda.inventario.database.entities.Categoria;
 
 import java.util.List;
@@ -18,6 +21,10 @@ public interface CategoriaDao {
     @Insert
     long insert(Categoria categoria);
 
+    // Insertar o actualizar categorías en bloque (sincronización)
+    @Upsert
+    void upsertAll(List<Categoria> categorias);
+
     // Actualizar categoría
     @Update
     void update(Categoria categoria);
@@ -42,9 +49,19 @@ public interface CategoriaDao {
     @Query("SELECT * FROM categorias WHERE id_categoria = :id")
     Categoria getCategoriaByIdSync(int id);
 
-    // Buscar categorías por nombre
-    @Query("SELECT * FROM categorias WHERE nombre_categoria LIKE '%' || :nombre || '%'")
-    LiveData<List<Categoria>> buscarPorNombre(String nombre);
+    // Buscar categorías por palabras (prefijo) en nombre y descripción
+    default LiveData<List<Categoria>> buscarPorNombre(String nombre) {
+        String consulta = ConsultaFts.prefijos(nombre);
+        return consulta != null ? buscarFts(consulta, nombre.trim()) : getAllCategorias();
+    }
+
+    // Búsqueda con el índice FTS; primero los nombres que empiezan por el término
+    @Query("SELECT c.* FROM categorias c " +
+            "JOIN categorias_fts ON categorias_fts.rowid = c.id_categoria " +
+            "WHERE categorias_fts MATCH :consulta " +
+            "ORDER BY CASE WHEN c.nombre_categoria LIKE :termino || '%' THEN 0 ELSE 1 END, " +
+            "c.nombre_categoria ASC")
+    LiveData<List<Categoria>> buscarFts(String consulta, String termino);
 
     // Contar productos por categoría
     @Query("SELECT COUNT(*) FROM productos WHERE id_categoria = :idCategoria AND activo = 1")
@@ -69,4 +86,25 @@ public interface CategoriaDao {
     @Query("SELECT * FROM categorias ORDER BY nombre_categoria ASC")
     List<Categoria> getCategoriasSync();
 
-}
\ No newline at end of file
+    // Buscar por ID de documento de Firestore (índice único)
+    @Query("SELECT * FROM categorias WHERE doc_id = :docId LIMIT 1")
+    Categoria getByDocId(String docId);
+
+    @Query("SELECT id_categoria FROM categorias WHERE doc_id = :docId")
+    Integer getIdByDocId(String docId);
+
+    // Upsert por clave remota: actualiza la fila existente con ese doc_id
+    // (conservando su ID local) o inserta una nueva
+    @Transaction
+    default void upsertPorDocId(List<Categoria> categorias) {
+        for (Categoria categoria : categorias) {
+            Integer idExistente = categoria.getDocId() != null ? getIdByDocId(categoria.getDocId()) : null;
+            if (idExistente != null) {
+                categoria.setIdCategoria(idExistente);
+                update(categoria);
+            } else {
+                insert(categoria);
+            }
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.tienda.inventario.database.dao;
+
+import androidx.lifecycle.LiveData;
+import androidx.room.Dao;
+import androidx.room.Query;
+
+import com.tienda.inventario.database.entities.InventarioTotal;
+
+import java.util.List;
+
+// Lecturas de inventario_totales: búsquedas por clave primaria, sin recorrer productos
+@Dao
+public interface InventarioTotalDao {
+
+    @Query("SELECT productos FROM inventario_totales WHERE ambito = 'global' AND id_ambito = 0")
+    LiveData<Integer> getProductosActivos();
+
+    @Query("SELECT valor FROM inventario_totales WHERE ambito = 'global' AND id_ambito = 0")
+    LiveData<Double> getValorTotal();
+
+    @Query("SELECT * FROM inventario_totales WHERE ambito = 'categoria' AND productos > 0 " +
+            "ORDER BY valor DESC")
+    LiveData<List<InventarioTotal>> getPorCategoria();
+
+    @Query("SELECT * FROM inventario_totales WHERE ambito = 'proveedor' AND productos > 0 " +
+            "ORDER BY valor DESC")
+    LiveData<List<InventarioTotal>> getPorProveedor();
+
+    @Query("SELECT * FROM inventario_totales WHERE productos > 0 ORDER BY ambito, id_ambito")
+    List<InventarioTotal> getTodos();
+}
@@ -0,0 +1,104 @@
+package com.tienda.inventario.database.dao;
+
+import androidx.lifecycle.LiveData;
+import androidx.room.Dao;
+import androidx.room.Query;
+import androidx.room.Transaction;
+import androidx.room.Upsert;
+
+import com.tienda.inventario.database.entities.OperacionPendiente;
+
+import java.util.List;
+
+@Dao
+public interface OperacionPendienteDao {
+
+    @Upsert
+    void guardar(OperacionPendiente operacion);
+
+    @Query("SELECT * FROM operaciones_pendientes WHERE doc_id = :docId")
+    OperacionPendiente getByDocId(String docId);
+
+    // Encolar un cambio; si el producto ya tenía uno pendiente se fusiona en la misma fila
+    @Transaction
+    default void encolar(String docId, String tipo, long ahora) {
+        OperacionPendiente operacion = getByDocId(docId);
+        if (operacion == null) {
+            operacion = new OperacionPendiente(docId, tipo, ahora);
+        } else {
+            operacion.setTipo(tipo);
+            // Un GUARDAR sube el stock absoluto, que ya incluye los ajustes
+            operacion.setDeltaStock(0);
+            operacion.setIdEnvio(null);
+            operacion.setDeltaEnviado(0);
+            operacion.setVersion(operacion.getVersion() + 1);
+            // Contenido nuevo: se intenta enseguida
+            operacion.setIntentos(0);
+            operacion.setProximoIntento(ahora);
+        }
+        guardar(operacion);
+    }
+
+    // Encolar un ajuste relativo de stock. Se suma al ajuste pendiente del producto;
+    // si lo pendiente es un GUARDAR o un ELIMINAR se deja como está (solo cambia la versión
+    // para que un envío en vuelo con el stock anterior no se dé por confirmado)
+    @Transaction
+    default void encolarAjuste(String docId, int delta, long ahora) {
+        OperacionPendiente operacion = getByDocId(docId);
+        if (operacion == null) {
+            operacion = new OperacionPendiente(docId, OperacionPendiente.AJUSTAR, ahora);
+            operacion.setDeltaStock(delta);
+        } else {
+            if (OperacionPendiente.AJUSTAR.equals(operacion.getTipo())) {
+                operacion.setDeltaStock(operacion.getDeltaStock() + delta);
+            }
+            operacion.setVersion(operacion.getVersion() + 1);
+            operacion.setIntentos(0);
+            operacion.setProximoIntento(ahora);
+        }
+        guardar(operacion);
+    }
+
+    // Operaciones listas para enviar, las más antiguas primero
+    @Query("SELECT * FROM operaciones_pendientes WHERE proximo_intento <= :ahora " +
+            "ORDER BY creada ASC LIMIT :limite")
+    List<OperacionPendiente> getListas(long ahora, int limite);
+
+    // Momento del próximo reintento programado (null si la cola está vacía)
+    @Query("SELECT MIN(proximo_intento) FROM operaciones_pendientes")
+    Long getProximoIntento();
+
+    // Borrar la operación enviada, salvo que haya cambiado mientras el lote estaba en vuelo
+    @Query("DELETE FROM operaciones_pendientes WHERE doc_id = :docId AND version = :version")
+    void confirmar(String docId, int version);
+
+    // Fija el envío del ajuste acumulado: su id y el delta que lleva. No cambia un envío
+    // ya fijado, que debe repetirse igual hasta confirmarse.
+    @Query("UPDATE operaciones_pendientes SET id_envio = :idEnvio, delta_enviado = delta_stock " +
+            "WHERE doc_id = :docId AND tipo = '" + OperacionPendiente.AJUSTAR + "' " +
+            "AND id_envio IS NULL AND delta_stock != 0")
+    void fijarEnvio(String docId, String idEnvio);
+
+    // Confirmar un ajuste enviado: si mientras estaba en vuelo se acumularon más, queda
+    // pendiente solo la diferencia (y sin envío fijado)
+    @Transaction
+    default void confirmarAjuste(String docId, int version, String idEnvio) {
+        confirmar(docId, version);
+        descontarAjuste(docId, idEnvio);
+    }
+
+    @Query("UPDATE operaciones_pendientes SET delta_stock = delta_stock - delta_enviado, " +
+            "id_envio = NULL, delta_enviado = 0 WHERE doc_id = :docId AND id_envio = :idEnvio")
+    void descontarAjuste(String docId, String idEnvio);
+
+    @Query("UPDATE operaciones_pendientes SET intentos = intentos + 1, proximo_intento = :proximoIntento " +
+            "WHERE doc_id IN (:docIds)")
+    void registrarFallo(List<String> docIds, long proximoIntento);
+
+    // docIds con cambios locales sin subir (la sincronización no debe pisarlos)
+    @Query("SELECT doc_id FROM operaciones_pendientes")
+    List<String> getDocIdsPendientes();
+
+    @Query("SELECT COUNT(*) FROM operaciones_pendientes")
+    LiveData<Integer> contarPendientes();
+}
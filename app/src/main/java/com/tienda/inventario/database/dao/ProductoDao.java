@@ -5,9 +5,13 @@ import androidx.room.Dao;
 import androidx.room.Delete;
 import androidx.room.Insert;
 import androidx.room.Query;
+import androidx.room.Transaction;
 import androidx.room.Update;
+import androidx.room.Upsert;
 
+import com.tienda.inventario.database.ConsultaFts;
 import com.tienda.inventario.database.entities.Producto;
+import com.tienda.inventario.database.entities.ProductoFila;
 
 import java.util.List;
 
@@ -18,6 +22,10 @@ public interface ProductoDao {
     @Insert
     long insert(Producto producto);
 
+    // Insertar o actualizar productos en bloque (sincronización)
+    @Upsert
+    void upsertAll(List<Producto> productos);
+
     // Actualizar producto
     @Update
     void update(Producto producto);
@@ -34,13 +42,65 @@ public interface ProductoDao {
     @Query("SELECT * FROM productos WHERE activo = 1 ORDER BY nombre_producto ASC")
     LiveData<List<Producto>> getAllProductos();
 
+    // Filas de lista de todos los productos activos
+    @Query("SELECT " + ProductoFila.COLUMNAS + " FROM productos p" + ProductoFila.UNIONES +
+            "WHERE p.activo = 1 " +
+            "ORDER BY p.nombre_producto ASC")
+    LiveData<List<ProductoFila>> getFilas();
+
+    // Páginas por clave (keyset) sobre (nombre_producto, id_producto), usan el índice
+    // (activo, nombre_producto, id_producto). Sin comparación de filas (a, b) > (x, y):
+    // SQLite la admite desde 3.15 y la API 24 trae 3.9.
+    @Query("SELECT " + ProductoFila.COLUMNAS + " FROM productos p" + ProductoFila.UNIONES +
+            "WHERE p.activo = 1 " +
+            "ORDER BY p.nombre_producto ASC, p.id_producto ASC LIMIT :limite")
+    List<ProductoFila> getPaginaInicial(int limite);
+
+    @Query("SELECT " + ProductoFila.COLUMNAS + " FROM productos p" + ProductoFila.UNIONES +
+            "WHERE p.activo = 1 " +
+            "AND p.nombre_producto >= :nombre AND (p.nombre_producto > :nombre OR p.id_producto > :id) " +
+            "ORDER BY p.nombre_producto ASC, p.id_producto ASC LIMIT :limite")
+    List<ProductoFila> getPaginaDespuesDe(String nombre, int id, int limite);
+
+    @Query("SELECT " + ProductoFila.COLUMNAS + " FROM productos p" + ProductoFila.UNIONES +
+            "WHERE p.activo = 1 " +
+            "AND p.nombre_producto >= :nombre AND (p.nombre_producto > :nombre OR p.id_producto >= :id) " +
+            "ORDER BY p.nombre_producto ASC, p.id_producto ASC LIMIT :limite")
+    List<ProductoFila> getPaginaDesde(String nombre, int id, int limite);
+
+    // En orden inverso: las filas inmediatamente anteriores a la clave
+    @Query("SELECT " + ProductoFila.COLUMNAS + " FROM productos p" + ProductoFila.UNIONES +
+            "WHERE p.activo = 1 " +
+            "AND p.nombre_producto <= :nombre AND (p.nombre_producto < :nombre OR p.id_producto < :id) " +
+            "ORDER BY p.nombre_producto DESC, p.id_producto DESC LIMIT :limite")
+    List<ProductoFila> getPaginaAntesDe(String nombre, int id, int limite);
+
     // Obtener producto por ID
     @Query("SELECT * FROM productos WHERE id_producto = :id")
     LiveData<Producto> getProductoById(int id);
 
-    // Buscar productos por nombre
-    @Query("SELECT * FROM productos WHERE nombre_producto LIKE '%' || :nombre || '%' AND activo = 1")
-    LiveData<List<Producto>> searchByName(String nombre);
+    // Producto completo para detalle y edición (debe llamarse desde un hilo de fondo)
+    @Query("SELECT * FROM productos WHERE id_producto = :id")
+    Producto getById(int id);
+
+    // Buscar productos por palabras (prefijo) en nombre, descripción y código de barras
+    default LiveData<List<ProductoFila>> searchByName(String nombre) {
+        String consulta = ConsultaFts.prefijos(nombre);
+        return consulta != null ? buscarFts(consulta, nombre.trim()) : getFilas();
+    }
+
+    // Búsqueda con el índice FTS (:consulta es una expresión MATCH, ver ConsultaFts).
+    // Primero el código de barras exacto, luego los nombres que empiezan por el término
+    // y después los que lo contienen.
+    @Query("SELECT " + ProductoFila.COLUMNAS + " FROM productos p " +
+            "JOIN productos_fts ON productos_fts.rowid = p.id_producto" + ProductoFila.UNIONES +
+            "WHERE productos_fts MATCH :consulta AND p.activo = 1 " +
+            "ORDER BY CASE " +
+            "WHEN p.codigo_barras = :termino THEN 0 " +
+            "WHEN p.nombre_producto LIKE :termino || '%' THEN 1 " +
+            "WHEN p.nombre_producto LIKE '%' || :termino || '%' THEN 2 " +
+            "ELSE 3 END, p.nombre_producto ASC")
+    LiveData<List<ProductoFila>> buscarFts(String consulta, String termino);
 
     // Obtener productos por categoría
     @Query("SELECT * FROM productos WHERE id_categoria = :idCategoria AND activo = 1")
@@ -54,10 +114,30 @@ public interface ProductoDao {
     @Query("SELECT * FROM productos WHERE codigo_barras = :codigoBarras AND activo = 1 LIMIT 1")
     Producto findByCodigoBarras(String codigoBarras);
 
+    @Query("SELECT id_producto FROM productos WHERE codigo_barras = :codigoBarras AND activo = 1 LIMIT 1")
+    Integer getIdPorCodigoBarras(String codigoBarras);
+
+    // Productos con código de barras, los modificados más recientemente primero
+    // (precalentado de la caché de escaneo). Recorre el índice (activo, ultima_actualizacion)
+    // hacia atrás y se detiene en el límite, sin ordenar la tabla.
+    @Query("SELECT * FROM productos WHERE codigo_barras IS NOT NULL AND codigo_barras != '' " +
+            "AND activo = 1 ORDER BY ultima_actualizacion DESC LIMIT :limite")
+    List<Producto> getConCodigoBarras(int limite);
+
     // Actualizar stock
     @Query("UPDATE productos SET stock_actual = :nuevoStock, ultima_actualizacion = :timestamp WHERE id_producto = :idProducto")
     void updateStock(int idProducto, int nuevoStock, long timestamp);
 
+    // Sumar al stock (delta negativo para restar) sin dejarlo por debajo de cero.
+    // Devuelve 0 si el producto no está activo o no alcanza el stock.
+    @Query("UPDATE productos SET stock_actual = stock_actual + :delta, ultima_actualizacion = :timestamp " +
+            "WHERE id_producto = :idProducto AND activo = 1 AND stock_actual + :delta >= 0")
+    int sumarStock(int idProducto, int delta, long timestamp);
+
+    // Stock de un producto activo (null si no existe o está inactivo)
+    @Query("SELECT stock_actual FROM productos WHERE id_producto = :idProducto AND activo = 1")
+    Integer getStockActivo(int idProducto);
+
     // Contar productos activos
     @Query("SELECT COUNT(*) FROM productos WHERE activo = 1")
     LiveData<Integer> countProductosActivos();
@@ -73,4 +153,33 @@ public interface ProductoDao {
     // Eliminar todos los productos (para testing y sincronización)
     @Query("DELETE FROM productos")
     void deleteAll();
-}
\ No newline at end of file
+
+    // Buscar por ID de documento de Firestore (índice único)
+    @Query("SELECT * FROM productos WHERE doc_id = :docId LIMIT 1")
+    Producto getByDocId(String docId);
+
+    @Query("SELECT id_producto FROM productos WHERE doc_id = :docId")
+    Integer getIdByDocId(String docId);
+
+    @Query("SELECT doc_id FROM productos WHERE id_producto = :idProducto")
+    String getDocIdById(int idProducto);
+
+    // Upsert por clave remota: actualiza la fila existente con ese doc_id
+    // (conservando su ID local) o inserta una nueva
+    @Transaction
+    default void upsertPorDocId(List<Producto> productos) {
+        for (Producto producto : productos) {
+            Integer idExistente = producto.getDocId() != null ? getIdByDocId(producto.getDocId()) : null;
+            if (idExistente != null) {
+                producto.setIdProducto(idExistente);
+                update(producto);
+            } else {
+                insert(producto);
+            }
+        }
+    }
+
+    // Eliminar por ID de documento de Firestore (cambios remotos en tiempo real)
+    @Query("DELETE FROM productos WHERE doc_id IN (:docIds)")
+    void deleteByDocIds(List<String> docIds);
+}
@@ -0,0 +1,68 @@
+package com.tienda.inventario.database.dao;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+import androidx.room.Transaction;
+
+import com.tienda.inventario.database.entities.ProductoStaging;
+
+import java.util.List;
+
+@Dao
+public interface ProductoStagingDao {
+
+    // Agregar una página descargada (un doc_id repetido reemplaza al anterior)
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void insertar(List<ProductoStaging> productos);
+
+    @Query("DELETE FROM productos_staging")
+    void vaciar();
+
+    @Query("SELECT COUNT(*) FROM productos_staging")
+    int contar();
+
+    // Actualiza los productos que cambiaron en Firestore. Las filas con cambios locales
+    // sin subir (operaciones_pendientes) conservan la versión local.
+    // Una subconsulta por columna: SQLite anterior a 3.15 no admite SET (a, b) = (SELECT ...)
+    @Query("UPDATE productos SET " +
+            "nombre_producto = (SELECT s.nombre_producto FROM productos_staging s WHERE s.doc_id = productos.doc_id), " +
+            "descripcion = (SELECT s.descripcion FROM productos_staging s WHERE s.doc_id = productos.doc_id), " +
+            "precio_unitario = (SELECT s.precio_unitario FROM productos_staging s WHERE s.doc_id = productos.doc_id), " +
+            "stock_actual = (SELECT s.stock_actual FROM productos_staging s WHERE s.doc_id = productos.doc_id), " +
+            "stock_minimo = (SELECT s.stock_minimo FROM productos_staging s WHERE s.doc_id = productos.doc_id), " +
+            "id_categoria = (SELECT s.id_categoria FROM productos_staging s WHERE s.doc_id = productos.doc_id), " +
+            "id_proveedor = (SELECT s.id_proveedor FROM productos_staging s WHERE s.doc_id = productos.doc_id), " +
+            "codigo_barras = (SELECT s.codigo_barras FROM productos_staging s WHERE s.doc_id = productos.doc_id), " +
+            "activo = (SELECT s.activo FROM productos_staging s WHERE s.doc_id = productos.doc_id), " +
+            "ultima_actualizacion = (SELECT s.ultima_actualizacion FROM productos_staging s WHERE s.doc_id = productos.doc_id) " +
+            "WHERE doc_id IN (SELECT doc_id FROM productos_staging) " +
+            "AND doc_id NOT IN (SELECT doc_id FROM operaciones_pendientes) " +
+            "AND ultima_actualizacion <> (SELECT s.ultima_actualizacion FROM productos_staging s WHERE s.doc_id = productos.doc_id)")
+    int actualizarDesdeStaging();
+
+    // Inserta los productos que todavía no existen localmente
+    @Query("INSERT INTO productos (nombre_producto, descripcion, precio_unitario, stock_actual, stock_minimo, " +
+            "id_categoria, id_proveedor, codigo_barras, fecha_registro, ultima_actualizacion, activo, doc_id) " +
+            "SELECT s.nombre_producto, s.descripcion, s.precio_unitario, s.stock_actual, s.stock_minimo, " +
+            "s.id_categoria, s.id_proveedor, s.codigo_barras, s.fecha_registro, s.ultima_actualizacion, s.activo, s.doc_id " +
+            "FROM productos_staging s " +
+            "WHERE s.doc_id NOT IN (SELECT doc_id FROM productos WHERE doc_id IS NOT NULL)")
+    void insertarDesdeStaging();
+
+    // Borra los productos que ya no están en Firestore (salvo cambios locales sin subir)
+    @Query("DELETE FROM productos WHERE doc_id IS NOT NULL " +
+            "AND doc_id NOT IN (SELECT doc_id FROM productos_staging) " +
+            "AND doc_id NOT IN (SELECT doc_id FROM operaciones_pendientes)")
+    int borrarAusentesEnStaging();
+
+    // Reemplaza el catálogo por el contenido de staging y la vacía
+    @Transaction
+    default void intercambiar() {
+        actualizarDesdeStaging();
+        insertarDesdeStaging();
+        borrarAusentesEnStaging();
+        vaciar();
+    }
+}
@@ -5,8 +5,11 @@ import androidx.room.Dao;
 import androidx.room.Delete;
 import androidx.room.Insert;
 import androidx.room.Query;
+import androidx.room.Transaction;
 import androidx.room.Update;
+import androidx.room.Upsert;
 
+import com.tienda.inventario.database.ConsultaFts;
 import com.tienda.inventario.database.entities.Proveedor;
 
 import java.util.List;
@@ -18,6 +21,10 @@ public interface ProvedoorDao {
     @Insert
     long insert(Proveedor proveedor);
 
+    // Insertar o actualizar proveedores en bloque (sincronización)
+    @Upsert
+    void upsertAll(List<Proveedor> proveedores);
+
     // Actualizar proveedor
     @Update
     void update(Proveedor proveedor);
@@ -42,9 +49,19 @@ public interface ProvedoorDao {
     @Query("SELECT * FROM proveedores WHERE id_proveedor = :id")
     Proveedor getProveedorByIdSync(int id);
 
-    // Buscar proveedores por nombre
-    @Query("SELECT * FROM proveedores WHERE nombre_proveedor LIKE '%' || :nombre || '%'")
-    LiveData<List<Proveedor>> buscarPorNombre(String nombre);
+    // Buscar proveedores por palabras (prefijo) en nombre, ciudad y email
+    default LiveData<List<Proveedor>> buscarPorNombre(String nombre) {
+        String consulta = ConsultaFts.prefijos(nombre);
+        return consulta != null ? buscarFts(consulta, nombre.trim()) : getAllProveedores();
+    }
+
+    // Búsqueda con el índice FTS; primero los nombres que empiezan por el término
+    @Query("SELECT p.* FROM proveedores p " +
+            "JOIN proveedores_fts ON proveedores_fts.rowid = p.id_proveedor " +
+            "WHERE proveedores_fts MATCH :consulta " +
+            "ORDER BY CASE WHEN p.nombre_proveedor LIKE :termino || '%' THEN 0 ELSE 1 END, " +
+            "p.nombre_proveedor ASC")
+    LiveData<List<Proveedor>> buscarFts(String consulta, String termino);
 
     // Buscar proveedores por ciudad
     @Query("SELECT * FROM proveedores WHERE ciudad LIKE '%' || :ciudad || '%'")
@@ -80,4 +97,26 @@ public interface ProvedoorDao {
     // Obtener todos los proveedores de forma síncrona
     @Query("SELECT * FROM proveedores ORDER BY nombre_proveedor ASC")
     List<Proveedor> getProveedorSync();
-}
\ No newline at end of file
+
+    // Buscar por ID de documento de Firestore (índice único)
+    @Query("SELECT * FROM proveedores WHERE doc_id = :docId LIMIT 1")
+    Proveedor getByDocId(String docId);
+
+    @Query("SELECT id_proveedor FROM proveedores WHERE doc_id = :docId")
+    Integer getIdByDocId(String docId);
+
+    // Upsert por clave remota: actualiza la fila existente con ese doc_id
+    // (conservando su ID local) o inserta una nueva
+    @Transaction
+    default void upsertPorDocId(List<Proveedor> proveedores) {
+        for (Proveedor proveedor : proveedores) {
+            Integer idExistente = proveedor.getDocId() != null ? getIdByDocId(proveedor.getDocId()) : null;
+            if (idExistente != null) {
+                proveedor.setIdProveedor(idExistente);
+                update(proveedor);
+            } else {
+                insert(proveedor);
+            }
+        }
+    }
+}
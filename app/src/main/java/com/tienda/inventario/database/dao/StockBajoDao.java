@@ -0,0 +1,31 @@
+package com.tienda.inventario.database.dao;
+
+import androidx.lifecycle.LiveData;
+import androidx.room.Dao;
+import androidx.room.Query;
+
+import com.tienda.inventario.database.entities.CambioStockBajo;
+import com.tienda.inventario.database.entities.ProductoFila;
+
+import java.util.List;
+
+@Dao
+public interface StockBajoDao {
+
+    // Productos en stock bajo: se recorre el conjunto, no el catálogo
+    @Query("SELECT " + ProductoFila.COLUMNAS + " FROM productos_stock_bajo s " +
+            "INNER JOIN productos p ON p.id_producto = s.id_producto" + ProductoFila.UNIONES +
+            "ORDER BY p.stock_actual ASC")
+    LiveData<List<ProductoFila>> getProductos();
+
+    // Último cruce registrado; solo cambia cuando algún producto cruza el umbral
+    @Query("SELECT IFNULL(MAX(seq), 0) FROM stock_bajo_cambios")
+    LiveData<Long> getUltimoCambio();
+
+    @Query("SELECT * FROM stock_bajo_cambios WHERE seq > :desde AND seq <= :hasta ORDER BY seq")
+    List<CambioStockBajo> getCambios(long desde, long hasta);
+
+    // Primer cruce conservado (0 si el registro está vacío)
+    @Query("SELECT IFNULL(MIN(seq), 0) FROM stock_bajo_cambios")
+    long getPrimerCambio();
+}
@@ -0,0 +1,23 @@
+package com.tienda.inventario.database.dao;
+
+import androidx.room.Dao;
+import androidx.room.Query;
+import androidx.room.Upsert;
+
+import com.tienda.inventario.database.entities.SyncEstado;
+
+@Dao
+public interface SyncEstadoDao {
+
+    // Guardar (o reemplazar) la marca de una colección
+    @Upsert
+    void guardar(SyncEstado syncEstado);
+
+    // Obtener la marca de una colección (0 si nunca se sincronizó)
+    @Query("SELECT IFNULL(MAX(ultima_sync), 0) FROM sync_estado WHERE coleccion = :coleccion")
+    long getUltimaSync(String coleccion);
+
+    // Olvidar la marca para forzar una sincronización completa
+    @Query("DELETE FROM sync_estado WHERE coleccion = :coleccion")
+    void reiniciar(String coleccion);
+}
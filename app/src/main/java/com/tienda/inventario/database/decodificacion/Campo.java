@@ -0,0 +1,35 @@
+package com.tienda.inventario.database.decodificacion;
+
+// Definición declarativa de un campo de documento: nombre actual, nombres antiguos
+// aceptados, tipo de destino y valor por defecto
+public final class Campo {
+
+    final String nombre;
+    final String[] alias;
+    final TipoCampo tipo;
+    final Object porDefecto;
+    final boolean obligatorio;
+
+    private Campo(String nombre, String[] alias, TipoCampo tipo, Object porDefecto, boolean obligatorio) {
+        this.nombre = nombre;
+        this.alias = alias;
+        this.tipo = tipo;
+        this.porDefecto = porDefecto;
+        this.obligatorio = obligatorio;
+    }
+
+    // Campo opcional; si falta o no se puede convertir se usa el valor por defecto
+    // (con porDefecto null el destino conserva su valor inicial)
+    public static Campo opcional(String nombre, TipoCampo tipo, Object porDefecto, String... alias) {
+        return new Campo(nombre, alias, tipo, porDefecto, false);
+    }
+
+    // Campo sin el cual el documento se descarta y se cuenta como fallido
+    public static Campo obligatorio(String nombre, TipoCampo tipo, String... alias) {
+        return new Campo(nombre, alias, tipo, null, true);
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+}
@@ -0,0 +1,79 @@
+package com.tienda.inventario.database.decodificacion;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+// Esquema de una colección: qué campos leer y cómo asignarlos a la entidad.
+// Se resuelve una vez por snapshot (resolver()) y el plan resultante decodifica
+// cada documento sin volver a recorrer los alias.
+public final class EsquemaDocumento<T> {
+
+    // Asigna un valor ya convertido al tipo del campo
+    public interface Asignador<T> {
+        void asignar(T destino, Object valor);
+    }
+
+    private final String entidad;
+    private final Supplier<T> fabrica;
+    private final BiConsumer<T, String> asignarDocId;
+    private final List<Campo> campos = new ArrayList<>();
+    private final List<Asignador<T>> asignadores = new ArrayList<>();
+
+    public EsquemaDocumento(String entidad, Supplier<T> fabrica, BiConsumer<T, String> asignarDocId) {
+        this.entidad = entidad;
+        this.fabrica = fabrica;
+        this.asignarDocId = asignarDocId;
+    }
+
+    public EsquemaDocumento<T> campo(Campo campo, Asignador<T> asignador) {
+        campos.add(campo);
+        asignadores.add(asignador);
+        return this;
+    }
+
+    public String getEntidad() {
+        return entidad;
+    }
+
+    // Resuelve los alias con un documento de muestra (normalmente el primero del snapshot):
+    // para cada campo se prueba primero el nombre que usa la muestra. Los documentos del
+    // mismo snapshot casi siempre comparten formato, así que cada campo se lee con una sola
+    // búsqueda y los demás nombres solo se prueban si esa falla.
+    @SuppressWarnings("unchecked")
+    public PlanDecodificacion<T> resolver(Map<String, Object> muestra) {
+        int n = campos.size();
+        String[][] claves = new String[n][];
+        TipoCampo[] tipos = new TipoCampo[n];
+        Object[] porDefecto = new Object[n];
+        boolean[] obligatorios = new boolean[n];
+        Asignador<T>[] asignadoresPlan = asignadores.toArray(new Asignador[0]);
+
+        for (int i = 0; i < n; i++) {
+            Campo campo = campos.get(i);
+            String[] orden = new String[campo.alias.length + 1];
+            orden[0] = campo.nombre;
+            System.arraycopy(campo.alias, 0, orden, 1, campo.alias.length);
+
+            if (muestra != null && !muestra.containsKey(campo.nombre)) {
+                for (int j = 1; j < orden.length; j++) {
+                    if (muestra.containsKey(orden[j])) {
+                        String preferida = orden[j];
+                        System.arraycopy(orden, 0, orden, 1, j);
+                        orden[0] = preferida;
+                        break;
+                    }
+                }
+            }
+
+            claves[i] = orden;
+            tipos[i] = campo.tipo;
+            porDefecto[i] = campo.porDefecto;
+            obligatorios[i] = campo.obligatorio;
+        }
+        return new PlanDecodificacion<>(entidad, fabrica, asignarDocId,
+                claves, tipos, porDefecto, obligatorios, asignadoresPlan);
+    }
+}
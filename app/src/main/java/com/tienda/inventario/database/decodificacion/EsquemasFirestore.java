@@ -0,0 +1,67 @@
+package com.tienda.inventario.database.decodificacion;
+
+import com.tienda.inventario.database.entities.Categoria;
+import com.tienda.inventario.database.entities.Producto;
+import com.tienda.inventario.database.entities.Proveedor;
+
+// Esquemas de las colecciones de Firestore, incluidos los nombres de campo antiguos
+public final class EsquemasFirestore {
+
+    public static final EsquemaDocumento<Producto> PRODUCTO =
+            // El docId de Firestore es la clave remota; el ID local lo asigna Room
+            new EsquemaDocumento<Producto>("producto", Producto::new, Producto::setDocId)
+                    .campo(Campo.obligatorio("nombre_producto", TipoCampo.TEXTO, "nombre"),
+                            (p, v) -> p.setNombreProducto((String) v))
+                    .campo(Campo.opcional("descripcion", TipoCampo.TEXTO, ""),
+                            (p, v) -> p.setDescripcion((String) v))
+                    .campo(Campo.opcional("precio_unitario", TipoCampo.DECIMAL, 0.0, "precio"),
+                            (p, v) -> p.setPrecioUnitario((Double) v))
+                    .campo(Campo.opcional("stock_actual", TipoCampo.ENTERO, 0, "stock"),
+                            (p, v) -> p.setStockActual((Integer) v))
+                    .campo(Campo.opcional("stock_minimo", TipoCampo.ENTERO, 0, "stockMin"),
+                            (p, v) -> p.setStockMinimo((Integer) v))
+                    .campo(Campo.opcional("codigo_barras", TipoCampo.TEXTO, "", "codigoBarras"),
+                            (p, v) -> p.setCodigoBarras((String) v))
+                    .campo(Campo.opcional("id_categoria", TipoCampo.ENTERO, 1, "idCategoria"),
+                            (p, v) -> p.setIdCategoria((Integer) v))
+                    .campo(Campo.opcional("id_proveedor", TipoCampo.ENTERO, 1, "idProveedor"),
+                            (p, v) -> p.setIdProveedor((Integer) v))
+                    .campo(Campo.opcional("activo", TipoCampo.BOOLEANO, true),
+                            (p, v) -> p.setActivo((Boolean) v))
+                    // Última modificación remota (sin ella queda la hora local)
+                    .campo(Campo.opcional("timestamp", TipoCampo.LARGO, null),
+                            (p, v) -> p.setUltimaActualizacion((Long) v));
+
+    public static final EsquemaDocumento<Categoria> CATEGORIA =
+            new EsquemaDocumento<Categoria>("categoría", Categoria::new, (c, docId) -> {
+                // Los productos guardan este ID en Firestore como id_categoria
+                c.setIdCategoria(docId.hashCode());
+                c.setDocId(docId);
+            })
+                    .campo(Campo.opcional("nombre_categoria", TipoCampo.TEXTO, null, "nombre"),
+                            (c, v) -> c.setNombreCategoria((String) v))
+                    .campo(Campo.opcional("descripcion", TipoCampo.TEXTO, ""),
+                            (c, v) -> c.setDescripcion((String) v));
+
+    public static final EsquemaDocumento<Proveedor> PROVEEDOR =
+            new EsquemaDocumento<Proveedor>("proveedor", Proveedor::new, (p, docId) -> {
+                // Los productos guardan este ID en Firestore como id_proveedor
+                p.setIdProveedor(docId.hashCode());
+                p.setDocId(docId);
+            })
+                    .campo(Campo.opcional("nombre_proveedor", TipoCampo.TEXTO, null, "nombre"),
+                            (p, v) -> p.setNombreProveedor((String) v))
+                    .campo(Campo.opcional("telefono", TipoCampo.TEXTO, null),
+                            (p, v) -> p.setTelefono((String) v))
+                    .campo(Campo.opcional("email", TipoCampo.TEXTO, null),
+                            (p, v) -> p.setEmail((String) v))
+                    .campo(Campo.opcional("direccion", TipoCampo.TEXTO, null),
+                            (p, v) -> p.setDireccion((String) v))
+                    .campo(Campo.opcional("ciudad", TipoCampo.TEXTO, null),
+                            (p, v) -> p.setCiudad((String) v))
+                    .campo(Campo.opcional("pais", TipoCampo.TEXTO, null),
+                            (p, v) -> p.setPais((String) v));
+
+    private EsquemasFirestore() {
+    }
+}
@@ -0,0 +1,84 @@
+package com.tienda.inventario.database.decodificacion;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+// Esquema ya resuelto para un snapshot. Es inmutable, así que varios hilos
+// pueden decodificar tramos del mismo snapshot con el mismo plan.
+public final class PlanDecodificacion<T> {
+
+    private final String entidad;
+    private final Supplier<T> fabrica;
+    private final BiConsumer<T, String> asignarDocId;
+    private final String[][] claves;
+    private final TipoCampo[] tipos;
+    private final Object[] porDefecto;
+    private final boolean[] obligatorios;
+    private final EsquemaDocumento.Asignador<T>[] asignadores;
+
+    PlanDecodificacion(String entidad, Supplier<T> fabrica, BiConsumer<T, String> asignarDocId,
+                       String[][] claves, TipoCampo[] tipos, Object[] porDefecto,
+                       boolean[] obligatorios, EsquemaDocumento.Asignador<T>[] asignadores) {
+        this.entidad = entidad;
+        this.fabrica = fabrica;
+        this.asignarDocId = asignarDocId;
+        this.claves = claves;
+        this.tipos = tipos;
+        this.porDefecto = porDefecto;
+        this.obligatorios = obligatorios;
+        this.asignadores = asignadores;
+    }
+
+    public String getEntidad() {
+        return entidad;
+    }
+
+    // Decodifica un documento y acumula el resultado (o el fallo) en "resultado"
+    public void decodificar(String docId, Map<String, Object> datos, ResultadoDecodificacion<T> resultado) {
+        if (datos == null) {
+            resultado.registrarFallo(docId, "documento sin datos");
+            return;
+        }
+
+        T destino = fabrica.get();
+        asignarDocId.accept(destino, docId);
+
+        for (int i = 0; i < claves.length; i++) {
+            String[] orden = claves[i];
+            Object crudo = datos.get(orden[0]);
+            for (int j = 1; crudo == null && j < orden.length; j++) {
+                crudo = datos.get(orden[j]);
+            }
+
+            Object valor = crudo != null ? tipos[i].convertir(crudo) : null;
+            if (valor == null) {
+                if (crudo != null) {
+                    resultado.valoresInvalidos++;
+                }
+                if (obligatorios[i]) {
+                    resultado.registrarFallo(docId, crudo == null
+                            ? "falta " + orden[0]
+                            : orden[0] + " no es " + tipos[i]);
+                    return;
+                }
+                valor = porDefecto[i];
+                if (valor == null) {
+                    continue;
+                }
+            }
+            asignadores[i].asignar(destino, valor);
+        }
+        resultado.elementos.add(destino);
+    }
+
+    // Decodifica una lista de documentos en el orden recibido
+    public ResultadoDecodificacion<T> decodificarTodos(List<String> docIds, List<Map<String, Object>> datos) {
+        ResultadoDecodificacion<T> resultado = new ResultadoDecodificacion<>(datos.size());
+        for (int i = 0; i < datos.size(); i++) {
+            decodificar(docIds.get(i), datos.get(i), resultado);
+        }
+        return resultado;
+    }
+}
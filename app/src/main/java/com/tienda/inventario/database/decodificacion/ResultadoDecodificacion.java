@@ -0,0 +1,85 @@
+package com.tienda.inventario.database.decodificacion;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Entidades decodificadas de un snapshot (o de un tramo) y el conteo de problemas
+public final class ResultadoDecodificacion<T> {
+
+    // Máximo de motivos de fallo que se conservan para el log
+    private static final int MAX_MOTIVOS = 5;
+
+    final List<T> elementos;
+
+    // Documentos descartados por faltar un campo obligatorio: fallan igual en cada
+    // descarga, así que se excluyen y se registran
+    int fallidos;
+
+    // Documentos de tramos que no llegaron a decodificarse (interrupción o error del
+    // hilo decodificador): es transitorio, otra descarga sí los traería
+    int perdidos;
+
+    // Valores presentes pero de un tipo no convertible (se usó el valor por defecto)
+    int valoresInvalidos;
+
+    private final List<String> motivos = new ArrayList<>();
+
+    public ResultadoDecodificacion(int capacidad) {
+        elementos = new ArrayList<>(capacidad);
+    }
+
+    void registrarFallo(String docId, String motivo) {
+        fallidos++;
+        if (motivos.size() < MAX_MOTIVOS) {
+            motivos.add(docId + ": " + motivo);
+        }
+    }
+
+    // Un tramo entero que no se pudo decodificar: sus documentos cuentan como perdidos
+    // para que nadie los dé por ausentes
+    public void registrarPerdidos(int cantidad, String motivo) {
+        perdidos += cantidad;
+        if (motivos.size() < MAX_MOTIVOS) {
+            motivos.add(cantidad + " documentos: " + motivo);
+        }
+    }
+
+    // Agrega otro resultado a continuación de este (conserva el orden de los tramos)
+    public void agregar(ResultadoDecodificacion<T> otro) {
+        elementos.addAll(otro.elementos);
+        fallidos += otro.fallidos;
+        perdidos += otro.perdidos;
+        valoresInvalidos += otro.valoresInvalidos;
+        for (String motivo : otro.motivos) {
+            if (motivos.size() >= MAX_MOTIVOS) {
+                break;
+            }
+            motivos.add(motivo);
+        }
+    }
+
+    public List<T> getElementos() {
+        return elementos;
+    }
+
+    public int getFallidos() {
+        return fallidos;
+    }
+
+    public int getPerdidos() {
+        return perdidos;
+    }
+
+    public int getValoresInvalidos() {
+        return valoresInvalidos;
+    }
+
+    // Primeros motivos de fallo, para el log
+    public List<String> getMotivos() {
+        return motivos;
+    }
+
+    public boolean tieneProblemas() {
+        return fallidos > 0 || perdidos > 0 || valoresInvalidos > 0;
+    }
+}
@@ -0,0 +1,59 @@
+package com.tienda.inventario.database.decodificacion;
+
+// Tipo de destino de un campo y su conversión desde los valores que guarda Firestore
+// (los números llegan como Long o Double y algunos documentos antiguos los guardan como texto)
+public enum TipoCampo {
+    TEXTO,
+    ENTERO,
+    LARGO,
+    DECIMAL,
+    BOOLEANO;
+
+    // Devuelve el valor convertido, o null si no se puede interpretar como este tipo
+    Object convertir(Object valor) {
+        switch (this) {
+            case TEXTO:
+                return valor instanceof String ? valor : null;
+            case ENTERO:
+                if (valor instanceof Number) {
+                    return ((Number) valor).intValue();
+                }
+                if (valor instanceof String) {
+                    try {
+                        return Integer.parseInt(((String) valor).trim());
+                    } catch (NumberFormatException e) {
+                        return null;
+                    }
+                }
+                return null;
+            case LARGO:
+                if (valor instanceof Number) {
+                    return ((Number) valor).longValue();
+                }
+                if (valor instanceof String) {
+                    try {
+                        return Long.parseLong(((String) valor).trim());
+                    } catch (NumberFormatException e) {
+                        return null;
+                    }
+                }
+                return null;
+            case DECIMAL:
+                if (valor instanceof Number) {
+                    return ((Number) valor).doubleValue();
+                }
+                if (valor instanceof String) {
+                    try {
+                        return Double.parseDouble(((String) valor).trim());
+                    } catch (NumberFormatException e) {
+                        return null;
+                    }
+                }
+                return null;
+            case BOOLEANO:
+                return valor instanceof Boolean ? valor : null;
+            default:
+                return null;
+        }
+    }
+}
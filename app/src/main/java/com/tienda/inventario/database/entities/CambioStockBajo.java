@@ -0,0 +1,44 @@
+package com.tienda.inventario.database.entities;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+// Registro de cruces del umbral de stock mínimo, en orden. Lo escriben los triggers
+// de ConjuntoStockBajo; seq es AUTOINCREMENT para que nunca se reutilice.
+@Entity(tableName = "stock_bajo_cambios")
+public class CambioStockBajo {
+
+    @PrimaryKey(autoGenerate = true)
+    private long seq;
+
+    @ColumnInfo(name = "id_producto")
+    private int idProducto;
+
+    // true si el producto entró en stock bajo, false si salió
+    private boolean entra;
+
+    public long getSeq() {
+        return seq;
+    }
+
+    public void setSeq(long seq) {
+        this.seq = seq;
+    }
+
+    public int getIdProducto() {
+        return idProducto;
+    }
+
+    public void setIdProducto(int idProducto) {
+        this.idProducto = idProducto;
+    }
+
+    public boolean isEntra() {
+        return entra;
+    }
+
+    public void setEntra(boolean entra) {
+        this.entra = entra;
+    }
+}
@@ -3,9 +3,11 @@ package com.tienda.inventario.database.entities;
 import androidx.room.ColumnInfo;
 import androidx.room.Entity;
 import androidx.room.Ignore;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
-@Entity(tableName = "categorias")
+@Entity(tableName = "categorias",
+        indices = {@Index(value = "doc_id", unique = true)})
 public class Categoria {
 
     @PrimaryKey(autoGenerate = true)
@@ -20,6 +22,10 @@ public class Categoria {
     @ColumnInfo(name = "fecha_creacion")
     private long fechaCreacion;
 
+    // ID del documento de Firestore (clave remota)
+    @ColumnInfo(name = "doc_id")
+    private String docId;
+
     // Constructor vacío
     public Categoria() {
         this.fechaCreacion = System.currentTimeMillis();
@@ -66,6 +72,14 @@ public class Categoria {
         this.fechaCreacion = fechaCreacion;
     }
 
+    public String getDocId() {
+        return docId;
+    }
+
+    public void setDocId(String docId) {
+        this.docId = docId;
+    }
+
     @Override
     public String toString() {
         return nombreCategoria; // Para mostrar en Spinners
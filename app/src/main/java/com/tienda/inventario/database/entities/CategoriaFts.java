@@ -0,0 +1,34 @@
+package com.tienda.inventario.database.entities;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Fts4;
+import androidx.room.FtsOptions;
+
+// Índice de texto completo sobre "categorias" (el rowid es el id_categoria)
+@Fts4(contentEntity = Categoria.class, tokenizer = FtsOptions.TOKENIZER_UNICODE61)
+@Entity(tableName = "categorias_fts")
+public class CategoriaFts {
+
+    @ColumnInfo(name = "nombre_categoria")
+    private String nombreCategoria;
+
+    private String descripcion;
+
+    // Getters y Setters
+    public String getNombreCategoria() {
+        return nombreCategoria;
+    }
+
+    public void setNombreCategoria(String nombreCategoria) {
+        this.nombreCategoria = nombreCategoria;
+    }
+
+    public String getDescripcion() {
+        return descripcion;
+    }
+
+    public void setDescripcion(String descripcion) {
+        this.descripcion = descripcion;
+    }
+}
@@ -0,0 +1,65 @@
+package com.tienda.inventario.database.entities;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+
+// Totales del inventario (productos activos y valor a precio unitario) por ámbito:
+// una fila global y una por categoría y por proveedor. La mantienen los triggers
+// de TotalesInventario; no se escribe desde Java.
+@Entity(tableName = "inventario_totales", primaryKeys = {"ambito", "id_ambito"})
+public class InventarioTotal {
+
+    public static final String GLOBAL = "global";
+    public static final String CATEGORIA = "categoria";
+    public static final String PROVEEDOR = "proveedor";
+
+    @NonNull
+    private String ambito;
+
+    // id_categoria o id_proveedor según el ámbito; 0 en la fila global
+    @ColumnInfo(name = "id_ambito")
+    private int idAmbito;
+
+    private int productos;
+
+    private double valor;
+
+    public InventarioTotal() {
+        this.ambito = GLOBAL;
+    }
+
+    // Getters y Setters
+    @NonNull
+    public String getAmbito() {
+        return ambito;
+    }
+
+    public void setAmbito(@NonNull String ambito) {
+        this.ambito = ambito;
+    }
+
+    public int getIdAmbito() {
+        return idAmbito;
+    }
+
+    public void setIdAmbito(int idAmbito) {
+        this.idAmbito = idAmbito;
+    }
+
+    public int getProductos() {
+        return productos;
+    }
+
+    public void setProductos(int productos) {
+        this.productos = productos;
+    }
+
+    public double getValor() {
+        return valor;
+    }
+
+    public void setValor(double valor) {
+        this.valor = valor;
+    }
+}
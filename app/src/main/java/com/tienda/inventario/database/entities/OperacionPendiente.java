@@ -0,0 +1,142 @@
+package com.tienda.inventario.database.entities;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Ignore;
+import androidx.room.PrimaryKey;
+
+// Cambio local de un producto que todavía no se subió a Firestore.
+// Hay una sola fila por producto: las ediciones repetidas se fusionan y al enviar
+// se sube el estado actual de la fila en Room. Los ajustes de stock sueltos se suben
+// como incremento (AJUSTAR) para no pisar los de otros dispositivos.
+@Entity(tableName = "operaciones_pendientes")
+public class OperacionPendiente {
+
+    public static final String GUARDAR = "guardar";
+    public static final String ELIMINAR = "eliminar";
+    public static final String AJUSTAR = "ajustar";
+
+    @PrimaryKey
+    @NonNull
+    @ColumnInfo(name = "doc_id")
+    private String docId;
+
+    // GUARDAR, ELIMINAR o AJUSTAR (la última operación encolada gana, salvo que un
+    // ajuste no reemplaza a un GUARDAR: este ya sube el stock completo)
+    private String tipo;
+
+    // Aumenta con cada cambio fusionado; al confirmar solo se borra la fila si no cambió
+    // mientras el lote estaba en vuelo
+    private int version;
+
+    private int intentos;
+
+    // Suma de los ajustes de stock sin subir (solo cuenta si tipo es AJUSTAR)
+    @ColumnInfo(name = "delta_stock")
+    private long deltaStock;
+
+    // Envío de ajuste en curso: id con el que Firestore lo reconoce como aplicado y el
+    // delta que lleva. Se fijan antes de enviar y se repiten tal cual en cada reintento
+    // (también tras reiniciar la app) hasta que el envío se confirma.
+    @ColumnInfo(name = "id_envio")
+    private String idEnvio;
+
+    @ColumnInfo(name = "delta_enviado")
+    private long deltaEnviado;
+
+    @ColumnInfo(name = "creada")
+    private long creada;
+
+    // No enviar antes de este momento (espera exponencial tras un error)
+    @ColumnInfo(name = "proximo_intento")
+    private long proximoIntento;
+
+    // Constructor vacío
+    public OperacionPendiente() {
+        this.docId = "";
+    }
+
+    // Constructor con parámetros
+    @Ignore
+    public OperacionPendiente(@NonNull String docId, String tipo, long creada) {
+        this.docId = docId;
+        this.tipo = tipo;
+        this.creada = creada;
+        this.proximoIntento = creada;
+    }
+
+    // Getters y Setters
+    @NonNull
+    public String getDocId() {
+        return docId;
+    }
+
+    public void setDocId(@NonNull String docId) {
+        this.docId = docId;
+    }
+
+    public String getTipo() {
+        return tipo;
+    }
+
+    public void setTipo(String tipo) {
+        this.tipo = tipo;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
+    public int getIntentos() {
+        return intentos;
+    }
+
+    public void setIntentos(int intentos) {
+        this.intentos = intentos;
+    }
+
+    public long getDeltaStock() {
+        return deltaStock;
+    }
+
+    public void setDeltaStock(long deltaStock) {
+        this.deltaStock = deltaStock;
+    }
+
+    public String getIdEnvio() {
+        return idEnvio;
+    }
+
+    public void setIdEnvio(String idEnvio) {
+        this.idEnvio = idEnvio;
+    }
+
+    public long getDeltaEnviado() {
+        return deltaEnviado;
+    }
+
+    public void setDeltaEnviado(long deltaEnviado) {
+        this.deltaEnviado = deltaEnviado;
+    }
+
+    public long getCreada() {
+        return creada;
+    }
+
+    public void setCreada(long creada) {
+        this.creada = creada;
+    }
+
+    public long getProximoIntento() {
+        return proximoIntento;
+    }
+
+    public void setProximoIntento(long proximoIntento) {
+        this.proximoIntento = proximoIntento;
+    }
+}
@@ -3,7 +3,6 @@ package com.tienda.inventario.database.entities;
 import androidx.room.ColumnInfo;
 import androidx.room.Entity;
 import androidx.room.ForeignKey;
-import androidx.room.Ignore;
 import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
@@ -25,7 +24,12 @@ import androidx.room.PrimaryKey;
         indices = {
                 @Index("id_categoria"),
                 @Index("id_proveedor"),
-                @Index("codigo_barras")
+                @Index("codigo_barras"),
+                // Orden de la lista paginada
+                @Index({"activo", "nombre_producto", "id_producto"}),
+                // Precalentado de la caché de escaneo (más recientes primero)
+                @Index({"activo", "ultima_actualizacion"}),
+                @Index(value = "doc_id", unique = true)
         })
 public class Producto {
 
@@ -64,8 +68,8 @@ public class Producto {
 
     private boolean activo;
 
-    // Campo para almacenar el ID del documento de Firestore
-    @Ignore
+    // ID del documento de Firestore (clave remota; null si aún no se subió)
+    @ColumnInfo(name = "doc_id")
     private String docId;
 
     // Constructor vacío (requerido por Room y Firestore)
@@ -0,0 +1,178 @@
+package com.tienda.inventario.database.entities;
+
+import androidx.room.ColumnInfo;
+
+import java.util.Objects;
+
+// Fila de las listas de productos: solo las columnas que se dibujan. No es una tabla;
+// sin fechas ni doc_id y con la descripción recortada, cada fila ocupa menos en el
+// CursorWindow y en memoria. El Producto completo se carga al abrir detalle o edición.
+// Los nombres de categoría y proveedor llegan en la misma consulta (LEFT JOIN por clave
+// primaria), a diferencia de ProductoWithDetails, cuyo @Relation hace consultas aparte.
+public class ProductoFila {
+
+    // Caracteres de descripción que llegan a la lista (dos líneas de texto)
+    public static final int LARGO_DESCRIPCION = 120;
+
+    // Columnas para las consultas de lista (la tabla productos con alias "p")
+    public static final String COLUMNAS = "p.id_producto, p.nombre_producto, " +
+            "substr(p.descripcion, 1, " + LARGO_DESCRIPCION + ") AS descripcion, " +
+            "p.precio_unitario, p.stock_actual, p.stock_minimo, p.codigo_barras, " +
+            "p.id_categoria, p.id_proveedor, c.nombre_categoria, v.nombre_proveedor";
+
+    // Se agrega después de la tabla productos "p" en el FROM. LEFT: un producto cuya
+    // categoría o proveedor aún no llegó de Firestore sigue apareciendo
+    public static final String UNIONES =
+            " LEFT JOIN categorias c ON c.id_categoria = p.id_categoria" +
+            " LEFT JOIN proveedores v ON v.id_proveedor = p.id_proveedor ";
+
+    @ColumnInfo(name = "id_producto")
+    private int idProducto;
+
+    @ColumnInfo(name = "nombre_producto")
+    private String nombreProducto;
+
+    // Recortada a LARGO_DESCRIPCION
+    private String descripcion;
+
+    @ColumnInfo(name = "precio_unitario")
+    private double precioUnitario;
+
+    @ColumnInfo(name = "stock_actual")
+    private int stockActual;
+
+    @ColumnInfo(name = "stock_minimo")
+    private int stockMinimo;
+
+    @ColumnInfo(name = "codigo_barras")
+    private String codigoBarras;
+
+    @ColumnInfo(name = "id_categoria")
+    private int idCategoria;
+
+    @ColumnInfo(name = "id_proveedor")
+    private int idProveedor;
+
+    @ColumnInfo(name = "nombre_categoria")
+    private String nombreCategoria;
+
+    @ColumnInfo(name = "nombre_proveedor")
+    private String nombreProveedor;
+
+    // Getters y Setters
+    public int getIdProducto() {
+        return idProducto;
+    }
+
+    public void setIdProducto(int idProducto) {
+        this.idProducto = idProducto;
+    }
+
+    public String getNombreProducto() {
+        return nombreProducto;
+    }
+
+    public void setNombreProducto(String nombreProducto) {
+        this.nombreProducto = nombreProducto;
+    }
+
+    public String getDescripcion() {
+        return descripcion;
+    }
+
+    public void setDescripcion(String descripcion) {
+        this.descripcion = descripcion;
+    }
+
+    public double getPrecioUnitario() {
+        return precioUnitario;
+    }
+
+    public void setPrecioUnitario(double precioUnitario) {
+        this.precioUnitario = precioUnitario;
+    }
+
+    public int getStockActual() {
+        return stockActual;
+    }
+
+    public void setStockActual(int stockActual) {
+        this.stockActual = stockActual;
+    }
+
+    public int getStockMinimo() {
+        return stockMinimo;
+    }
+
+    public void setStockMinimo(int stockMinimo) {
+        this.stockMinimo = stockMinimo;
+    }
+
+    public String getCodigoBarras() {
+        return codigoBarras;
+    }
+
+    public void setCodigoBarras(String codigoBarras) {
+        this.codigoBarras = codigoBarras;
+    }
+
+    public int getIdCategoria() {
+        return idCategoria;
+    }
+
+    public void setIdCategoria(int idCategoria) {
+        this.idCategoria = idCategoria;
+    }
+
+    public int getIdProveedor() {
+        return idProveedor;
+    }
+
+    public void setIdProveedor(int idProveedor) {
+        this.idProveedor = idProveedor;
+    }
+
+    public String getNombreCategoria() {
+        return nombreCategoria;
+    }
+
+    public void setNombreCategoria(String nombreCategoria) {
+        this.nombreCategoria = nombreCategoria;
+    }
+
+    public String getNombreProveedor() {
+        return nombreProveedor;
+    }
+
+    public void setNombreProveedor(String nombreProveedor) {
+        this.nombreProveedor = nombreProveedor;
+    }
+
+    // Método útil
+    public boolean isBajoStock() {
+        return stockActual <= stockMinimo;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ProductoFila)) return false;
+        ProductoFila otra = (ProductoFila) o;
+        return idProducto == otra.idProducto
+                && Double.compare(precioUnitario, otra.precioUnitario) == 0
+                && stockActual == otra.stockActual
+                && stockMinimo == otra.stockMinimo
+                && idCategoria == otra.idCategoria
+                && idProveedor == otra.idProveedor
+                && Objects.equals(nombreProducto, otra.nombreProducto)
+                && Objects.equals(descripcion, otra.descripcion)
+                && Objects.equals(codigoBarras, otra.codigoBarras)
+                && Objects.equals(nombreCategoria, otra.nombreCategoria)
+                && Objects.equals(nombreProveedor, otra.nombreProveedor);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(idProducto, nombreProducto, precioUnitario, stockActual, stockMinimo);
+    }
+}
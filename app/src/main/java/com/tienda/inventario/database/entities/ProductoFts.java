@@ -0,0 +1,46 @@
+package com.tienda.inventario.database.entities;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Fts4;
+import androidx.room.FtsOptions;
+
+// Índice de texto completo sobre "productos" (contenido externo: Room crea los triggers
+// que lo mantienen al día). El rowid es el id_producto.
+@Fts4(contentEntity = Producto.class, tokenizer = FtsOptions.TOKENIZER_UNICODE61)
+@Entity(tableName = "productos_fts")
+public class ProductoFts {
+
+    @ColumnInfo(name = "nombre_producto")
+    private String nombreProducto;
+
+    private String descripcion;
+
+    @ColumnInfo(name = "codigo_barras")
+    private String codigoBarras;
+
+    // Getters y Setters
+    public String getNombreProducto() {
+        return nombreProducto;
+    }
+
+    public void setNombreProducto(String nombreProducto) {
+        this.nombreProducto = nombreProducto;
+    }
+
+    public String getDescripcion() {
+        return descripcion;
+    }
+
+    public void setDescripcion(String descripcion) {
+        this.descripcion = descripcion;
+    }
+
+    public String getCodigoBarras() {
+        return codigoBarras;
+    }
+
+    public void setCodigoBarras(String codigoBarras) {
+        this.codigoBarras = codigoBarras;
+    }
+}
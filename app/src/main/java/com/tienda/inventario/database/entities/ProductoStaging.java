@@ -0,0 +1,36 @@
+package com.tienda.inventario.database.entities;
+
+import androidx.room.Entity;
+import androidx.room.Ignore;
+import androidx.room.Index;
+
+// Copia de trabajo del catálogo durante un refresco completo. Se llena página a página
+// sin tocar "productos" (sus observadores no se enteran) y luego se intercambia en
+// una sola transacción. Sin claves foráneas: se valida al copiar a "productos".
+@Entity(tableName = "productos_staging",
+        indices = {@Index(value = "doc_id", unique = true)})
+public class ProductoStaging extends Producto {
+
+    // Constructor vacío (requerido por Room)
+    public ProductoStaging() {
+        super();
+    }
+
+    // Copia de un producto descargado
+    @Ignore
+    public ProductoStaging(Producto producto) {
+        super();
+        setNombreProducto(producto.getNombreProducto());
+        setDescripcion(producto.getDescripcion());
+        setPrecioUnitario(producto.getPrecioUnitario());
+        setStockActual(producto.getStockActual());
+        setStockMinimo(producto.getStockMinimo());
+        setIdCategoria(producto.getIdCategoria());
+        setIdProveedor(producto.getIdProveedor());
+        setCodigoBarras(producto.getCodigoBarras());
+        setFechaRegistro(producto.getFechaRegistro());
+        setUltimaActualizacion(producto.getUltimaActualizacion());
+        setActivo(producto.isActivo());
+        setDocId(producto.getDocId());
+    }
+}
@@ -0,0 +1,24 @@
+package com.tienda.inventario.database.entities;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+// Productos activos con stock_actual <= stock_minimo. La mantienen los triggers de
+// ConjuntoStockBajo: la comparación entre dos columnas no la resuelve ningún índice,
+// así que se evalúa una sola vez por cambio en lugar de en cada consulta.
+@Entity(tableName = "productos_stock_bajo")
+public class ProductoStockBajo {
+
+    @PrimaryKey
+    @ColumnInfo(name = "id_producto")
+    private int idProducto;
+
+    public int getIdProducto() {
+        return idProducto;
+    }
+
+    public void setIdProducto(int idProducto) {
+        this.idProducto = idProducto;
+    }
+}
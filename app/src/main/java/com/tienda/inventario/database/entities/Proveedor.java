@@ -3,9 +3,11 @@ package com.tienda.inventario.database.entities;
 import androidx.room.ColumnInfo;
 import androidx.room.Entity;
 import androidx.room.Ignore;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
-@Entity(tableName = "proveedores")
+@Entity(tableName = "proveedores",
+        indices = {@Index(value = "doc_id", unique = true)})
 public class Proveedor {
 
     @PrimaryKey(autoGenerate = true)
@@ -24,6 +26,10 @@ public class Proveedor {
     @ColumnInfo(name = "fecha_registro")
     private long fechaRegistro;
 
+    // ID del documento de Firestore (clave remota)
+    @ColumnInfo(name = "doc_id")
+    private String docId;
+
     // Constructor vacío
     public Proveedor() {
         this.fechaRegistro = System.currentTimeMillis();
@@ -107,6 +113,14 @@ public class Proveedor {
         this.fechaRegistro = fechaRegistro;
     }
 
+    public String getDocId() {
+        return docId;
+    }
+
+    public void setDocId(String docId) {
+        this.docId = docId;
+    }
+
     @Override
     public String toString() {
         return nombreProveedor; // Para mostrar en Spinners
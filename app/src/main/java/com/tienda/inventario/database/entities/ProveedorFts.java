@@ -0,0 +1,44 @@
+package com.tienda.inventario.database.entities;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Fts4;
+import androidx.room.FtsOptions;
+
+// Índice de texto completo sobre "proveedores" (el rowid es el id_proveedor)
+@Fts4(contentEntity = Proveedor.class, tokenizer = FtsOptions.TOKENIZER_UNICODE61)
+@Entity(tableName = "proveedores_fts")
+public class ProveedorFts {
+
+    @ColumnInfo(name = "nombre_proveedor")
+    private String nombreProveedor;
+
+    private String ciudad;
+
+    private String email;
+
+    // Getters y Setters
+    public String getNombreProveedor() {
+        return nombreProveedor;
+    }
+
+    public void setNombreProveedor(String nombreProveedor) {
+        this.nombreProveedor = nombreProveedor;
+    }
+
+    public String getCiudad() {
+        return ciudad;
+    }
+
+    public void setCiudad(String ciudad) {
+        this.ciudad = ciudad;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+    }
+}
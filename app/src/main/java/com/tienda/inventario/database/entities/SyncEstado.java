@@ -0,0 +1,51 @@
+package com.tienda.inventario.database.entities;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Ignore;
+import androidx.room.PrimaryKey;
+
+// Marca de la última sincronización por colección de Firestore.
+// Se guarda en Room para que se confirme en la misma transacción que los datos.
+@Entity(tableName = "sync_estado")
+public class SyncEstado {
+
+    @PrimaryKey
+    @NonNull
+    private String coleccion;
+
+    // Mayor "timestamp" remoto ya aplicado en Room
+    @ColumnInfo(name = "ultima_sync")
+    private long ultimaSync;
+
+    // Constructor vacío
+    public SyncEstado() {
+        this.coleccion = "";
+    }
+
+    // Constructor con parámetros
+    @Ignore
+    public SyncEstado(@NonNull String coleccion, long ultimaSync) {
+        this.coleccion = coleccion;
+        this.ultimaSync = ultimaSync;
+    }
+
+    // Getters y Setters
+    @NonNull
+    public String getColeccion() {
+        return coleccion;
+    }
+
+    public void setColeccion(@NonNull String coleccion) {
+        this.coleccion = coleccion;
+    }
+
+    public long getUltimaSync() {
+        return ultimaSync;
+    }
+
+    public void setUltimaSync(long ultimaSync) {
+        this.ultimaSync = ultimaSync;
+    }
+}
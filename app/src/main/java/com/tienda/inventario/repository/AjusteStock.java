@@ -0,0 +1,44 @@
+package com.tienda.inventario.repository;
+
+// Un escaneo del modo de ajuste por lotes: producto (por código de barras o por ID
+// local) y cuánto sumar a su stock (negativo para restar).
+public final class AjusteStock {
+
+    private final String codigoBarras;
+    private final int idProducto;
+    private final int delta;
+
+    private AjusteStock(String codigoBarras, int idProducto, int delta) {
+        this.codigoBarras = codigoBarras;
+        this.idProducto = idProducto;
+        this.delta = delta;
+    }
+
+    public static AjusteStock porCodigo(String codigoBarras, int delta) {
+        return new AjusteStock(codigoBarras, 0, delta);
+    }
+
+    public static AjusteStock porId(int idProducto, int delta) {
+        return new AjusteStock(null, idProducto, delta);
+    }
+
+    // null si el ajuste es por ID
+    public String getCodigoBarras() {
+        return codigoBarras;
+    }
+
+    // 0 si el ajuste es por código de barras
+    public int getIdProducto() {
+        return idProducto;
+    }
+
+    public int getDelta() {
+        return delta;
+    }
+
+    @Override
+    public String toString() {
+        return "AjusteStock{" + (codigoBarras != null ? "código=" + codigoBarras : "id=" + idProducto)
+                + ", delta=" + delta + "}";
+    }
+}
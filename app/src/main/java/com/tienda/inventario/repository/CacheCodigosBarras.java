@@ -0,0 +1,182 @@
+package com.tienda.inventario.repository;
+
+import android.util.Log;
+import android.util.LruCache;
+
+import com.tienda.inventario.database.AppDatabase;
+import com.tienda.inventario.database.entities.Producto;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+// Código de barras → producto en memoria, para ráfagas de escaneo en caja y recepción.
+// Acotada por LRU. Todas las escrituras de "productos" pasan por ProductoRepository, que
+// al confirmarlas quita solo los productos tocados (ediciones, ajustes, tiempo real) o
+// vacía la caché entera tras una sincronización por lotes. No se usa el tracker de Room:
+// avisa de cualquier cambio sin decir qué filas, y cada escaneo vaciaría la caché.
+// Los productos devueltos son compartidos: no modificarlos.
+public final class CacheCodigosBarras {
+
+    private static final String TAG = "CacheCodigosBarras";
+
+    // Productos en memoria como máximo (también el tope del precalentado)
+    static final int CAPACIDAD = 500;
+
+    private static volatile CacheCodigosBarras INSTANCE;
+
+    private final AppDatabase database;
+    private final LruCache<String, Producto> cache = new LruCache<>(CAPACIDAD);
+
+    // Avanza con cada escritura avisada; una lectura que empezó antes no llega a la caché
+    private final AtomicLong generacion = new AtomicLong();
+
+    private final AtomicLong aciertos = new AtomicLong();
+    private final AtomicLong fallos = new AtomicLong();
+    private final AtomicLong invalidaciones = new AtomicLong();
+    private final AtomicLong quitados = new AtomicLong();
+
+    private CacheCodigosBarras(AppDatabase database) {
+        this.database = database;
+    }
+
+    public static CacheCodigosBarras getInstance(AppDatabase database) {
+        if (INSTANCE == null) {
+            synchronized (CacheCodigosBarras.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new CacheCodigosBarras(database);
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    // Producto activo con ese código, o null. En un fallo consulta el índice de
+    // codigo_barras, así que debe llamarse desde un hilo de fondo.
+    public Producto buscar(String codigo) {
+        Producto producto = enMemoria(codigo);
+        return producto != null ? producto : cargar(codigo);
+    }
+
+    // Solo memoria, sin tocar la base; se puede llamar desde el hilo principal.
+    // Cuenta el acierto o el fallo: tras un fallo, seguir con cargar(), no con buscar().
+    Producto enMemoria(String codigo) {
+        Producto producto = cache.get(codigo);
+        (producto != null ? aciertos : fallos).incrementAndGet();
+        return producto;
+    }
+
+    // Lado de base de un fallo ya contado por enMemoria(): lee el índice de codigo_barras
+    // y guarda el resultado. Debe llamarse desde un hilo de fondo.
+    Producto cargar(String codigo) {
+        long leidaEn = generacion.get();
+        Producto producto = database.productoDao().findByCodigoBarras(codigo);
+        if (producto != null) {
+            guardar(leidaEn, producto);
+        }
+        return producto;
+    }
+
+    // Carga los productos modificados más recientemente (los que más se escanean en
+    // recepción) hasta llenar la caché. Debe llamarse desde un hilo de fondo.
+    public void precalentar() {
+        long inicio = System.nanoTime();
+        long leidaEn = generacion.get();
+        List<Producto> productos = database.productoDao().getConCodigoBarras(CAPACIDAD);
+        for (Producto producto : productos) {
+            guardar(leidaEn, producto);
+        }
+        Log.d(TAG, "Precalentada con " + productos.size() + " productos en "
+                + (System.nanoTime() - inicio) / 1_000_000L + " ms");
+    }
+
+    private void guardar(long leidaEn, Producto producto) {
+        String codigo = producto.getCodigoBarras();
+        if (codigo == null || codigo.isEmpty()) {
+            return;
+        }
+        synchronized (this) {
+            if (generacion.get() == leidaEn) {
+                cache.put(codigo, producto);
+            }
+        }
+    }
+
+    // Tras una escritura confirmada de estos productos (por ID local): los quita y deja
+    // el resto. Un producto nuevo no necesita nada, los fallos no se guardan.
+    void quitarProductos(Collection<Integer> idsProducto) {
+        if (!idsProducto.isEmpty()) {
+            Set<Integer> ids = new HashSet<>(idsProducto);
+            quitar(producto -> ids.contains(producto.getIdProducto()));
+        }
+    }
+
+    // Igual, por docId (cambios que llegan de Firestore)
+    void quitarDocumentos(Collection<String> docIds) {
+        if (!docIds.isEmpty()) {
+            Set<String> ids = new HashSet<>(docIds);
+            quitar(producto -> ids.contains(producto.getDocId()));
+        }
+    }
+
+    private void quitar(Predicate<Producto> tocado) {
+        int cantidad = 0;
+        synchronized (this) {
+            generacion.incrementAndGet();
+            // Se recorre una copia: quitar entradas mientras se itera la LRU no es seguro
+            for (Map.Entry<String, Producto> entrada : cache.snapshot().entrySet()) {
+                if (tocado.test(entrada.getValue())) {
+                    cache.remove(entrada.getKey());
+                    cantidad++;
+                }
+            }
+        }
+        quitados.addAndGet(cantidad);
+    }
+
+    // Tras una sincronización por lotes: no se sabe qué productos cambiaron
+    void invalidar() {
+        synchronized (this) {
+            generacion.incrementAndGet();
+            cache.evictAll();
+        }
+        invalidaciones.incrementAndGet();
+    }
+
+    public long getAciertos() {
+        return aciertos.get();
+    }
+
+    public long getFallos() {
+        return fallos.get();
+    }
+
+    public long getInvalidaciones() {
+        return invalidaciones.get();
+    }
+
+    // Entradas quitadas una a una por escrituras puntuales
+    public long getQuitados() {
+        return quitados.get();
+    }
+
+    // Fracción de búsquedas resueltas en memoria (0 si aún no hubo ninguna)
+    public double getTasaAciertos() {
+        long a = aciertos.get();
+        long total = a + fallos.get();
+        return total > 0 ? (double) a / total : 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT,
+                "CacheCodigosBarras{tamaño=%d/%d, aciertos=%d, fallos=%d, tasa=%.1f%%, invalidaciones=%d, quitados=%d}",
+                cache.size(), CAPACIDAD, getAciertos(), getFallos(), getTasaAciertos() * 100,
+                getInvalidaciones(), getQuitados());
+    }
+}
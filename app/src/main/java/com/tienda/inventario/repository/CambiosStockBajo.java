@@ -0,0 +1,53 @@
+package com.tienda.inventario.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Productos que cruzaron el umbral de stock mínimo entre dos lecturas del registro.
+// Es el cambio neto: un producto que entró y volvió a salir en el intervalo no aparece.
+public class CambiosStockBajo {
+
+    private final List<Integer> entraron = new ArrayList<>();
+    private final List<Integer> salieron = new ArrayList<>();
+
+    // Marca hasta la que se leyó; se pasa como "desde" en la próxima lectura
+    private final long hasta;
+
+    // El registro ya no conserva cruces tan antiguos: hay que releer el conjunto completo
+    private final boolean incompleto;
+
+    public CambiosStockBajo(long hasta, boolean incompleto) {
+        this.hasta = hasta;
+        this.incompleto = incompleto;
+    }
+
+    void agregar(int idProducto, boolean entra) {
+        (entra ? entraron : salieron).add(idProducto);
+    }
+
+    public List<Integer> getEntraron() {
+        return entraron;
+    }
+
+    public List<Integer> getSalieron() {
+        return salieron;
+    }
+
+    public long getHasta() {
+        return hasta;
+    }
+
+    public boolean isIncompleto() {
+        return incompleto;
+    }
+
+    public boolean isVacio() {
+        return entraron.isEmpty() && salieron.isEmpty() && !incompleto;
+    }
+
+    @Override
+    public String toString() {
+        return "CambiosStockBajo{entraron=" + entraron.size() + ", salieron=" + salieron.size()
+                + ", hasta=" + hasta + (incompleto ? ", incompleto" : "") + "}";
+    }
+}
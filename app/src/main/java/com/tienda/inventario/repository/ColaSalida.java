@@ -0,0 +1,313 @@
+package com.tienda.inventario.repository;
+
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.Network;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import androidx.lifecycle.LiveData;
+
+import com.tienda.inventario.database.AppDatabase;
+import com.tienda.inventario.database.FirestoreManager;
+import com.tienda.inventario.database.dao.OperacionPendienteDao;
+import com.tienda.inventario.database.dao.ProductoDao;
+import com.tienda.inventario.database.entities.OperacionPendiente;
+import com.tienda.inventario.database.entities.Producto;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Sube a Firestore los cambios locales encolados en operaciones_pendientes.
+// Envía lotes (una transacción) de hasta 500 escrituras, uno a la vez; si un lote falla
+// se reintenta con espera exponencial. Sin red no se envía. Cada ajuste de stock sale
+// con un id de envío guardado antes en la fila: reenviarlo tras un error, un lote
+// vencido o un reinicio no lo suma dos veces. Si un lote tarda más de ESPERA_ENVIO_MS
+// la cola sigue sin él (sus operaciones esperan su respuesta antes de reenviarse).
+// Todo el estado vive en un único hilo; las escrituras en la base van por el hilo
+// escritor y al terminar vuelven a este.
+public class ColaSalida {
+
+    private static final String TAG = "ColaSalida";
+
+    private static final long ESPERA_INICIAL_MS = 2_000;
+    private static final long ESPERA_MAXIMA_MS = 5 * 60_000;
+    // Tiempo sin respuesta tras el cual el lote deja de bloquear la cola
+    private static final long ESPERA_ENVIO_MS = 30_000;
+
+    private static volatile ColaSalida INSTANCE;
+
+    private final AppDatabase database;
+    private final OperacionPendienteDao operacionDao;
+    private final ProductoDao productoDao;
+    private final FirestoreManager firestoreManager;
+    private final ScheduledExecutorService planificador = Executors.newSingleThreadScheduledExecutor();
+
+    // Solo se tocan en el hilo del planificador
+    private boolean enviando;
+    private boolean conectado;
+    private ScheduledFuture<?> reintento;
+    // docIds de lotes vencidos que Firestore todavía puede confirmar
+    private final Set<String> enVuelo = new HashSet<>();
+
+    // Un envío en curso (solo en el hilo del planificador)
+    private static final class Lote {
+        final Set<String> docIds = new HashSet<>();
+        ScheduledFuture<?> limite;
+        // Pasó ESPERA_ENVIO_MS sin respuesta: la cola ya siguió sin él
+        boolean vencido;
+    }
+
+    private ColaSalida(Context context) {
+        database = AppDatabase.getDatabase(context);
+        operacionDao = database.operacionPendienteDao();
+        productoDao = database.productoDao();
+        firestoreManager = FirestoreManager.getInstance();
+        // Al registrarse avisa enseguida si ya hay red
+        ConnectivityManager red = context.getSystemService(ConnectivityManager.class);
+        red.registerDefaultNetworkCallback(new ConnectivityManager.NetworkCallback() {
+            @Override
+            public void onAvailable(@NonNull Network network) {
+                planificador.execute(() -> {
+                    conectado = true;
+                    enviar();
+                });
+            }
+
+            @Override
+            public void onLost(@NonNull Network network) {
+                planificador.execute(() -> conectado = false);
+            }
+        });
+    }
+
+    public static ColaSalida getInstance(Context context) {
+        if (INSTANCE == null) {
+            synchronized (ColaSalida.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new ColaSalida(context);
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    // Cantidad de cambios locales todavía sin subir
+    public LiveData<Integer> contarPendientes() {
+        return operacionDao.contarPendientes();
+    }
+
+    // Pide un envío; si ya hay un lote en vuelo se encadena al terminar
+    public void programarEnvio() {
+        planificador.execute(this::enviar);
+    }
+
+    private void enviar() {
+        if (enviando || !conectado) {
+            // Sin red, lo retoma onAvailable
+            return;
+        }
+        long ahora = System.currentTimeMillis();
+        List<OperacionPendiente> operaciones =
+                operacionDao.getListas(ahora, FirestoreManager.MAX_OPERACIONES_LOTE);
+        if (operaciones.isEmpty()) {
+            programarReintento(ahora);
+            return;
+        }
+
+        // Los ajustes sin envío fijado reciben su id antes de salir
+        List<String> porFijar = new ArrayList<>();
+        for (OperacionPendiente operacion : operaciones) {
+            if (OperacionPendiente.AJUSTAR.equals(operacion.getTipo())
+                    && operacion.getIdEnvio() == null && operacion.getDeltaStock() != 0
+                    && !enVuelo.contains(operacion.getDocId())) {
+                porFijar.add(operacion.getDocId());
+            }
+        }
+        if (!porFijar.isEmpty()) {
+            enviando = true;
+            escribir(() -> {
+                for (String docId : porFijar) {
+                    operacionDao.fijarEnvio(docId, UUID.randomUUID().toString());
+                }
+            }, new Lote(), this::enviar);
+            return;
+        }
+
+        // Se sube el estado actual de cada producto, no el de cada edición; los ajustes
+        // de stock, como el envío fijado en su fila
+        List<OperacionPendiente> enLote = new ArrayList<>(operaciones.size());
+        List<OperacionPendiente> sinEnvio = new ArrayList<>();
+        List<Producto> guardar = new ArrayList<>();
+        Map<String, FirestoreManager.EnvioAjuste> ajustar = new LinkedHashMap<>();
+        List<String> eliminar = new ArrayList<>();
+        for (OperacionPendiente operacion : operaciones) {
+            if (enVuelo.contains(operacion.getDocId())) {
+                // Va en un lote vencido; se retoma cuando Firestore lo resuelva
+                continue;
+            }
+            boolean esAjuste = OperacionPendiente.AJUSTAR.equals(operacion.getTipo());
+            if (esAjuste && operacion.getIdEnvio() == null) {
+                // Los ajustes se anularon entre sí
+                sinEnvio.add(operacion);
+                continue;
+            }
+            if (FirestoreManager.escrituras(guardar.size(), ajustar.size() + (esAjuste ? 1 : 0),
+                    eliminar.size() + (esAjuste ? 0 : 1)) > FirestoreManager.MAX_OPERACIONES_LOTE) {
+                // No entra en este lote; sale en el siguiente
+                break;
+            }
+            if (OperacionPendiente.ELIMINAR.equals(operacion.getTipo())) {
+                eliminar.add(operacion.getDocId());
+            } else if (esAjuste) {
+                ajustar.put(operacion.getDocId(), new FirestoreManager.EnvioAjuste(
+                        operacion.getIdEnvio(), operacion.getDeltaEnviado()));
+            } else {
+                Producto producto = productoDao.getByDocId(operacion.getDocId());
+                if (producto == null) {
+                    // Lo borró la sincronización: no queda nada que subir
+                    sinEnvio.add(operacion);
+                    continue;
+                }
+                guardar.add(producto);
+            }
+            enLote.add(operacion);
+        }
+        if (enLote.isEmpty() && sinEnvio.isEmpty()) {
+            // Todo lo listo va en lotes vencidos; al resolverse vuelven a llamar a enviar()
+            return;
+        }
+        enviando = true;
+        Lote lote = new Lote();
+        if (enLote.isEmpty()) {
+            // Solo había operaciones que no hace falta subir
+            escribir(() -> confirmar(sinEnvio), lote, this::enviar);
+            return;
+        }
+        for (OperacionPendiente operacion : enLote) {
+            lote.docIds.add(operacion.getDocId());
+        }
+        lote.limite = planificador.schedule(() -> vencer(lote, enLote.size()),
+                ESPERA_ENVIO_MS, TimeUnit.MILLISECONDS);
+
+        firestoreManager.enviarLote(guardar, ajustar, eliminar, new FirestoreManager.OnLoteListener() {
+            @Override
+            public void onSuccess(List<String> ajustesSinDocumento) {
+                if (!ajustesSinDocumento.isEmpty()) {
+                    // El producto se borró en el servidor: el ajuste ya no tiene a qué
+                    // aplicarse y se descarta con el resto del lote
+                    Log.w(TAG, ajustesSinDocumento.size() + " ajustes de stock descartados, el producto ya no existe: "
+                            + ajustesSinDocumento);
+                }
+                escribir(() -> {
+                    confirmar(sinEnvio);
+                    confirmar(enLote);
+                }, lote, () -> {
+                    // Puede haber más operaciones esperando
+                    enviar();
+                });
+            }
+
+            @Override
+            public void onError(String error) {
+                int intentos = 0;
+                List<String> docIds = new ArrayList<>(enLote.size());
+                for (OperacionPendiente operacion : enLote) {
+                    intentos = Math.max(intentos, operacion.getIntentos() + 1);
+                    docIds.add(operacion.getDocId());
+                }
+                long espera = calcularEspera(intentos);
+                Log.w(TAG, "Lote de " + enLote.size() + " operaciones rechazado (intento " + intentos
+                        + "), reintento en " + espera + " ms: " + error);
+                escribir(() -> {
+                    confirmar(sinEnvio);
+                    operacionDao.registrarFallo(docIds, System.currentTimeMillis() + espera);
+                }, lote, () -> programarReintento(System.currentTimeMillis()));
+            }
+        });
+    }
+
+    // El lote no respondió a tiempo (red caída a mitad del envío): Firestore todavía
+    // puede confirmarlo o rechazarlo. Sus operaciones esperan esa respuesta para no
+    // subirse dos veces a la par (un ajuste repetido no se sumaría, pero sí competiría
+    // con el original); el resto de la cola sigue.
+    private void vencer(Lote lote, int operaciones) {
+        lote.vencido = true;
+        enVuelo.addAll(lote.docIds);
+        enviando = false;
+        Log.w(TAG, "Lote de " + operaciones + " operaciones sin respuesta en " + ESPERA_ENVIO_MS
+                + " ms; la cola sigue sin él");
+        enviar();
+    }
+
+    // Fin de un lote, con o sin respuesta a tiempo
+    private void terminar(Lote lote) {
+        if (lote.limite != null) {
+            lote.limite.cancel(false);
+        }
+        if (lote.vencido) {
+            enVuelo.removeAll(lote.docIds);
+        } else {
+            enviando = false;
+        }
+    }
+
+    // Confirma las operaciones dadas; los ajustes descuentan solo el delta de su envío
+    private void confirmar(List<OperacionPendiente> operaciones) {
+        for (OperacionPendiente operacion : operaciones) {
+            if (OperacionPendiente.AJUSTAR.equals(operacion.getTipo()) && operacion.getIdEnvio() != null) {
+                operacionDao.confirmarAjuste(operacion.getDocId(), operacion.getVersion(),
+                        operacion.getIdEnvio());
+            } else {
+                operacionDao.confirmar(operacion.getDocId(), operacion.getVersion());
+            }
+        }
+    }
+
+    // Corre el cambio en una transacción del hilo escritor (carril de fondo) y sigue en
+    // el planificador. Si la escritura falla, las operaciones quedan como estaban y se
+    // vuelven a leer en el próximo intento.
+    private void escribir(Runnable cambio, Lote lote, Runnable despues) {
+        database.escritor().ejecutar(() -> database.runInTransaction(cambio))
+                .whenCompleteAsync((sinValor, error) -> {
+                    terminar(lote);
+                    if (error != null) {
+                        Log.e(TAG, "No se pudo actualizar la cola de salida", error);
+                        programarReintento(System.currentTimeMillis());
+                        return;
+                    }
+                    despues.run();
+                }, planificador);
+    }
+
+    // Agenda el próximo envío para cuando venza la operación en espera más próxima
+    private void programarReintento(long ahora) {
+        Long proximo = operacionDao.getProximoIntento();
+        if (reintento != null) {
+            reintento.cancel(false);
+            reintento = null;
+        }
+        if (proximo != null) {
+            reintento = planificador.schedule(this::enviar,
+                    Math.max(0, proximo - ahora), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // Espera exponencial con variación aleatoria para no reintentar todos a la vez
+    private static long calcularEspera(int intentos) {
+        long base = ESPERA_INICIAL_MS << Math.min(intentos - 1, 16);
+        long espera = Math.min(base, ESPERA_MAXIMA_MS);
+        return espera / 2 + ThreadLocalRandom.current().nextLong(espera / 2 + 1);
+    }
+}
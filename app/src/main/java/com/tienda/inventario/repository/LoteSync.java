@@ -0,0 +1,65 @@
+package com.tienda.inventario.repository;
+
+import com.tienda.inventario.database.entities.Categoria;
+import com.tienda.inventario.database.entities.Producto;
+import com.tienda.inventario.database.entities.Proveedor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Datos descargados de Firestore que se escriben juntos en Room
+public class LoteSync {
+
+    private List<Categoria> categorias = new ArrayList<>();
+    private List<Proveedor> proveedores = new ArrayList<>();
+    private List<Producto> productos = new ArrayList<>();
+
+    // Marca de sincronización de productos (0 = no actualizarla)
+    private long marcaProductos;
+
+    // Constructor vacío
+    public LoteSync() {
+    }
+
+    // Total de filas del lote
+    public int size() {
+        return categorias.size() + proveedores.size() + productos.size();
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    // Getters y Setters
+    public List<Categoria> getCategorias() {
+        return categorias;
+    }
+
+    public void setCategorias(List<Categoria> categorias) {
+        this.categorias = categorias != null ? categorias : new ArrayList<>();
+    }
+
+    public List<Proveedor> getProveedores() {
+        return proveedores;
+    }
+
+    public void setProveedores(List<Proveedor> proveedores) {
+        this.proveedores = proveedores != null ? proveedores : new ArrayList<>();
+    }
+
+    public List<Producto> getProductos() {
+        return productos;
+    }
+
+    public void setProductos(List<Producto> productos) {
+        this.productos = productos != null ? productos : new ArrayList<>();
+    }
+
+    public long getMarcaProductos() {
+        return marcaProductos;
+    }
+
+    public void setMarcaProductos(long marcaProductos) {
+        this.marcaProductos = marcaProductos;
+    }
+}
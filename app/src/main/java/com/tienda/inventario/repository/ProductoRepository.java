@@ -5,23 +5,86 @@ public class ProductoRepository {
 */
 
 import android.app.Application;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
 
 import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MediatorLiveData;
+import androidx.paging.Pager;
+import androidx.paging.PagingConfig;
+import androidx.paging.PagingData;
+import androidx.paging.PagingLiveData;
 
 import com.tienda.inventario.database.AppDatabase;
+import com.tienda.inventario.database.Carril;
+import com.tienda.inventario.database.FirestoreManager;
+import com.tienda.inventario.database.dao.CategoriaDao;
+import com.tienda.inventario.database.dao.InventarioTotalDao;
+import com.tienda.inventario.database.dao.OperacionPendienteDao;
 import com.tienda.inventario.database.dao.ProductoDao;
+import com.tienda.inventario.database.dao.ProductoStagingDao;
+import com.tienda.inventario.database.dao.ProvedoorDao;
+import com.tienda.inventario.database.dao.StockBajoDao;
+import com.tienda.inventario.database.dao.SyncEstadoDao;
+import com.tienda.inventario.database.entities.CambioStockBajo;
+import com.tienda.inventario.database.entities.InventarioTotal;
+import com.tienda.inventario.database.entities.OperacionPendiente;
 import com.tienda.inventario.database.entities.Producto;
+import com.tienda.inventario.database.entities.ProductoFila;
+import com.tienda.inventario.database.entities.ProductoStaging;
+import com.tienda.inventario.database.entities.SyncEstado;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 public class ProductoRepository {
 
+    private static final String TAG = "ProductoRepository";
+    private static final int MAX_PARAMETROS_SQL = 500;
+
+    // Lista paginada: a lo sumo TAMANO_MAXIMO_LISTA productos en memoria a la vez
+    private static final int TAMANO_PAGINA = 50;
+    private static final int TAMANO_MAXIMO_LISTA = 6 * TAMANO_PAGINA;
+
+    private AppDatabase database;
     private ProductoDao productoDao;
+    private CategoriaDao categoriaDao;
+    private ProvedoorDao proveedorDao;
+    private SyncEstadoDao syncEstadoDao;
+    private OperacionPendienteDao operacionPendienteDao;
+    private ProductoStagingDao productoStagingDao;
+    private InventarioTotalDao inventarioTotalDao;
+    private StockBajoDao stockBajoDao;
     private LiveData<List<Producto>> allProductos;
 
+    // Sube los cambios locales a Firestore (null en repositorios de solo sincronización)
+    private ColaSalida colaSalida;
+
     public ProductoRepository(Application application) {
-        AppDatabase database = AppDatabase.getDatabase(application);
+        this(AppDatabase.getDatabase(application));
+        colaSalida = ColaSalida.getInstance(application);
+    }
+
+    public ProductoRepository(AppDatabase database) {
+        this.database = database;
         productoDao = database.productoDao();
+        categoriaDao = database.categoriaDao();
+        proveedorDao = database.proveedorDao();
+        syncEstadoDao = database.syncEstadoDao();
+        operacionPendienteDao = database.operacionPendienteDao();
+        productoStagingDao = database.productoStagingDao();
+        inventarioTotalDao = database.inventarioTotalDao();
+        stockBajoDao = database.stockBajoDao();
         allProductos = productoDao.getAllProductos();
     }
 
@@ -30,13 +93,87 @@ public class ProductoRepository {
         return allProductos;
     }
 
-    // Obtener productos con stock bajo
-    public LiveData<List<Producto>> getProductosStockBajo() {
-        return productoDao.getProductosStockBajo();
+    // Productos activos paginados por nombre; las páginas lejanas se descartan
+    public LiveData<PagingData<ProductoFila>> getProductosPaginados() {
+        Pager<ProductosPagingSource.Clave, ProductoFila> pager = new Pager<>(
+                new PagingConfig(TAMANO_PAGINA, TAMANO_PAGINA, false,
+                        2 * TAMANO_PAGINA, TAMANO_MAXIMO_LISTA),
+                () -> new ProductosPagingSource(database));
+        return PagingLiveData.getLiveData(pager);
+    }
+
+    // Obtener productos con stock bajo (conjunto mantenido por triggers)
+    public LiveData<List<ProductoFila>> getProductosStockBajo() {
+        return stockBajoDao.getProductos();
+    }
+
+    // Emite solo los productos que cruzaron el umbral desde la emisión anterior.
+    // Se activa con el registro de cruces, no con cada cambio de productos; la
+    // primera lectura solo fija el punto de partida. Cada emisión cubre un tramo
+    // distinto, así que los tramos se calculan de a uno y en orden (encadenados sobre
+    // el carril de fondo) y se entregan con setValue en el hilo principal: postValue
+    // descartaría un tramo si llegara otro antes de entregarlo.
+    public LiveData<CambiosStockBajo> observarCambiosStockBajo() {
+        MediatorLiveData<CambiosStockBajo> cambios = new MediatorLiveData<>();
+        Handler principal = new Handler(Looper.getMainLooper());
+        long[] leidoHasta = {-1};
+        CompletableFuture<?>[] anterior = {CompletableFuture.completedFuture(null)};
+        cambios.addSource(stockBajoDao.getUltimoCambio(), ultimo -> {
+            long hasta = ultimo != null ? ultimo : 0;
+            long desde = leidoHasta[0];
+            leidoHasta[0] = hasta;
+            if (desde < 0 || hasta == desde) {
+                return;
+            }
+            anterior[0] = anterior[0].thenRunAsync(() -> {
+                try {
+                    CambiosStockBajo resultado = getCambiosStockBajo(desde, hasta);
+                    if (!resultado.isVacio()) {
+                        principal.post(() -> cambios.setValue(resultado));
+                    }
+                } catch (RuntimeException e) {
+                    // Un tramo fallido no corta la cadena de los siguientes
+                    Log.e(TAG, "Error al leer cruces de stock bajo (" + desde + ", " + hasta + "]", e);
+                }
+            }, AppDatabase.lecturas.executor(Carril.FONDO));
+        });
+        return cambios;
+    }
+
+    // Cruces netos en (desde, hasta]. Debe llamarse desde un hilo de fondo.
+    public CambiosStockBajo getCambiosStockBajo(long desde, long hasta) {
+        return database.runInTransaction(() -> {
+            long primero = stockBajoDao.getPrimerCambio();
+            // Si el registro se recreó o se podó más allá de "desde" falta historia
+            boolean incompleto = hasta < desde || (primero > 0 && primero > desde + 1);
+            CambiosStockBajo resultado = new CambiosStockBajo(hasta, incompleto);
+            if (incompleto) {
+                return resultado;
+            }
+
+            // Por producto: el primer cruce invierte el estado previo y el último deja el
+            // actual; si coinciden en sentido, el producto cambió de lado en el intervalo
+            Map<Integer, boolean[]> extremos = new LinkedHashMap<>();
+            for (CambioStockBajo cambio : stockBajoDao.getCambios(desde, hasta)) {
+                boolean[] primeroYUltimo = extremos.get(cambio.getIdProducto());
+                if (primeroYUltimo == null) {
+                    extremos.put(cambio.getIdProducto(), new boolean[]{cambio.isEntra(), cambio.isEntra()});
+                } else {
+                    primeroYUltimo[1] = cambio.isEntra();
+                }
+            }
+            for (Map.Entry<Integer, boolean[]> entrada : extremos.entrySet()) {
+                boolean[] primeroYUltimo = entrada.getValue();
+                if (primeroYUltimo[0] == primeroYUltimo[1]) {
+                    resultado.agregar(entrada.getKey(), primeroYUltimo[1]);
+                }
+            }
+            return resultado;
+        });
     }
 
     // Buscar productos por nombre
-    public LiveData<List<Producto>> searchByName(String nombre) {
+    public LiveData<List<ProductoFila>> searchByName(String nombre) {
         return productoDao.searchByName(nombre);
     }
 
@@ -45,42 +182,378 @@ public class ProductoRepository {
         return productoDao.getProductoById(id);
     }
 
-    // Insertar producto
-    public void insert(Producto producto) {
-        AppDatabase.databaseWriteExecutor.execute(() -> {
-            productoDao.insert(producto);
+    // Cargar el producto completo (las listas solo traen ProductoFila); el
+    // resultado, null si ya no existe, se entrega en el hilo principal
+    public void cargarProducto(int id, Consumer<Producto> alCargar) {
+        AppDatabase.lecturas.ejecutar(Carril.INTERACTIVO, () -> {
+            Producto producto = productoDao.getById(id);
+            new Handler(Looper.getMainLooper()).post(() -> alCargar.accept(producto));
         });
     }
 
-    // Actualizar producto
-    public void update(Producto producto) {
-        AppDatabase.databaseWriteExecutor.execute(() -> {
-            producto.setUltimaActualizacion(System.currentTimeMillis());
-            productoDao.update(producto);
+    // Producto activo con ese código de barras, o null. Llamar desde el hilo principal:
+    // si está en la caché responde ahí mismo; si no, lee en el carril interactivo y
+    // entrega el resultado en el hilo principal.
+    public void buscarPorCodigoBarras(String codigo, Consumer<Producto> alEncontrar) {
+        CacheCodigosBarras cache = CacheCodigosBarras.getInstance(database);
+        Producto enMemoria = cache.enMemoria(codigo);
+        if (enMemoria != null) {
+            alEncontrar.accept(enMemoria);
+            return;
+        }
+        AppDatabase.lecturas.ejecutar(Carril.INTERACTIVO, () -> {
+            // El fallo ya quedó contado arriba
+            Producto producto = cache.cargar(codigo);
+            new Handler(Looper.getMainLooper()).post(() -> alEncontrar.accept(producto));
         });
     }
 
-    // Eliminar producto (soft delete)
-    public void delete(int idProducto) {
-        AppDatabase.databaseWriteExecutor.execute(() -> {
-            productoDao.softDelete(idProducto);
-        });
+    // Carga en la caché de escaneo los productos más recientes
+    public void precalentarCodigosBarras() {
+        AppDatabase.lecturas.ejecutar(Carril.FONDO,
+                () -> CacheCodigosBarras.getInstance(database).precalentar());
+    }
+
+    // Aciertos, fallos e invalidaciones de la caché de escaneo
+    public CacheCodigosBarras getCacheCodigosBarras() {
+        return CacheCodigosBarras.getInstance(database);
+    }
+
+    // Insertar producto
+    public CompletableFuture<Void> insert(Producto producto) {
+        return guardar(producto);
+    }
+
+    // Actualizar producto
+    public CompletableFuture<Void> update(Producto producto) {
+        return guardar(producto);
+    }
+
+    // Guardar producto (alta si no tiene ID local, edición si lo tiene).
+    // Se escribe en Room enseguida y el envío a Firestore queda en la cola de salida.
+    // Cada mutación va entera en la transacción del lote del escritor; el futuro se
+    // completa al confirmarse.
+    public CompletableFuture<Void> guardar(Producto producto) {
+        // Un alta no está en la caché de escaneo (los fallos no se guardan)
+        List<Integer> tocados = producto.getIdProducto() != 0
+                ? Collections.singletonList(producto.getIdProducto()) : Collections.emptyList();
+        return conAviso(quitarDeCache(tocados, database.escritor().escribir(() -> {
+            if (producto.getDocId() == null) {
+                producto.setDocId(FirestoreManager.getInstance().nuevoIdProducto());
+            }
+            long ahora = System.currentTimeMillis();
+            producto.setUltimaActualizacion(ahora);
+            if (producto.getIdProducto() == 0) {
+                productoDao.insert(producto);
+            } else {
+                productoDao.update(producto);
+            }
+            operacionPendienteDao.encolar(producto.getDocId(), OperacionPendiente.GUARDAR, ahora);
+        })));
+    }
+
+    // Eliminar producto (soft delete local; en Firestore se borra el documento)
+    public CompletableFuture<Void> delete(int idProducto) {
+        return conAviso(quitarDeCache(Collections.singletonList(idProducto),
+                database.escritor().escribir(() -> {
+                    productoDao.softDelete(idProducto);
+                    encolarSiTieneDocId(idProducto, OperacionPendiente.ELIMINAR);
+                })));
     }
 
     // Actualizar stock
-    public void updateStock(int idProducto, int nuevoStock) {
-        AppDatabase.databaseWriteExecutor.execute(() -> {
-            productoDao.updateStock(idProducto, nuevoStock, System.currentTimeMillis());
+    public CompletableFuture<Void> updateStock(int idProducto, int nuevoStock) {
+        return conAviso(quitarDeCache(Collections.singletonList(idProducto),
+                database.escritor().escribir(() -> {
+                    productoDao.updateStock(idProducto, nuevoStock, System.currentTimeMillis());
+                    encolarSiTieneDocId(idProducto, OperacionPendiente.GUARDAR);
+                })));
+    }
+
+    // Ajuste de stock por lotes (recepción o salida escaneando): los escaneos del mismo
+    // producto se suman en memoria y cada total se aplica con un UPDATE relativo, todo en
+    // una transacción. A Firestore sube como incremento por la cola de salida.
+    // Un resultado por producto, en el orden del primer escaneo.
+    public CompletableFuture<List<ResultadoAjuste>> ajustarStock(List<AjusteStock> ajustes) {
+        List<AjusteStock> copia = new ArrayList<>(ajustes);
+        // Se llena en el hilo escritor; se lee cuando la escritura ya se confirmó
+        List<Integer> tocados = new ArrayList<>();
+        return conAviso(quitarDeCache(tocados,
+                database.escritor().escribir(() -> aplicarAjustes(copia, tocados))));
+    }
+
+    // Escaneos sumados de un producto
+    private static class Acumulado {
+        String codigoBarras;
+        int delta;
+        int escaneos;
+
+        void sumar(AjusteStock ajuste) {
+            if (codigoBarras == null) {
+                codigoBarras = ajuste.getCodigoBarras();
+            }
+            delta += ajuste.getDelta();
+            escaneos++;
+        }
+    }
+
+    private List<ResultadoAjuste> aplicarAjustes(List<AjusteStock> ajustes, List<Integer> tocados) {
+        long inicio = SystemClock.elapsedRealtime();
+        long ahora = System.currentTimeMillis();
+
+        // Los códigos se resuelven a ID: un producto escaneado por código y por ID suma una vez
+        Map<String, Integer> idsPorCodigo = new HashMap<>();
+        Map<Integer, Acumulado> porProducto = new LinkedHashMap<>();
+        Map<String, Acumulado> desconocidos = new LinkedHashMap<>();
+        for (AjusteStock ajuste : ajustes) {
+            int idProducto = ajuste.getIdProducto();
+            String codigo = ajuste.getCodigoBarras();
+            if (codigo != null) {
+                if (!idsPorCodigo.containsKey(codigo)) {
+                    idsPorCodigo.put(codigo, productoDao.getIdPorCodigoBarras(codigo));
+                }
+                Integer id = idsPorCodigo.get(codigo);
+                if (id == null) {
+                    Acumulado acumulado = desconocidos.get(codigo);
+                    if (acumulado == null) {
+                        acumulado = new Acumulado();
+                        desconocidos.put(codigo, acumulado);
+                    }
+                    acumulado.sumar(ajuste);
+                    continue;
+                }
+                idProducto = id;
+            }
+            Acumulado acumulado = porProducto.get(idProducto);
+            if (acumulado == null) {
+                acumulado = new Acumulado();
+                porProducto.put(idProducto, acumulado);
+            }
+            acumulado.sumar(ajuste);
+        }
+
+        List<ResultadoAjuste> resultados = new ArrayList<>(porProducto.size() + desconocidos.size());
+        int aplicados = 0;
+        for (Map.Entry<Integer, Acumulado> entrada : porProducto.entrySet()) {
+            int idProducto = entrada.getKey();
+            Acumulado acumulado = entrada.getValue();
+            boolean aplicado = acumulado.delta != 0
+                    && productoDao.sumarStock(idProducto, acumulado.delta, ahora) == 1;
+            if (aplicado) {
+                String docId = productoDao.getDocIdById(idProducto);
+                if (docId != null) {
+                    operacionPendienteDao.encolarAjuste(docId, acumulado.delta, ahora);
+                }
+                tocados.add(idProducto);
+                aplicados++;
+            }
+            Integer stock = productoDao.getStockActivo(idProducto);
+            ResultadoAjuste.Estado estado;
+            if (aplicado) {
+                estado = ResultadoAjuste.Estado.APLICADO;
+            } else if (stock == null) {
+                estado = ResultadoAjuste.Estado.NO_ENCONTRADO;
+            } else if (acumulado.delta == 0) {
+                estado = ResultadoAjuste.Estado.SIN_CAMBIO;
+            } else {
+                estado = ResultadoAjuste.Estado.STOCK_INSUFICIENTE;
+            }
+            resultados.add(new ResultadoAjuste(acumulado.codigoBarras, idProducto, acumulado.delta,
+                    acumulado.escaneos, estado, stock != null ? stock : -1));
+        }
+        for (Map.Entry<String, Acumulado> entrada : desconocidos.entrySet()) {
+            Acumulado acumulado = entrada.getValue();
+            resultados.add(new ResultadoAjuste(entrada.getKey(), 0, acumulado.delta,
+                    acumulado.escaneos, ResultadoAjuste.Estado.NO_ENCONTRADO, -1));
+        }
+
+        Log.d(TAG, "Ajuste de stock: " + ajustes.size() + " escaneos, " + porProducto.size()
+                + " productos, " + aplicados + " aplicados en "
+                + (SystemClock.elapsedRealtime() - inicio) + " ms");
+        return resultados;
+    }
+
+    // Quita de la caché de escaneo los productos escritos, ya confirmada la escritura. El
+    // futuro devuelto se completa después: un escaneo inmediato no ve el dato anterior.
+    private <T> CompletableFuture<T> quitarDeCache(List<Integer> idsProducto,
+                                                   CompletableFuture<T> escritura) {
+        return escritura.thenApply(valor -> {
+            CacheCodigosBarras.getInstance(database).quitarProductos(idsProducto);
+            return valor;
         });
     }
 
-    // Obtener conteo de productos
+    // La cola de salida se avisa una vez confirmada la escritura local
+    private <T> CompletableFuture<T> conAviso(CompletableFuture<T> escritura) {
+        escritura.thenRun(this::avisarColaSalida);
+        return escritura;
+    }
+
+    private void encolarSiTieneDocId(int idProducto, String tipo) {
+        String docId = productoDao.getDocIdById(idProducto);
+        if (docId != null) {
+            operacionPendienteDao.encolar(docId, tipo, System.currentTimeMillis());
+        }
+    }
+
+    private void avisarColaSalida() {
+        if (colaSalida != null) {
+            colaSalida.programarEnvio();
+        }
+    }
+
+    // Obtener conteo de productos (fila global de inventario_totales)
     public LiveData<Integer> countProductosActivos() {
-        return productoDao.countProductosActivos();
+        return inventarioTotalDao.getProductosActivos();
     }
 
     // Obtener valor total del inventario
     public LiveData<Double> getValorTotalInventario() {
-        return productoDao.getValorTotalInventario();
+        return inventarioTotalDao.getValorTotal();
+    }
+
+    // Totales por categoría y por proveedor
+    public LiveData<List<InventarioTotal>> getTotalesPorCategoria() {
+        return inventarioTotalDao.getPorCategoria();
+    }
+
+    public LiveData<List<InventarioTotal>> getTotalesPorProveedor() {
+        return inventarioTotalDao.getPorProveedor();
+    }
+
+    // Aplicar una ráfaga de cambios en tiempo real en una sola transacción
+    // (debe llamarse desde un hilo de fondo). La marca solo avanza si ya hay una: sin
+    // ella la próxima sincronización debe ser completa. Con marca 0 no se toca.
+    public void aplicarCambios(List<Producto> modificados, List<String> eliminados, long marca) {
+        database.runInTransaction(() -> {
+            // Los productos con cambios locales sin subir conservan la versión local
+            Set<String> pendientes = new HashSet<>(operacionPendienteDao.getDocIdsPendientes());
+            List<Producto> aplicables = sinPendientes(modificados, pendientes);
+            if (!aplicables.isEmpty()) {
+                productoDao.upsertPorDocId(aplicables);
+            }
+            List<String> borrables = new ArrayList<>(eliminados);
+            borrables.removeAll(pendientes);
+            // Por tramos para no superar el límite de parámetros de SQLite
+            for (int i = 0; i < borrables.size(); i += MAX_PARAMETROS_SQL) {
+                productoDao.deleteByDocIds(borrables.subList(i,
+                        Math.min(i + MAX_PARAMETROS_SQL, borrables.size())));
+            }
+            long ultimaSync = syncEstadoDao.getUltimaSync(FirestoreManager.COLECCION_PRODUCTOS);
+            if (ultimaSync > 0 && marca > ultimaSync) {
+                syncEstadoDao.guardar(new SyncEstado(FirestoreManager.COLECCION_PRODUCTOS, marca));
+            }
+        });
+        List<String> tocados = new ArrayList<>(eliminados);
+        for (Producto producto : modificados) {
+            tocados.add(producto.getDocId());
+        }
+        CacheCodigosBarras.getInstance(database).quitarDocumentos(tocados);
+    }
+
+    // ==================== REFRESCO COMPLETO ====================
+    // Las páginas se acumulan en productos_staging y se intercambian al final, así los
+    // observadores de "productos" nunca ven el catálogo vacío ni a medio cargar.
+    // Deben llamarse desde un hilo de fondo.
+
+    // Descartar lo que haya dejado un refresco anterior interrumpido
+    public void prepararRefresco() {
+        productoStagingDao.vaciar();
+    }
+
+    public void escribirEnStaging(List<Producto> pagina) {
+        List<ProductoStaging> filas = new ArrayList<>(pagina.size());
+        for (Producto producto : pagina) {
+            filas.add(new ProductoStaging(producto));
+        }
+        productoStagingDao.insertar(filas);
+    }
+
+    // Reemplaza el catálogo por lo descargado en una sola transacción (una sola
+    // invalidación de LiveData) y avanza la marca
+    public void intercambiarStaging(long marca) {
+        long inicio = SystemClock.elapsedRealtime();
+        int[] filas = new int[1];
+        database.runInTransaction(() -> {
+            filas[0] = productoStagingDao.contar();
+            productoStagingDao.intercambiar();
+            if (marca > syncEstadoDao.getUltimaSync(FirestoreManager.COLECCION_PRODUCTOS)) {
+                syncEstadoDao.guardar(new SyncEstado(FirestoreManager.COLECCION_PRODUCTOS, marca));
+            }
+        });
+        CacheCodigosBarras.getInstance(database).invalidar();
+        Log.d(TAG, "Catálogo intercambiado: " + filas[0] + " productos en "
+                + (SystemClock.elapsedRealtime() - inicio) + " ms");
+    }
+
+    // Escribir un lote de sincronización completo en una sola transacción.
+    // Debe llamarse desde un hilo de fondo.
+    public void aplicarLote(LoteSync lote) {
+        aplicarLote(lote, Integer.MAX_VALUE);
+    }
+
+    // Escribir un lote de sincronización confirmando cada "filasPorTransaccion" filas.
+    // Orden: categorías, proveedores y productos (claves foráneas RESTRICT).
+    // La marca de productos se guarda en la última transacción.
+    public void aplicarLote(LoteSync lote, int filasPorTransaccion) {
+        int tamano = filasPorTransaccion > 0 ? filasPorTransaccion : Integer.MAX_VALUE;
+        int total = lote.size();
+        long inicio = SystemClock.elapsedRealtime();
+
+        int escritas = 0;
+        do {
+            final int desde = escritas;
+            final int hasta = (int) Math.min((long) desde + tamano, total);
+            database.runInTransaction(() -> escribirRango(lote, desde, hasta, hasta == total));
+            escritas = hasta;
+            if (!lote.getProductos().isEmpty()) {
+                CacheCodigosBarras.getInstance(database).invalidar();
+            }
+            // Entre tramos pasan primero las escrituras del usuario que estén esperando
+            database.escritor().ceder();
+        } while (escritas < total);
+
+        long duracion = SystemClock.elapsedRealtime() - inicio;
+        Log.d(TAG, "Lote aplicado: " + total + " filas en " + duracion + " ms ("
+                + (duracion > 0 ? total * 1000L / duracion : total) + " filas/s)");
     }
-}
\ No newline at end of file
+
+    // Escribe las filas [desde, hasta) del lote, contando en orden categorías → proveedores → productos
+    private void escribirRango(LoteSync lote, int desde, int hasta, boolean ultimo) {
+        int offset = 0;
+        offset = escribirTramo(lote.getCategorias(), offset, desde, hasta, categoriaDao::upsertPorDocId);
+        offset = escribirTramo(lote.getProveedores(), offset, desde, hasta, proveedorDao::upsertPorDocId);
+        escribirTramo(lote.getProductos(), offset, desde, hasta, productos -> {
+            Set<String> pendientes = new HashSet<>(operacionPendienteDao.getDocIdsPendientes());
+            productoDao.upsertPorDocId(sinPendientes(productos, pendientes));
+        });
+
+        if (ultimo && lote.getMarcaProductos() > 0) {
+            syncEstadoDao.guardar(new SyncEstado(
+                    FirestoreManager.COLECCION_PRODUCTOS, lote.getMarcaProductos()));
+        }
+    }
+
+    private static List<Producto> sinPendientes(List<Producto> productos, Set<String> pendientes) {
+        if (pendientes.isEmpty()) {
+            return productos;
+        }
+        List<Producto> resultado = new ArrayList<>(productos.size());
+        for (Producto producto : productos) {
+            if (!pendientes.contains(producto.getDocId())) {
+                resultado.add(producto);
+            }
+        }
+        return resultado;
+    }
+
+    private static <T> int escribirTramo(List<T> filas, int offset, int desde, int hasta,
+                                         Consumer<List<T>> upsert) {
+        int inicio = Math.max(desde - offset, 0);
+        int fin = Math.min(hasta - offset, filas.size());
+        if (inicio < fin) {
+            upsert.accept(filas.subList(inicio, fin));
+        }
+        return offset + filas.size();
+    }
+}
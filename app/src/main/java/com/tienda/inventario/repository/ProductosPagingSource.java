@@ -0,0 +1,138 @@
+package com.tienda.inventario.repository;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.paging.ListenableFuturePagingSource;
+import androidx.paging.PagingState;
+import androidx.room.InvalidationTracker;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListenableFutureTask;
+import com.tienda.inventario.database.AppDatabase;
+import com.tienda.inventario.database.Carril;
+import com.tienda.inventario.database.dao.ProductoDao;
+import com.tienda.inventario.database.entities.ProductoFila;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import kotlin.Unit;
+
+// Páginas de productos activos ordenados por (nombre_producto, id_producto).
+// Paginación por clave (keyset): cada página continúa desde la última fila vista en lugar
+// de usar OFFSET, así el costo de una página no crece con la posición en el catálogo.
+// Se invalida sola cuando cambian los productos o los nombres de categorías y proveedores.
+public class ProductosPagingSource extends ListenableFuturePagingSource<ProductosPagingSource.Clave, ProductoFila> {
+
+    // Posición en el orden de la lista
+    public static final class Clave {
+        final String nombre;
+        final int id;
+
+        Clave(String nombre, int id) {
+            this.nombre = nombre;
+            this.id = id;
+        }
+
+        static Clave de(ProductoFila producto) {
+            return new Clave(producto.getNombreProducto(), producto.getIdProducto());
+        }
+    }
+
+    private final AppDatabase database;
+    private final ProductoDao productoDao;
+    private final AtomicBoolean observando = new AtomicBoolean(false);
+    private final InvalidationTracker.Observer observador;
+
+    public ProductosPagingSource(AppDatabase database) {
+        this.database = database;
+        this.productoDao = database.productoDao();
+        this.observador = new InvalidationTracker.Observer("productos", "categorias", "proveedores") {
+            @Override
+            public void onInvalidated(@NonNull Set<String> tables) {
+                invalidate();
+            }
+        };
+        registerInvalidatedCallback(() -> {
+            database.getInvalidationTracker().removeObserver(observador);
+            return Unit.INSTANCE;
+        });
+    }
+
+    @NonNull
+    @Override
+    public ListenableFuture<LoadResult<Clave, ProductoFila>> loadFuture(@NonNull LoadParams<Clave> params) {
+        // La lista que el usuario está mirando: carril interactivo
+        ListenableFutureTask<LoadResult<Clave, ProductoFila>> tarea =
+                ListenableFutureTask.create(() -> cargar(params));
+        AppDatabase.lecturas.ejecutar(Carril.INTERACTIVO, tarea);
+        return tarea;
+    }
+
+    private LoadResult<Clave, ProductoFila> cargar(LoadParams<Clave> params) {
+        if (getInvalid()) {
+            return new LoadResult.Invalid<>();
+        }
+        // Se registra en el primer load (hilo de fondo) para no tocar la base en el hilo
+        // principal. Si la fuente se invalidó mientras tanto, el callback que quita el
+        // observador ya corrió: se quita aquí para no dejarlo registrado para siempre.
+        if (observando.compareAndSet(false, true)) {
+            database.getInvalidationTracker().addObserver(observador);
+            if (getInvalid()) {
+                database.getInvalidationTracker().removeObserver(observador);
+                return new LoadResult.Invalid<>();
+            }
+        }
+
+        try {
+            int limite = params.getLoadSize();
+            Clave clave = params.getKey();
+
+            // Las claves de cada página son su primera y su última fila: las consultas
+            // excluyen la clave, y si Paging descarta la página vecina (maxSize) la que
+            // queda sigue cargando desde sus propias filas sin saltarse ninguna
+            if (params instanceof LoadParams.Prepend) {
+                List<ProductoFila> pagina = productoDao.getPaginaAntesDe(clave.nombre, clave.id, limite);
+                // La consulta va en orden inverso para tomar las filas más cercanas a la clave
+                Collections.reverse(pagina);
+                Clave anterior = pagina.size() < limite ? null : Clave.de(pagina.get(0));
+                Clave siguiente = pagina.isEmpty() ? clave : Clave.de(pagina.get(pagina.size() - 1));
+                return new LoadResult.Page<>(pagina, anterior, siguiente);
+            }
+
+            List<ProductoFila> pagina;
+            Clave anterior = null;
+            if (params instanceof LoadParams.Append) {
+                pagina = productoDao.getPaginaDespuesDe(clave.nombre, clave.id, limite);
+                anterior = pagina.isEmpty() ? clave : Clave.de(pagina.get(0));
+            } else if (clave != null) {
+                // Refresco tras una invalidación: se retoma desde la clave, incluida
+                pagina = productoDao.getPaginaDesde(clave.nombre, clave.id, limite);
+                // Si ya no queda nada desde la clave (se borraron las últimas filas), lo
+                // anterior sigue ahí y se puede anteponer desde la propia clave
+                anterior = pagina.isEmpty() ? clave : Clave.de(pagina.get(0));
+            } else {
+                pagina = productoDao.getPaginaInicial(limite);
+            }
+            Clave siguiente = pagina.size() < limite ? null : Clave.de(pagina.get(pagina.size() - 1));
+            return new LoadResult.Page<>(pagina, anterior, siguiente);
+        } catch (Exception e) {
+            return new LoadResult.Error<>(e);
+        }
+    }
+
+    // Al invalidarse se retoma un poco antes del elemento visible para no saltar de posición
+    @Nullable
+    @Override
+    public Clave getRefreshKey(@NonNull PagingState<Clave, ProductoFila> state) {
+        Integer ancla = state.getAnchorPosition();
+        if (ancla == null) {
+            return null;
+        }
+        ProductoFila producto = state.closestItemToPosition(
+                Math.max(0, ancla - state.getConfig().pageSize / 2));
+        return producto != null ? Clave.de(producto) : null;
+    }
+}
@@ -0,0 +1,147 @@
+package com.tienda.inventario.repository;
+
+import android.app.Application;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.DefaultLifecycleObserver;
+import androidx.lifecycle.LifecycleOwner;
+
+import com.google.firebase.firestore.ListenerRegistration;
+import com.tienda.inventario.database.AppDatabase;
+import com.tienda.inventario.database.Carril;
+import com.tienda.inventario.database.FirestoreManager;
+import com.tienda.inventario.database.entities.Producto;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Escucha los cambios de productos en Firestore mientras la pantalla está visible
+// y los aplica en Room (upserts y borrados puntuales, sin recargar todo).
+// Los cambios que llegan en ráfaga se agrupan en una sola transacción.
+public class ProductosTiempoReal implements DefaultLifecycleObserver {
+
+    private static final String TAG = "ProductosTiempoReal";
+
+    // Ventana para agrupar ráfagas de cambios
+    private static final long VENTANA_MS = 250;
+
+    private final AppDatabase database;
+    private final FirestoreManager firestoreManager;
+    private final ProductoRepository repository;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+
+    private ListenerRegistration registro;
+    private boolean activo;
+    // La escucha empezó en la marca guardada: lo que llega continúa lo sincronizado y
+    // puede avanzar la marca. Si empezó en "ahora" (sin marca), la marca la fija la
+    // carga completa; avanzarla desde aquí haría que una carga fallida no se repitiera.
+    private boolean avanzaMarca;
+
+    // Cambios pendientes de escribir (solo se tocan en el hilo principal)
+    private Map<String, Producto> modificadosPendientes = new LinkedHashMap<>();
+    private Set<String> eliminadosPendientes = new LinkedHashSet<>();
+    private long marcaPendiente;
+    private boolean programado;
+    private final Runnable aplicarPendientes = this::aplicarPendientes;
+
+    public ProductosTiempoReal(Application application) {
+        database = AppDatabase.getDatabase(application);
+        firestoreManager = FirestoreManager.getInstance();
+        repository = new ProductoRepository(database);
+    }
+
+    @Override
+    public void onStart(@NonNull LifecycleOwner owner) {
+        activo = true;
+        AppDatabase.lecturas.ejecutar(Carril.FONDO, () -> {
+            long ultimaSync = database.syncEstadoDao()
+                    .getUltimaSync(FirestoreManager.COLECCION_PRODUCTOS);
+            // Sin marca todavía la carga inicial trae el catálogo; aquí solo interesa lo nuevo
+            long desde = ultimaSync > 0 ? ultimaSync : System.currentTimeMillis();
+            handler.post(() -> conectar(desde, ultimaSync > 0));
+        });
+    }
+
+    @Override
+    public void onStop(@NonNull LifecycleOwner owner) {
+        activo = false;
+        if (registro != null) {
+            registro.remove();
+            registro = null;
+            Log.d(TAG, "Escucha de productos desconectada");
+        }
+        // No perder lo que ya llegó
+        handler.removeCallbacks(aplicarPendientes);
+        aplicarPendientes();
+    }
+
+    private void conectar(long desde, boolean desdeMarca) {
+        if (!activo || registro != null) {
+            return;
+        }
+        avanzaMarca = desdeMarca;
+        registro = firestoreManager.escucharProductos(desde,
+                new FirestoreManager.OnCambiosProductosListener() {
+                    @Override
+                    public void onCambios(List<Producto> modificados, List<String> eliminados,
+                                          long marcaMaxima) {
+                        acumular(modificados, eliminados, marcaMaxima);
+                    }
+
+                    @Override
+                    public void onError(String error) {
+                        Log.e(TAG, "Error en la escucha de productos: " + error);
+                    }
+                });
+        Log.d(TAG, "Escucha de productos conectada desde " + desde);
+    }
+
+    private void acumular(List<Producto> modificados, List<String> eliminados, long marca) {
+        for (Producto producto : modificados) {
+            eliminadosPendientes.remove(producto.getDocId());
+            modificadosPendientes.put(producto.getDocId(), producto);
+        }
+        for (String docId : eliminados) {
+            modificadosPendientes.remove(docId);
+            eliminadosPendientes.add(docId);
+        }
+        if (avanzaMarca) {
+            marcaPendiente = Math.max(marcaPendiente, marca);
+        }
+
+        // Ventana fija desde el primer cambio: una ráfaga continua no retrasa la escritura
+        if (!programado) {
+            programado = true;
+            handler.postDelayed(aplicarPendientes, VENTANA_MS);
+        }
+    }
+
+    private void aplicarPendientes() {
+        programado = false;
+        if (modificadosPendientes.isEmpty() && eliminadosPendientes.isEmpty()) {
+            return;
+        }
+        List<Producto> modificados = new ArrayList<>(modificadosPendientes.values());
+        List<String> eliminados = new ArrayList<>(eliminadosPendientes);
+        long marca = marcaPendiente;
+        modificadosPendientes = new LinkedHashMap<>();
+        eliminadosPendientes = new LinkedHashSet<>();
+
+        database.escritor().ejecutar(() -> {
+            try {
+                repository.aplicarCambios(modificados, eliminados, marca);
+                Log.d(TAG, "Cambios aplicados: " + modificados.size()
+                        + " modificados, " + eliminados.size() + " eliminados");
+            } catch (Exception e) {
+                Log.e(TAG, "Error al aplicar cambios en Room: " + e.getMessage(), e);
+            }
+        });
+    }
+}
@@ -0,0 +1,68 @@
+package com.tienda.inventario.repository;
+
+// Resultado de un producto en un ajuste de stock por lotes. Los escaneos repetidos del
+// mismo producto llegan sumados en un solo resultado.
+public class ResultadoAjuste {
+
+    public enum Estado {
+        APLICADO,
+        // Los escaneos se anularon entre sí (delta neto 0)
+        SIN_CAMBIO,
+        // Código o ID sin producto activo
+        NO_ENCONTRADO,
+        // El stock quedaría negativo; no se tocó
+        STOCK_INSUFICIENTE
+    }
+
+    private final String codigoBarras;
+    private final int idProducto;
+    private final int delta;
+    private final int escaneos;
+    private final Estado estado;
+    private final int stockResultante;
+
+    ResultadoAjuste(String codigoBarras, int idProducto, int delta, int escaneos,
+                    Estado estado, int stockResultante) {
+        this.codigoBarras = codigoBarras;
+        this.idProducto = idProducto;
+        this.delta = delta;
+        this.escaneos = escaneos;
+        this.estado = estado;
+        this.stockResultante = stockResultante;
+    }
+
+    // Primer código escaneado de este producto (null si solo se ajustó por ID)
+    public String getCodigoBarras() {
+        return codigoBarras;
+    }
+
+    // 0 si el código no corresponde a ningún producto
+    public int getIdProducto() {
+        return idProducto;
+    }
+
+    // Suma de los deltas escaneados
+    public int getDelta() {
+        return delta;
+    }
+
+    public int getEscaneos() {
+        return escaneos;
+    }
+
+    public Estado getEstado() {
+        return estado;
+    }
+
+    // Stock tras el ajuste (el actual si no se aplicó; -1 si no se encontró)
+    public int getStockResultante() {
+        return stockResultante;
+    }
+
+    @Override
+    public String toString() {
+        return "ResultadoAjuste{id=" + idProducto + (codigoBarras != null ? ", código=" + codigoBarras : "")
+                + ", delta=" + delta + ", escaneos=" + escaneos + ", " + estado
+                + ", stock=" + stockResultante + "}";
+    }
+}
@@ -0,0 +1,103 @@
+package com.tienda.inventario.repository;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+// Resultado de una sincronización con Firestore, con los tiempos de cada fase
+public class ResultadoSync {
+
+    // Fase de descarga (las tres colecciones se piden en paralelo)
+    long msCategorias;
+    long msProveedores;
+    long msProductos;
+
+    // Fase de escritura en Room (una transacción, en orden de claves foráneas)
+    long msEscritura;
+
+    // Desde el inicio hasta el final de la escritura
+    long msTotal;
+
+    int categorias;
+    int proveedores;
+    int productos;
+
+    // Productos que no se pudieron decodificar y no se guardaron
+    int descartados;
+
+    // true si solo se descargaron los productos modificados desde la última marca
+    boolean incremental;
+
+    // Momento en que terminó la sincronización
+    long finalizado;
+
+    // Primer error encontrado (null si todo salió bien)
+    String error;
+
+    ResultadoSync() {
+    }
+
+    // Getters
+    public long getMsCategorias() {
+        return msCategorias;
+    }
+
+    public long getMsProveedores() {
+        return msProveedores;
+    }
+
+    public long getMsProductos() {
+        return msProductos;
+    }
+
+    public long getMsEscritura() {
+        return msEscritura;
+    }
+
+    public long getMsTotal() {
+        return msTotal;
+    }
+
+    public int getCategorias() {
+        return categorias;
+    }
+
+    public int getProveedores() {
+        return proveedores;
+    }
+
+    public int getProductos() {
+        return productos;
+    }
+
+    public int getDescartados() {
+        return descartados;
+    }
+
+    public boolean isIncremental() {
+        return incremental;
+    }
+
+    public long getFinalizado() {
+        return finalizado;
+    }
+
+    @Nullable
+    public String getError() {
+        return error;
+    }
+
+    public boolean isExitoso() {
+        return error == null;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "categorías=" + categorias + " (" + msCategorias + " ms), "
+                + "proveedores=" + proveedores + " (" + msProveedores + " ms), "
+                + "productos=" + productos + " (" + msProductos + " ms" + (incremental ? ", delta" : "")
+                + (descartados > 0 ? ", " + descartados + " descartados" : "") + "), "
+                + "escritura=" + msEscritura + " ms, total=" + msTotal + " ms"
+                + (error != null ? ", error=" + error : "");
+    }
+}
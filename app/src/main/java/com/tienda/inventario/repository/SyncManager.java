@@ -0,0 +1,345 @@
+package com.tienda.inventario.repository;
+
+import android.app.Application;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import com.tienda.inventario.database.AppDatabase;
+import com.tienda.inventario.database.FirestoreManager;
+import com.tienda.inventario.database.entities.Categoria;
+import com.tienda.inventario.database.entities.Producto;
+import com.tienda.inventario.database.entities.Proveedor;
+import com.tienda.inventario.database.entities.SyncEstado;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Orquesta la sincronización Firestore → Room fuera de la Activity.
+// Descarga categorías, proveedores y productos en paralelo y solo respeta el orden
+// de las claves foráneas al escribir en Room.
+public class SyncManager {
+
+    private static final String TAG = "SyncManager";
+
+    // Productos por página al descargar (acota la memoria en equipos con poca RAM)
+    private static final int TAMANO_PAGINA = 500;
+
+    // Filas por transacción al escribir; entre transacciones pasan las escrituras del usuario
+    private static final int FILAS_POR_TRANSACCION = 250;
+
+    private static volatile SyncManager INSTANCE;
+
+    private final AppDatabase database;
+    private final FirestoreManager firestoreManager;
+    private final ProductoRepository repository;
+    private final ColaSalida colaSalida;
+
+    private final AtomicBoolean enCurso = new AtomicBoolean(false);
+    private final MutableLiveData<Boolean> sincronizando = new MutableLiveData<>(false);
+    private final MutableLiveData<ResultadoSync> resultado = new MutableLiveData<>();
+
+    private SyncManager(Application application) {
+        database = AppDatabase.getDatabase(application);
+        firestoreManager = FirestoreManager.getInstance();
+        repository = new ProductoRepository(database);
+        colaSalida = ColaSalida.getInstance(application);
+    }
+
+    public static SyncManager getInstance(Application application) {
+        if (INSTANCE == null) {
+            synchronized (SyncManager.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new SyncManager(application);
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    // true mientras haya una sincronización en curso
+    public LiveData<Boolean> isSincronizando() {
+        return sincronizando;
+    }
+
+    // Única señal de finalización para la UI
+    public LiveData<ResultadoSync> getResultado() {
+        return resultado;
+    }
+
+    // Inicia una sincronización incremental; se ignora si ya hay una en curso
+    public void sincronizar() {
+        iniciar(false);
+    }
+
+    // Descarga el catálogo completo y lo intercambia de una vez por el local
+    // (también quita los productos borrados en Firestore que el modo incremental no ve)
+    public void refrescar() {
+        iniciar(true);
+    }
+
+    private void iniciar(boolean completo) {
+        if (!enCurso.compareAndSet(false, true)) {
+            Log.d(TAG, "Sincronización ya en curso, se ignora");
+            return;
+        }
+        sincronizando.postValue(true);
+        // Subir primero lo que haya quedado pendiente
+        colaSalida.programarEnvio();
+
+        database.escritor().ejecutar(() -> {
+            long ultimaSync;
+            if (completo) {
+                repository.prepararRefresco();
+                ultimaSync = 0;
+            } else {
+                ultimaSync = database.syncEstadoDao()
+                        .getUltimaSync(FirestoreManager.COLECCION_PRODUCTOS);
+            }
+            new Ejecucion(ultimaSync, completo).descargar();
+        });
+    }
+
+    // Estado de una sincronización. Categorías y proveedores se escriben juntos en cuanto
+    // llegan ambos; cada página de productos se escribe en su propia transacción, pero solo
+    // después de los maestros por las claves foráneas.
+    // En un refresco completo las páginas van a staging y se intercambian al final.
+    private class Ejecucion {
+
+        private final long ultimaSync;
+        private final boolean completo;
+        private final long inicio = SystemClock.elapsedRealtime();
+        private final ResultadoSync res = new ResultadoSync();
+        private final LoteSync maestros = new LoteSync();
+
+        private int maestrosPendientes = 2;
+        private boolean maestrosEscritos;
+        private boolean productosTerminados;
+
+        // Página de productos que llegó antes de que se escribieran los maestros
+        private List<Producto> paginaEnEspera;
+        private Runnable continuarEnEspera;
+
+        Ejecucion(long ultimaSync, boolean completo) {
+            this.ultimaSync = ultimaSync;
+            this.completo = completo;
+            res.incremental = ultimaSync > 0;
+        }
+
+        void descargar() {
+            firestoreManager.getCategorias(new FirestoreManager.OnCategoriasListener() {
+                @Override
+                public void onSuccess(List<Categoria> categorias) {
+                    synchronized (Ejecucion.this) {
+                        res.msCategorias = transcurrido();
+                        maestros.setCategorias(categorias);
+                    }
+                    maestroDescargado();
+                }
+
+                @Override
+                public void onError(String error) {
+                    registrarError("categorías", error);
+                    maestroDescargado();
+                }
+            });
+
+            firestoreManager.getProveedores(new FirestoreManager.OnProveedoresListener() {
+                @Override
+                public void onSuccess(List<Proveedor> proveedores) {
+                    synchronized (Ejecucion.this) {
+                        res.msProveedores = transcurrido();
+                        maestros.setProveedores(proveedores);
+                    }
+                    maestroDescargado();
+                }
+
+                @Override
+                public void onError(String error) {
+                    registrarError("proveedores", error);
+                    maestroDescargado();
+                }
+            });
+
+            firestoreManager.getProductosPaginados(ultimaSync, TAMANO_PAGINA,
+                    new FirestoreManager.OnPaginaProductosListener() {
+                        @Override
+                        public void onPagina(List<Producto> pagina, Runnable continuar) {
+                            synchronized (Ejecucion.this) {
+                                if (!maestrosEscritos) {
+                                    paginaEnEspera = pagina;
+                                    continuarEnEspera = continuar;
+                                    return;
+                                }
+                            }
+                            escribirPagina(pagina, continuar);
+                        }
+
+                        @Override
+                        public void onComplete(int total, int descartados, int perdidos, long marcaMaxima) {
+                            synchronized (Ejecucion.this) {
+                                res.msProductos = transcurrido();
+                                res.productos = total;
+                                res.descartados = descartados;
+                            }
+                            // La marca solo avanza cuando todas las páginas están en Room
+                            database.escritor().ejecutar(() -> {
+                                boolean sinErrores;
+                                synchronized (Ejecucion.this) {
+                                    sinErrores = res.error == null;
+                                }
+                                // Los documentos inválidos (descartados) fallan igual en cada
+                                // descarga: se excluyen y quedan en el log. Los perdidos son
+                                // válidos que solo no se pudieron leer esta vez: sin ellos no
+                                // se intercambia (se borrarían del catálogo local) ni avanza
+                                // la marca (no se volverían a pedir).
+                                if (sinErrores && perdidos > 0) {
+                                    registrarError("productos", perdidos
+                                            + " documentos sin decodificar, se reintentará");
+                                    sinErrores = false;
+                                }
+                                if (completo) {
+                                    if (sinErrores) {
+                                        intercambiar(marcaMaxima);
+                                    }
+                                } else if (sinErrores && marcaMaxima > ultimaSync) {
+                                    database.syncEstadoDao().guardar(new SyncEstado(
+                                            FirestoreManager.COLECCION_PRODUCTOS, marcaMaxima));
+                                }
+                                productosTerminados();
+                            });
+                        }
+
+                        @Override
+                        public void onError(String error) {
+                            synchronized (Ejecucion.this) {
+                                res.msProductos = transcurrido();
+                            }
+                            registrarError("productos", error);
+                            productosTerminados();
+                        }
+                    });
+        }
+
+        private void maestroDescargado() {
+            synchronized (this) {
+                if (--maestrosPendientes > 0) {
+                    return;
+                }
+            }
+            database.escritor().ejecutar(this::escribirMaestros);
+        }
+
+        private void escribirMaestros() {
+            escribir(maestros);
+
+            List<Producto> pagina;
+            Runnable continuar;
+            synchronized (this) {
+                res.categorias = maestros.getCategorias().size();
+                res.proveedores = maestros.getProveedores().size();
+                maestrosEscritos = true;
+                pagina = paginaEnEspera;
+                continuar = continuarEnEspera;
+                paginaEnEspera = null;
+                continuarEnEspera = null;
+            }
+
+            if (pagina != null) {
+                escribirPagina(pagina, continuar);
+            }
+            intentarFinalizar();
+        }
+
+        private void escribirPagina(List<Producto> pagina, Runnable continuar) {
+            database.escritor().ejecutar(() -> {
+                if (completo) {
+                    escribirEnStaging(pagina);
+                } else {
+                    LoteSync lote = new LoteSync();
+                    lote.setProductos(pagina);
+                    escribir(lote);
+                }
+                continuar.run();
+            });
+        }
+
+        private void escribirEnStaging(List<Producto> pagina) {
+            long inicioEscritura = SystemClock.elapsedRealtime();
+            try {
+                repository.escribirEnStaging(pagina);
+            } catch (Exception e) {
+                Log.e(TAG, "Error al guardar en staging: " + e.getMessage(), e);
+                registrarError("Room", e.getMessage());
+            }
+            synchronized (this) {
+                res.msEscritura += SystemClock.elapsedRealtime() - inicioEscritura;
+            }
+        }
+
+        private void intercambiar(long marcaMaxima) {
+            long inicioEscritura = SystemClock.elapsedRealtime();
+            try {
+                repository.intercambiarStaging(marcaMaxima);
+            } catch (Exception e) {
+                Log.e(TAG, "Error al intercambiar el catálogo: " + e.getMessage(), e);
+                registrarError("Room", e.getMessage());
+            }
+            synchronized (this) {
+                res.msEscritura += SystemClock.elapsedRealtime() - inicioEscritura;
+            }
+        }
+
+        // Escribe un lote en una transacción y acumula el tiempo de escritura
+        private void escribir(LoteSync lote) {
+            long inicioEscritura = SystemClock.elapsedRealtime();
+            try {
+                // Por tramos: entre uno y otro el escritor atiende al usuario
+                repository.aplicarLote(lote, FILAS_POR_TRANSACCION);
+            } catch (Exception e) {
+                Log.e(TAG, "Error al guardar en Room: " + e.getMessage(), e);
+                registrarError("Room", e.getMessage());
+            }
+            synchronized (this) {
+                res.msEscritura += SystemClock.elapsedRealtime() - inicioEscritura;
+            }
+        }
+
+        private void registrarError(String origen, String error) {
+            Log.e(TAG, "Error en " + origen + ": " + error);
+            synchronized (this) {
+                if (res.error == null) {
+                    res.error = error;
+                }
+            }
+        }
+
+        private void productosTerminados() {
+            synchronized (this) {
+                productosTerminados = true;
+            }
+            intentarFinalizar();
+        }
+
+        private void intentarFinalizar() {
+            synchronized (this) {
+                if (!maestrosEscritos || !productosTerminados || res.finalizado != 0) {
+                    return;
+                }
+                res.msTotal = transcurrido();
+                res.finalizado = System.currentTimeMillis();
+            }
+
+            Log.d(TAG, "Sincronización terminada: " + res);
+            enCurso.set(false);
+            sincronizando.postValue(false);
+            resultado.postValue(res);
+        }
+
+        private long transcurrido() {
+            return SystemClock.elapsedRealtime() - inicio;
+        }
+    }
+}
@@ -4,6 +4,7 @@ import android.content.Intent;
 import android.os.Bundle;
 import android.os.Handler;
 import android.os.Looper;
+import android.os.SystemClock;
 import android.text.Editable;
 import android.text.TextWatcher;
 import android.util.Log;
@@ -18,159 +19,189 @@ import androidx.recyclerview.widget.LinearLayoutManager;
 
 import com.google.android.material.dialog.MaterialAlertDialogBuilder;
 import com.tienda.inventario.R;
-import com.tienda.inventario.database.AppDatabase;
-import com.tienda.inventario.database.entities.Categoria;
 import com.tienda.inventario.database.entities.Producto;
-import com.tienda.inventario.database.entities.Proveedor;
+import com.tienda.inventario.database.entities.ProductoFila;
 import com.tienda.inventario.databinding.ActivityMainBinding;
-import com.tienda.inventario.database.FirestoreManager;
+import com.tienda.inventario.repository.ProductosTiempoReal;
+import com.tienda.inventario.repository.ResultadoSync;
 import com.tienda.inventario.ui.adapter.FormProductoActivity;
 import com.tienda.inventario.ui.adapter.ProductoAdapter;
+import com.tienda.inventario.ui.adapter.ProductoPagingAdapter;
+import com.tienda.inventario.viewmodel.FilaPresentacion;
 import com.tienda.inventario.viewmodel.ProductoViewModel;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 
+import kotlin.Unit;
+
 public class MainActivity extends AppCompatActivity {
 
     private static final String TAG = "MainActivity";
-    private FirestoreManager firestoreManager;
+
+    // Qué flujo llena la lista simple; los demás siguen observados pero no la tocan
+    private enum Modo { TODOS, BUSQUEDA, STOCK_BAJO }
+
     private ActivityMainBinding binding;
     private ProductoViewModel viewModel;
+    private long creadaEn;
+    // Para medir el tiempo hasta el primer contenido en pantalla
+    private long inicioCreacion;
+    private boolean primerContenidoMedido;
+    private boolean syncTerminada;
+    // Catálogo completo paginado; las búsquedas y el filtro de stock bajo usan la lista simple
+    private ProductoPagingAdapter pagingAdapter;
     private ProductoAdapter adapter;
-    private List<Producto> listaProductos = new ArrayList<>();
-    private boolean primeraSync = true;
+    private Modo modo = Modo.TODOS;
+    // La próxima emisión responde a un pedido explícito (botón): avisar si viene vacía
+    private boolean avisarResultado;
     private Handler searchHandler = new Handler(Looper.getMainLooper());
     private Runnable searchRunnable;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
+        creadaEn = System.currentTimeMillis();
+        inicioCreacion = SystemClock.elapsedRealtime();
         binding = ActivityMainBinding.inflate(getLayoutInflater());
         setContentView(binding.getRoot());
 
         Log.d(TAG, "onCreate iniciado");
 
-        firestoreManager = FirestoreManager.getInstance();
         setSupportActionBar(binding.toolbar);
         viewModel = new ViewModelProvider(this).get(ProductoViewModel.class);
 
         setupRecyclerView();
         setupListeners();
+        // Primero lo que ya está en Room; la sincronización actualiza las filas en su lugar
+        observeData();
+        observarListas();
         cargarDatosIniciales();
-    }
-
-    private void cargarDatosIniciales() {
-        binding.progressBar.setVisibility(View.VISIBLE);
-
-        // Cargar categorías primero
-        firestoreManager.getCategorias(new FirestoreManager.OnCategoriasListener() {
-            @Override
-            public void onSuccess(List<Categoria> categorias) {
-                Log.d(TAG, "Categorías cargadas: " + categorias.size());
-                guardarCategoriasEnRoom(categorias);
-
-                // Luego cargar proveedores
-                firestoreManager.getProveedores(new FirestoreManager.OnProveedoresListener() {
-                    @Override
-                    public void onSuccess(List<Proveedor> proveedores) {
-                        Log.d(TAG, "Proveedores cargados: " + proveedores.size());
-                        guardarProveedoresEnRoom(proveedores);
-                        cargarProductosFirestore();
-                    }
-
-                    @Override
-                    public void onError(String error) {
-                        Log.e(TAG, "Error al cargar proveedores: " + error);
-                        cargarProductosFirestore();
-                    }
-                });
-            }
 
-            @Override
-            public void onError(String error) {
-                Log.e(TAG, "Error al cargar categorías: " + error);
-                cargarProductosFirestore();
-            }
-        });
+        // Cambios de otros dispositivos en vivo mientras la pantalla está visible
+        getLifecycle().addObserver(new ProductosTiempoReal(getApplication()));
     }
 
-    private void guardarCategoriasEnRoom(List<Categoria> categorias) {
-        AppDatabase.databaseWriteExecutor.execute(() -> {
-            try {
-                AppDatabase db = AppDatabase.getDatabase(MainActivity.this);
-
-                // Verificar si ya existen categorías antes de insertar
-                List<Categoria> categoriasExistentes = db.categoriaDao().getAllCategoriasList();
-
-                if (categoriasExistentes.isEmpty()) {
-                    for (Categoria categoria : categorias) {
-                        db.categoriaDao().insert(categoria);
-                    }
-                    Log.d(TAG, "Categorías guardadas en Room");
-                } else {
-                    Log.d(TAG, "Categorías ya existen en Room, no se insertan");
-                }
-            } catch (Exception e) {
-                Log.e(TAG, "Error al guardar categorías en Room: " + e.getMessage());
-            }
-        });
+    private void cargarDatosIniciales() {
+        // Las tres colecciones se descargan en paralelo fuera de la Activity;
+        // aquí solo se escucha el progreso y la señal de fin
+        viewModel.isSincronizando().observe(this, sincronizando ->
+                binding.progressBar.setVisibility(
+                        Boolean.TRUE.equals(sincronizando) ? View.VISIBLE : View.GONE));
+        viewModel.getResultadoSync().observe(this, this::onSincronizacionTerminada);
+        viewModel.sincronizar();
     }
 
-    private void guardarProveedoresEnRoom(List<Proveedor> proveedores) {
-        AppDatabase.databaseWriteExecutor.execute(() -> {
-            try {
-                AppDatabase db = AppDatabase.getDatabase(MainActivity.this);
-
-                // Verificar si ya existen proveedores antes de insertar
-                List<Proveedor> proveedoresExistentes = db.proveedorDao().getAllProveedoresList();
+    private void onSincronizacionTerminada(ResultadoSync resultado) {
+        if (resultado == null) {
+            return;
+        }
 
-                if (proveedoresExistentes.isEmpty()) {
-                    for (Proveedor proveedor : proveedores) {
-                        db.proveedorDao().insert(proveedor);
-                    }
-                    Log.d(TAG, "Proveedores guardados en Room");
-                } else {
-                    Log.d(TAG, "Proveedores ya existen en Room, no se insertan");
-                }
-            } catch (Exception e) {
-                Log.e(TAG, "Error al guardar proveedores en Room: " + e.getMessage());
-            }
-        });
+        // Un resultado anterior a esta Activity (por ejemplo tras rotar) no se vuelve a notificar
+        if (resultado.getFinalizado() < creadaEn) {
+            return;
+        }
+        syncTerminada = true;
+
+        if (!resultado.isExitoso()) {
+            Toast.makeText(this, "Error: " + resultado.getError(), Toast.LENGTH_LONG).show();
+        } else if (resultado.getProductos() > 0) {
+            Toast.makeText(this,
+                    "✅ " + resultado.getProductos() + " productos sincronizados",
+                    Toast.LENGTH_SHORT).show();
+        } else {
+            Toast.makeText(this,
+                    resultado.isIncremental() ? "Inventario actualizado" : "No hay productos en Firestore",
+                    Toast.LENGTH_LONG).show();
+        }
     }
 
     private void setupRecyclerView() {
+        pagingAdapter = new ProductoPagingAdapter();
         adapter = new ProductoAdapter();
         binding.recyclerViewProductos.setLayoutManager(new LinearLayoutManager(this));
-        binding.recyclerViewProductos.setAdapter(adapter);
+        binding.recyclerViewProductos.setAdapter(pagingAdapter);
         binding.recyclerViewProductos.setHasFixedSize(true);
 
-        adapter.setOnProductoClickListener(new ProductoAdapter.OnProductoClickListener() {
+        ProductoAdapter.OnProductoClickListener listener = new ProductoAdapter.OnProductoClickListener() {
             @Override
-            public void onProductoClick(Producto producto) {
+            public void onProductoClick(ProductoFila producto) {
                 mostrarDetallesProducto(producto);
             }
 
             @Override
-            public void onProductoLongClick(Producto producto) {
+            public void onProductoLongClick(ProductoFila producto) {
                 mostrarOpcionesProducto(producto);
             }
+        };
+        pagingAdapter.setOnProductoClickListener(listener);
+        adapter.setOnProductoClickListener(listener);
+
+        pagingAdapter.addOnPagesUpdatedListener(() -> {
+            medirPrimerContenido();
+            return Unit.INSTANCE;
         });
     }
 
-    private void observeData() {
-        viewModel.getAllProductos().observe(this, productos -> {
-            if (productos != null && !productos.isEmpty()) {
-                Log.d(TAG, "Productos observados: " + productos.size());
-                adapter.setProductos(productos);
-                listaProductos = productos;
-            } else {
-                Log.d(TAG, "No hay productos en Room");
-                adapter.setProductos(new ArrayList<>());
+    // Tiempo desde onCreate hasta la primera página con productos en pantalla. Con la
+    // base ya cargada no depende de la red; en la primera instalación llega tras la sync.
+    private void medirPrimerContenido() {
+        if (primerContenidoMedido || pagingAdapter.getItemCount() == 0) {
+            return;
+        }
+        primerContenidoMedido = true;
+        Log.i(TAG, "Primer contenido en " + (SystemClock.elapsedRealtime() - inicioCreacion) + " ms ("
+                + pagingAdapter.getItemCount() + " filas, "
+                + (syncTerminada ? "después de sincronizar" : "desde Room, sin esperar la red") + ")");
+    }
+
+    // Un observador por flujo durante toda la vida de la Activity
+    private void observarListas() {
+        viewModel.getResultadosBusqueda().observe(this, productos -> {
+            if (modo != Modo.BUSQUEDA || productos == null) {
+                return;
+            }
+            mostrarLista(productos);
+            if (avisarResultado && productos.isEmpty()) {
+                Toast.makeText(this, "No se encontraron productos", Toast.LENGTH_SHORT).show();
             }
+            avisarResultado = false;
         });
 
+        viewModel.getProductosStockBajo().observe(this, productos -> {
+            if (modo != Modo.STOCK_BAJO || productos == null) {
+                return;
+            }
+            mostrarLista(productos);
+            if (avisarResultado) {
+                avisarStockBajo(productos.size());
+            }
+            avisarResultado = false;
+        });
+    }
+
+    private void mostrarTodos() {
+        modo = Modo.TODOS;
+        avisarResultado = false;
+        // Sin término la búsqueda anterior deja de observarse en Room
+        viewModel.setConsulta(null);
+        if (binding.recyclerViewProductos.getAdapter() != pagingAdapter) {
+            binding.recyclerViewProductos.setAdapter(pagingAdapter);
+        }
+    }
+
+    private void mostrarLista(List<FilaPresentacion> productos) {
+        if (binding.recyclerViewProductos.getAdapter() != adapter) {
+            binding.recyclerViewProductos.setAdapter(adapter);
+        }
+        adapter.setProductos(productos);
+    }
+
+    private void observeData() {
+        // Las páginas se piden a medida que se desplaza la lista
+        viewModel.getProductosPaginados().observe(this, pagina ->
+                pagingAdapter.submitData(getLifecycle(), pagina));
+
         viewModel.countProductosActivos().observe(this, count -> {
             if (count != null) {
                 binding.tvTotalProductos.setText(String.valueOf(count));
@@ -202,7 +233,7 @@ public class MainActivity extends AppCompatActivity {
         // Botón mostrar todos
         binding.btnMostrarTodos.setOnClickListener(v -> {
             binding.etBuscar.setText("");
-            adapter.setProductos(listaProductos);
+            mostrarTodos();
         });
 
         // Botón stock bajo
@@ -231,7 +262,7 @@ public class MainActivity extends AppCompatActivity {
                     if (s.length() > 2) {
                         buscarProductosSilent(s.toString());
                     } else if (s.length() == 0) {
-                        adapter.setProductos(listaProductos);
+                        mostrarTodos();
                     }
                 };
 
@@ -244,40 +275,50 @@ public class MainActivity extends AppCompatActivity {
     }
 
     private void buscarProductos(String termino) {
-        viewModel.searchByName(termino).observe(this, productos -> {
-            if (productos != null) {
-                adapter.setProductos(productos);
-                if (productos.isEmpty()) {
-                    Toast.makeText(this, "No se encontraron productos", Toast.LENGTH_SHORT).show();
-                }
-            }
-        });
+        modo = Modo.BUSQUEDA;
+        avisarResultado = true;
+        viewModel.setConsulta(termino);
     }
 
     // Búsqueda sin toast para búsqueda en tiempo real
     private void buscarProductosSilent(String termino) {
-        viewModel.searchByName(termino).observe(this, productos -> {
-            if (productos != null) {
-                adapter.setProductos(productos);
-            }
-        });
+        modo = Modo.BUSQUEDA;
+        avisarResultado = false;
+        viewModel.setConsulta(termino);
     }
 
     private void mostrarStockBajo() {
-        viewModel.getProductosStockBajo().observe(this, productos -> {
-            if (productos != null) {
-                adapter.setProductos(productos);
-                if (productos.isEmpty()) {
-                    new MaterialAlertDialogBuilder(this)
-                            .setTitle("✅ Stock OK")
-                            .setMessage("No hay productos con stock bajo")
-                            .setPositiveButton("Aceptar", null)
-                            .show();
-                } else {
-                    Toast.makeText(this,
-                            "⚠️ " + productos.size() + " productos con stock bajo",
-                            Toast.LENGTH_LONG).show();
-                }
+        modo = Modo.STOCK_BAJO;
+        avisarResultado = true;
+        viewModel.setConsulta(null);
+        // Si el conjunto ya estaba cargado no habrá otra emisión: se muestra ahora
+        List<FilaPresentacion> productos = viewModel.getProductosStockBajo().getValue();
+        if (productos != null) {
+            mostrarLista(productos);
+            avisarStockBajo(productos.size());
+            avisarResultado = false;
+        }
+    }
+
+    private void avisarStockBajo(int cantidad) {
+        if (cantidad == 0) {
+            new MaterialAlertDialogBuilder(this)
+                    .setTitle("✅ Stock OK")
+                    .setMessage("No hay productos con stock bajo")
+                    .setPositiveButton("Aceptar", null)
+                    .show();
+        } else {
+            Toast.makeText(this,
+                    "⚠️ " + cantidad + " productos con stock bajo",
+                    Toast.LENGTH_LONG).show();
+        }
+    }
+
+    // La fila de la lista no trae la descripción completa: se carga el producto entero
+    private void mostrarDetallesProducto(ProductoFila fila) {
+        viewModel.cargarProducto(fila.getIdProducto(), producto -> {
+            if (producto != null && !isFinishing()) {
+                mostrarDetallesProducto(producto);
             }
         });
     }
@@ -293,16 +334,17 @@ public class MainActivity extends AppCompatActivity {
                 .setTitle("Detalles del Producto")
                 .setMessage(mensaje)
                 .setPositiveButton("Cerrar", null)
-                .setNeutralButton("Editar", (dialog, which) -> {
-                    Intent intent = new Intent(MainActivity.this, FormProductoActivity.class);
-                    intent.putExtra("PRODUCTO_ID", producto.getIdProducto());
-                    intent.putExtra("DOC_ID", producto.getDocId());
-                    startActivity(intent);
-                })
+                .setNeutralButton("Editar", (dialog, which) -> editarProducto(producto.getIdProducto()))
                 .show();
     }
 
-    private void mostrarOpcionesProducto(Producto producto) {
+    private void editarProducto(int idProducto) {
+        Intent intent = new Intent(MainActivity.this, FormProductoActivity.class);
+        intent.putExtra("PRODUCTO_ID", idProducto);
+        startActivity(intent);
+    }
+
+    private void mostrarOpcionesProducto(ProductoFila producto) {
         String[] opciones = {"Ver detalles", "Editar", "Actualizar stock", "Eliminar"};
 
         new MaterialAlertDialogBuilder(this)
@@ -313,10 +355,7 @@ public class MainActivity extends AppCompatActivity {
                             mostrarDetallesProducto(producto);
                             break;
                         case 1:
-                            Intent intent = new Intent(MainActivity.this, FormProductoActivity.class);
-                            intent.putExtra("PRODUCTO_ID", producto.getIdProducto());
-                            intent.putExtra("DOC_ID", producto.getDocId());
-                            startActivity(intent);
+                            editarProducto(producto.getIdProducto());
                             break;
                         case 2:
                             mostrarDialogoActualizarStock(producto);
@@ -329,7 +368,7 @@ public class MainActivity extends AppCompatActivity {
                 .show();
     }
 
-    private void mostrarDialogoActualizarStock(Producto producto) {
+    private void mostrarDialogoActualizarStock(ProductoFila producto) {
         final android.widget.EditText input = new android.widget.EditText(this);
         input.setInputType(android.text.InputType.TYPE_CLASS_NUMBER);
         input.setHint("Nuevo stock");
@@ -362,39 +401,14 @@ public class MainActivity extends AppCompatActivity {
                 .show();
     }
 
-    private void confirmarEliminarProducto(Producto producto) {
+    private void confirmarEliminarProducto(ProductoFila producto) {
         new MaterialAlertDialogBuilder(this)
                 .setTitle("Confirmar eliminación")
                 .setMessage("¿Está seguro de eliminar '" + producto.getNombreProducto() + "'?")
                 .setPositiveButton("Eliminar", (dialog, which) -> {
-                    // Eliminar de Firestore primero
-                    if (producto.getDocId() != null && !producto.getDocId().isEmpty()) {
-                        firestoreManager.eliminarProducto(producto.getDocId(),
-                                new FirestoreManager.OnSuccessListener() {
-                                    @Override
-                                    public void onSuccess() {
-                                        // Luego eliminar de Room
-                                        viewModel.delete(producto.getIdProducto());
-                                        runOnUiThread(() -> {
-                                            Toast.makeText(MainActivity.this,
-                                                    "Producto eliminado", Toast.LENGTH_SHORT).show();
-                                        });
-                                    }
-
-                                    @Override
-                                    public void onError(String error) {
-                                        runOnUiThread(() -> {
-                                            Toast.makeText(MainActivity.this,
-                                                    "Error al eliminar: " + error,
-                                                    Toast.LENGTH_SHORT).show();
-                                        });
-                                    }
-                                });
-                    } else {
-                        // Si no tiene docId, solo eliminar de Room
-                        viewModel.delete(producto.getIdProducto());
-                        Toast.makeText(this, "Producto eliminado", Toast.LENGTH_SHORT).show();
-                    }
+                    // Se borra en Room al instante; Firestore se actualiza desde la cola de salida
+                    viewModel.delete(producto.getIdProducto());
+                    Toast.makeText(this, "Producto eliminado", Toast.LENGTH_SHORT).show();
                 })
                 .setNegativeButton("Cancelar", null)
                 .show();
@@ -420,95 +434,10 @@ public class MainActivity extends AppCompatActivity {
 
     private void sincronizarConFirestore() {
         Toast.makeText(this, "Sincronizando...", Toast.LENGTH_SHORT).show();
-        binding.progressBar.setVisibility(View.VISIBLE);
-
-        // Limpiar base de datos local antes de sincronizar
-        AppDatabase.databaseWriteExecutor.execute(() -> {
-            AppDatabase db = AppDatabase.getDatabase(MainActivity.this);
-            db.productoDao().deleteAll();
-
-            runOnUiThread(() -> {
-                cargarProductosFirestore();
-            });
-        });
-    }
-
-    private void cargarProductosFirestore() {
-        binding.progressBar.setVisibility(View.VISIBLE);
-
-        firestoreManager.getProductos(new FirestoreManager.OnProductosListener() {
-            @Override
-            public void onSuccess(List<Producto> productos) {
-                runOnUiThread(() -> {
-                    binding.progressBar.setVisibility(View.GONE);
-
-                    if (productos.isEmpty()) {
-                        Toast.makeText(MainActivity.this,
-                                "No hay productos en Firestore",
-                                Toast.LENGTH_LONG).show();
-                        if (primeraSync) {
-                            observeData();
-                            primeraSync = false;
-                        }
-                        return;
-                    }
 
-                    Log.d(TAG, "Productos recibidos de Firestore: " + productos.size());
-
-                    // Guardar productos en Room
-                    AppDatabase.databaseWriteExecutor.execute(() -> {
-                        try {
-                            AppDatabase db = AppDatabase.getDatabase(MainActivity.this);
-                            for (Producto producto : productos) {
-                                db.productoDao().insert(producto);
-                            }
-
-                            runOnUiThread(() -> {
-                                if (primeraSync) {
-                                    observeData();
-                                    primeraSync = false;
-                                }
-
-                                Toast.makeText(MainActivity.this,
-                                        "✅ " + productos.size() + " productos sincronizados",
-                                        Toast.LENGTH_SHORT).show();
-                            });
-                        } catch (Exception e) {
-                            Log.e(TAG, "Error al guardar productos en Room: " + e.getMessage());
-                            runOnUiThread(() -> {
-                                Toast.makeText(MainActivity.this,
-                                        "Error al guardar productos: " + e.getMessage(),
-                                        Toast.LENGTH_LONG).show();
-                            });
-                        }
-                    });
-                });
-            }
-
-            @Override
-            public void onError(String error) {
-                runOnUiThread(() -> {
-                    binding.progressBar.setVisibility(View.GONE);
-                    Log.e(TAG, "Error al cargar productos: " + error);
-                    Toast.makeText(MainActivity.this,
-                            "Error: " + error,
-                            Toast.LENGTH_LONG).show();
-
-                    if (primeraSync) {
-                        observeData();
-                        primeraSync = false;
-                    }
-                });
-            }
-        });
-    }
-
-    @Override
-    protected void onResume() {
-        super.onResume();
-        if (!primeraSync) {
-            observeData();
-        }
+        // Refresco completo: se descarga a una tabla aparte y se intercambia de una vez,
+        // la lista nunca queda vacía y si falla la descarga no se pierde nada
+        viewModel.refrescar();
     }
 
     @Override
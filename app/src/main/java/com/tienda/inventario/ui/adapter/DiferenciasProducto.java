@@ -0,0 +1,80 @@
+package com.tienda.inventario.ui.adapter;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+
+import com.tienda.inventario.viewmodel.FilaPresentacion;
+
+import java.util.List;
+import java.util.Objects;
+
+// Diferencias entre dos listas de filas presentadas, por id_producto. Lo usan la lista
+// paginada y la lista simple; ambas lo calculan en segundo plano. El payload de un cambio
+// es una máscara con los grupos de vistas a actualizar (ver ProductoViewHolder.bindParcial).
+final class DiferenciasProducto extends DiffUtil.ItemCallback<FilaPresentacion> {
+
+    static final int NOMBRE = 1;
+    static final int PRECIO = 1 << 1;
+    static final int DESCRIPCION = 1 << 2;
+    // Stock actual o mínimo: texto, alerta y color
+    static final int STOCK = 1 << 3;
+    // Nombres de categoría y proveedor
+    static final int RELACIONES = 1 << 4;
+    static final int CODIGO = 1 << 5;
+    static final int TODO = ~0;
+
+    static final DiferenciasProducto INSTANCIA = new DiferenciasProducto();
+
+    private DiferenciasProducto() {
+    }
+
+    @Override
+    public boolean areItemsTheSame(@NonNull FilaPresentacion anterior, @NonNull FilaPresentacion nuevo) {
+        return anterior.getIdProducto() == nuevo.getIdProducto();
+    }
+
+    @Override
+    public boolean areContentsTheSame(@NonNull FilaPresentacion anterior, @NonNull FilaPresentacion nuevo) {
+        // Misma fila de origen, mismos textos (y con la caché, el mismo objeto)
+        return anterior.equals(nuevo);
+    }
+
+    @Override
+    public Object getChangePayload(@NonNull FilaPresentacion anterior, @NonNull FilaPresentacion nuevo) {
+        int cambios = 0;
+        if (!Objects.equals(anterior.getNombre(), nuevo.getNombre())) {
+            cambios |= NOMBRE;
+        }
+        if (!Objects.equals(anterior.getPrecio(), nuevo.getPrecio())) {
+            cambios |= PRECIO;
+        }
+        if (!Objects.equals(anterior.getDescripcion(), nuevo.getDescripcion())) {
+            cambios |= DESCRIPCION;
+        }
+        if (!Objects.equals(anterior.getStock(), nuevo.getStock())
+                || !Objects.equals(anterior.getStockMinimo(), nuevo.getStockMinimo())
+                || anterior.isBajoStock() != nuevo.isBajoStock()) {
+            cambios |= STOCK;
+        }
+        if (!Objects.equals(anterior.getCategoria(), nuevo.getCategoria())
+                || !Objects.equals(anterior.getProveedor(), nuevo.getProveedor())) {
+            cambios |= RELACIONES;
+        }
+        if (!Objects.equals(anterior.getCodigoBarras(), nuevo.getCodigoBarras())) {
+            cambios |= CODIGO;
+        }
+        return cambios;
+    }
+
+    // Une los payloads acumulados de una fila (varios cambios antes del próximo layout)
+    static int combinar(List<Object> payloads) {
+        int cambios = 0;
+        for (Object payload : payloads) {
+            if (!(payload instanceof Integer)) {
+                return TODO;
+            }
+            cambios |= (Integer) payload;
+        }
+        return cambios;
+    }
+}
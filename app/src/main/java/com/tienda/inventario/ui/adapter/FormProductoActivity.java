@@ -8,11 +8,13 @@ import android.widget.Toast;
 import androidx.appcompat.app.AppCompatActivity;
 
 import com.tienda.inventario.database.AppDatabase;
+import com.tienda.inventario.database.Carril;
 import com.tienda.inventario.database.FirestoreManager;
 import com.tienda.inventario.database.entities.Categoria;
 import com.tienda.inventario.database.entities.Producto;
 import com.tienda.inventario.database.entities.Proveedor;
 import com.tienda.inventario.databinding.ActivityFormProductoBinding;
+import com.tienda.inventario.repository.ProductoRepository;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -21,13 +23,15 @@ public class FormProductoActivity extends AppCompatActivity {
 
     private ActivityFormProductoBinding binding;
     private FirestoreManager firestoreManager;
+    private ProductoRepository repository;
     private List<Categoria> listaCategorias = new ArrayList<>();
     private List<Proveedor> listaProveedores = new ArrayList<>();
     private int categoriaSeleccionadaId = -1;
     private int proveedorSeleccionadoId = -1;
     private int productoId = -1;
-    private String documentoId = null;
     private boolean esEdicion = false;
+    // Producto cargado al editar: se guarda sobre él para conservar doc_id, fechas y estado
+    private Producto productoEditado;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -36,6 +40,7 @@ public class FormProductoActivity extends AppCompatActivity {
         setContentView(binding.getRoot());
 
         firestoreManager = FirestoreManager.getInstance();
+        repository = new ProductoRepository(getApplication());
 
         setSupportActionBar(binding.toolbar);
         if (getSupportActionBar() != null) {
@@ -44,8 +49,9 @@ public class FormProductoActivity extends AppCompatActivity {
 
         if (getIntent().hasExtra("PRODUCTO_ID")) {
             productoId = getIntent().getIntExtra("PRODUCTO_ID", -1);
-            documentoId = getIntent().getStringExtra("DOC_ID");
             esEdicion = true;
+            // Hasta que se cargue el producto no hay nada sobre qué guardar
+            binding.btnGuardar.setEnabled(false);
             if (getSupportActionBar() != null) {
                 getSupportActionBar().setTitle("Editar Producto");
             }
@@ -66,7 +72,7 @@ public class FormProductoActivity extends AppCompatActivity {
     }
 
     private void cargarCategorias() {
-        AppDatabase.databaseWriteExecutor.execute(() -> {
+        AppDatabase.lecturas.ejecutar(Carril.INTERACTIVO, () -> {
             listaCategorias = AppDatabase.getDatabase(this).categoriaDao().getAllCategoriasList();
 
             runOnUiThread(() -> {
@@ -110,7 +116,7 @@ public class FormProductoActivity extends AppCompatActivity {
     }
 
     private void cargarProveedores() {
-        AppDatabase.databaseWriteExecutor.execute(() -> {
+        AppDatabase.lecturas.ejecutar(Carril.INTERACTIVO, () -> {
             listaProveedores = AppDatabase.getDatabase(this).proveedorDao().getAllProveedoresList();
 
             runOnUiThread(() -> {
@@ -154,14 +160,16 @@ public class FormProductoActivity extends AppCompatActivity {
     }
 
     private void cargarProducto(int id) {
-        AppDatabase.databaseWriteExecutor.execute(() -> {
+        AppDatabase.lecturas.ejecutar(Carril.INTERACTIVO, () -> {
+            // Consulta directa: el LiveData de getProductoById no tiene valor hasta que se observa
             Producto producto = AppDatabase.getDatabase(this)
                     .productoDao()
-                    .getProductoById(id)
-                    .getValue();
+                    .getById(id);
 
             if (producto != null) {
                 runOnUiThread(() -> {
+                    productoEditado = producto;
+                    binding.btnGuardar.setEnabled(true);
                     binding.etNombre.setText(producto.getNombreProducto());
                     binding.etDescripcion.setText(producto.getDescripcion());
                     binding.etPrecio.setText(String.valueOf(producto.getPrecioUnitario()));
@@ -194,7 +202,7 @@ public class FormProductoActivity extends AppCompatActivity {
             return;
         }
 
-        Producto producto = new Producto();
+        Producto producto = esEdicion ? productoEditado : new Producto();
         producto.setNombreProducto(binding.etNombre.getText().toString().trim());
         producto.setDescripcion(binding.etDescripcion.getText().toString().trim());
         producto.setPrecioUnitario(Double.parseDouble(binding.etPrecio.getText().toString().trim()));
@@ -204,68 +212,12 @@ public class FormProductoActivity extends AppCompatActivity {
         producto.setIdCategoria(categoriaSeleccionadaId);
         producto.setIdProveedor(proveedorSeleccionadoId);
 
-        if (esEdicion && documentoId != null) {
-            // Actualizar en Firestore
-            firestoreManager.actualizarProducto(documentoId, producto,
-                    new FirestoreManager.OnSuccessListener() {
-                        @Override
-                        public void onSuccess() {
-                            // Actualizar en Room
-                            AppDatabase.databaseWriteExecutor.execute(() -> {
-                                producto.setIdProducto(productoId);
-                                producto.setDocId(documentoId);
-                                AppDatabase.getDatabase(FormProductoActivity.this)
-                                        .productoDao()
-                                        .update(producto);
-                            });
-
-                            runOnUiThread(() -> {
-                                Toast.makeText(FormProductoActivity.this,
-                                        "Producto actualizado",
-                                        Toast.LENGTH_SHORT).show();
-                                finish();
-                            });
-                        }
-
-                        @Override
-                        public void onError(String error) {
-                            runOnUiThread(() -> {
-                                Toast.makeText(FormProductoActivity.this,
-                                        "Error al actualizar: " + error,
-                                        Toast.LENGTH_SHORT).show();
-                            });
-                        }
-                    });
-        } else {
-            // Agregar nuevo en Firestore
-            firestoreManager.agregarProducto(producto, new FirestoreManager.OnSuccessListener() {
-                @Override
-                public void onSuccess() {
-                    // Agregar en Room
-                    AppDatabase.databaseWriteExecutor.execute(() -> {
-                        AppDatabase.getDatabase(FormProductoActivity.this)
-                                .productoDao()
-                                .insert(producto);
-                    });
-
-                    runOnUiThread(() -> {
-                        Toast.makeText(FormProductoActivity.this,
-                                "Producto guardado",
-                                Toast.LENGTH_SHORT).show();
-                        finish();
-                    });
-                }
-
-                @Override
-                public void onError(String error) {
-                    runOnUiThread(() -> {
-                        Toast.makeText(FormProductoActivity.this,
-                                "Error al guardar: " + error,
-                                Toast.LENGTH_SHORT).show();
-                    });
-                }
-            });
-        }
+        // Se guarda en Room al instante; la subida a Firestore queda en la cola de salida
+        repository.guardar(producto);
+        Toast.makeText(this,
+                esEdicion ? "Producto actualizado" : "Producto guardado",
+                Toast.LENGTH_SHORT).show();
+        finish();
     }
 
     private boolean validarCampos() {
@@ -1,30 +1,40 @@
 package com.tienda.inventario.ui.adapter;
 
-import android.view.LayoutInflater;
-import android.view.View;
+import android.os.SystemClock;
+import android.util.Log;
 import android.view.ViewGroup;
-import android.widget.TextView;
 
 import androidx.annotation.NonNull;
-import androidx.recyclerview.widget.RecyclerView;
+import androidx.recyclerview.widget.ListAdapter;
 
-import com.google.android.material.card.MaterialCardView;
-import com.tienda.inventario.R;
-import com.tienda.inventario.database.entities.Producto;
+import com.tienda.inventario.database.entities.ProductoFila;
+import com.tienda.inventario.viewmodel.FilaPresentacion;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Locale;
 
-public class ProductoAdapter extends RecyclerView.Adapter<ProductoAdapter.ProductoViewHolder> {
+// Lista simple (búsquedas y stock bajo). Las diferencias con la lista anterior se
+// calculan en segundo plano y solo se redibujan las filas que cambiaron.
+public class ProductoAdapter extends ListAdapter<FilaPresentacion, ProductoViewHolder> {
+
+    private static final String TAG = "ProductoAdapter";
 
-    private List<Producto> productos = new ArrayList<>();
     private OnProductoClickListener listener;
 
     // Interface para clicks
     public interface OnProductoClickListener {
-        void onProductoClick(Producto producto);
-        void onProductoLongClick(Producto producto);
+        void onProductoClick(ProductoFila producto);
+        void onProductoLongClick(ProductoFila producto);
+    }
+
+    public ProductoAdapter() {
+        super(DiferenciasProducto.INSTANCIA);
+        // Con ID estable la vista de cada producto se conserva aunque cambie de posición
+        setHasStableIds(true);
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return getItem(position).getIdProducto();
     }
 
     public void setOnProductoClickListener(OnProductoClickListener listener) {
@@ -34,98 +44,36 @@ public class ProductoAdapter extends RecyclerView.Adapter<ProductoAdapter.Produc
     @NonNull
     @Override
     public ProductoViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
-        View itemView = LayoutInflater.from(parent.getContext())
-                .inflate(R.layout.item_producto, parent, false);
-        return new ProductoViewHolder(itemView);
+        return ProductoViewHolder.crear(parent);
     }
 
     @Override
     public void onBindViewHolder(@NonNull ProductoViewHolder holder, int position) {
-        Producto producto = productos.get(position);
-        holder.bind(producto);
+        FilaPresentacion producto = getItem(position);
+        holder.bind(producto, listener);
     }
 
+    // Con payload solo se actualizan las vistas de lo que cambió
     @Override
-    public int getItemCount() {
-        return productos.size();
-    }
-
-    public void setProductos(List<Producto> productos) {
-        this.productos = productos;
-        notifyDataSetChanged();
+    public void onBindViewHolder(@NonNull ProductoViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.isEmpty()) {
+            onBindViewHolder(holder, position);
+        } else {
+            holder.bindParcial(getItem(position), DiferenciasProducto.combinar(payloads));
+        }
     }
 
-    public Producto getProductoAt(int position) {
-        return productos.get(position);
+    // Cada llamada debe traer una lista nueva (Room siempre la crea); si es la misma
+    // instancia que la actual se ignora
+    public void setProductos(List<FilaPresentacion> productos) {
+        long enviadaEn = SystemClock.elapsedRealtime();
+        int anteriores = getItemCount();
+        submitList(productos, () -> Log.d(TAG, "Lista aplicada: " + anteriores + " → " + getItemCount()
+                + " filas en " + (SystemClock.elapsedRealtime() - enviadaEn)
+                + " ms (diferencias en segundo plano)"));
     }
 
-    class ProductoViewHolder extends RecyclerView.ViewHolder {
-        private MaterialCardView cardProducto;
-        private TextView tvNombreProducto;
-        private TextView tvPrecio;
-        private TextView tvDescripcion;
-        private TextView tvCategoria;
-        private TextView tvProveedor;
-        private TextView tvStock;
-        private TextView tvStockMinimo;
-        private TextView tvAlertaStock;
-        private TextView tvCodigoBarras;
-
-        public ProductoViewHolder(@NonNull View itemView) {
-            super(itemView);
-            cardProducto = itemView.findViewById(R.id.cardProducto);
-            tvNombreProducto = itemView.findViewById(R.id.tvNombreProducto);
-            tvPrecio = itemView.findViewById(R.id.tvPrecio);
-            tvDescripcion = itemView.findViewById(R.id.tvDescripcion);
-            tvCategoria = itemView.findViewById(R.id.tvCategoria);
-            tvProveedor = itemView.findViewById(R.id.tvProveedor);
-            tvStock = itemView.findViewById(R.id.tvStock);
-            tvStockMinimo = itemView.findViewById(R.id.tvStockMinimo);
-            tvAlertaStock = itemView.findViewById(R.id.tvAlertaStock);
-            tvCodigoBarras = itemView.findViewById(R.id.tvCodigoBarras);
-        }
-
-        public void bind(final Producto producto) {
-            tvNombreProducto.setText(producto.getNombreProducto());
-            tvPrecio.setText(String.format(Locale.getDefault(), "$%.2f", producto.getPrecioUnitario()));
-            tvDescripcion.setText(producto.getDescripcion());
-            tvStock.setText(String.valueOf(producto.getStockActual()));
-            tvStockMinimo.setText(String.format("(Min: %d)", producto.getStockMinimo()));
-
-            // Para categoría y proveedor, mostramos los IDs
-            tvCategoria.setText("Categoría: " + producto.getIdCategoria());
-            tvProveedor.setText("Proveedor: " + producto.getIdProveedor());
-
-            // Mostrar código de barras si existe
-            if (producto.getCodigoBarras() != null && !producto.getCodigoBarras().isEmpty()) {
-                tvCodigoBarras.setText("Código: " + producto.getCodigoBarras());
-                tvCodigoBarras.setVisibility(View.VISIBLE);
-            } else {
-                tvCodigoBarras.setVisibility(View.GONE);
-            }
-
-            // Alerta de stock bajo
-            if (producto.isBajoStock()) {
-                tvAlertaStock.setVisibility(View.VISIBLE);
-                tvStock.setTextColor(itemView.getContext().getColor(android.R.color.holo_red_dark));
-            } else {
-                tvAlertaStock.setVisibility(View.GONE);
-                tvStock.setTextColor(itemView.getContext().getColor(android.R.color.black));
-            }
-
-            // Click listeners
-            cardProducto.setOnClickListener(v -> {
-                if (listener != null) {
-                    listener.onProductoClick(producto);
-                }
-            });
-
-            cardProducto.setOnLongClickListener(v -> {
-                if (listener != null) {
-                    listener.onProductoLongClick(producto);
-                }
-                return true;
-            });
-        }
+    public FilaPresentacion getProductoAt(int position) {
+        return getItem(position);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,52 @@
+package com.tienda.inventario.ui.adapter;
+
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
+import androidx.paging.PagingDataAdapter;
+
+import com.tienda.inventario.viewmodel.FilaPresentacion;
+
+import java.util.List;
+
+// Lista principal: recibe las páginas de ProductosPagingSource y calcula las
+// diferencias entre generaciones en segundo plano. Sin IDs estables: PagingDataAdapter
+// no los admite (setHasStableIds lanza excepción); el diff por id_producto cumple esa función.
+public class ProductoPagingAdapter extends PagingDataAdapter<FilaPresentacion, ProductoViewHolder> {
+
+    private ProductoAdapter.OnProductoClickListener listener;
+
+    public ProductoPagingAdapter() {
+        super(DiferenciasProducto.INSTANCIA);
+    }
+
+    public void setOnProductoClickListener(ProductoAdapter.OnProductoClickListener listener) {
+        this.listener = listener;
+    }
+
+    @NonNull
+    @Override
+    public ProductoViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        return ProductoViewHolder.crear(parent);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull ProductoViewHolder holder, int position) {
+        // Sin placeholders getItem nunca devuelve null, pero el contrato lo permite
+        FilaPresentacion producto = getItem(position);
+        if (producto != null) {
+            holder.bind(producto, listener);
+        }
+    }
+
+    // Con payload solo se actualizan las vistas de lo que cambió
+    @Override
+    public void onBindViewHolder(@NonNull ProductoViewHolder holder, int position, @NonNull List<Object> payloads) {
+        FilaPresentacion producto = getItem(position);
+        if (payloads.isEmpty() || producto == null) {
+            onBindViewHolder(holder, position);
+        } else {
+            holder.bindParcial(producto, DiferenciasProducto.combinar(payloads));
+        }
+    }
+}
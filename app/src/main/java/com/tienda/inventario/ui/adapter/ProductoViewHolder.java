@@ -0,0 +1,108 @@
+package com.tienda.inventario.ui.adapter;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.google.android.material.card.MaterialCardView;
+import com.tienda.inventario.R;
+import com.tienda.inventario.viewmodel.FilaPresentacion;
+
+// Fila de producto, compartida por la lista paginada y las listas de búsqueda/stock bajo
+public class ProductoViewHolder extends RecyclerView.ViewHolder {
+    private MaterialCardView cardProducto;
+    private TextView tvNombreProducto;
+    private TextView tvPrecio;
+    private TextView tvDescripcion;
+    private TextView tvCategoria;
+    private TextView tvProveedor;
+    private TextView tvStock;
+    private TextView tvStockMinimo;
+    private TextView tvAlertaStock;
+    private TextView tvCodigoBarras;
+
+    // Fila dibujada y a quién avisar de los clics (se asignan en cada bind; los
+    // listeners de la vista se crean una sola vez)
+    private FilaPresentacion producto;
+    private ProductoAdapter.OnProductoClickListener listener;
+
+    public ProductoViewHolder(@NonNull View itemView) {
+        super(itemView);
+        cardProducto = itemView.findViewById(R.id.cardProducto);
+        tvNombreProducto = itemView.findViewById(R.id.tvNombreProducto);
+        tvPrecio = itemView.findViewById(R.id.tvPrecio);
+        tvDescripcion = itemView.findViewById(R.id.tvDescripcion);
+        tvCategoria = itemView.findViewById(R.id.tvCategoria);
+        tvProveedor = itemView.findViewById(R.id.tvProveedor);
+        tvStock = itemView.findViewById(R.id.tvStock);
+        tvStockMinimo = itemView.findViewById(R.id.tvStockMinimo);
+        tvAlertaStock = itemView.findViewById(R.id.tvAlertaStock);
+        tvCodigoBarras = itemView.findViewById(R.id.tvCodigoBarras);
+
+        // Click listeners
+        cardProducto.setOnClickListener(v -> {
+            if (listener != null && producto != null) {
+                listener.onProductoClick(producto.getFila());
+            }
+        });
+
+        cardProducto.setOnLongClickListener(v -> {
+            if (listener != null && producto != null) {
+                listener.onProductoLongClick(producto.getFila());
+            }
+            return true;
+        });
+    }
+
+    public static ProductoViewHolder crear(@NonNull ViewGroup parent) {
+        View itemView = LayoutInflater.from(parent.getContext())
+                .inflate(R.layout.item_producto, parent, false);
+        return new ProductoViewHolder(itemView);
+    }
+
+    public void bind(FilaPresentacion producto, ProductoAdapter.OnProductoClickListener listener) {
+        this.listener = listener;
+        bindParcial(producto, DiferenciasProducto.TODO);
+    }
+
+    // Actualiza solo las vistas de los campos indicados (máscara de DiferenciasProducto);
+    // un cambio de stock toca tvStock, tvStockMinimo y la alerta. Los textos llegan ya
+    // formateados: aquí solo se asignan.
+    public void bindParcial(FilaPresentacion producto, int cambios) {
+        this.producto = producto;
+
+        if ((cambios & DiferenciasProducto.NOMBRE) != 0) {
+            tvNombreProducto.setText(producto.getNombre());
+        }
+        if ((cambios & DiferenciasProducto.PRECIO) != 0) {
+            tvPrecio.setText(producto.getPrecio());
+        }
+        if ((cambios & DiferenciasProducto.DESCRIPCION) != 0) {
+            tvDescripcion.setText(producto.getDescripcion());
+        }
+        if ((cambios & DiferenciasProducto.STOCK) != 0) {
+            tvStock.setText(producto.getStock());
+            tvStockMinimo.setText(producto.getStockMinimo());
+            // Alerta de stock bajo
+            tvAlertaStock.setVisibility(producto.isBajoStock() ? View.VISIBLE : View.GONE);
+            tvStock.setTextColor(producto.getColorStock());
+        }
+        if ((cambios & DiferenciasProducto.RELACIONES) != 0) {
+            tvCategoria.setText(producto.getCategoria());
+            tvProveedor.setText(producto.getProveedor());
+        }
+        if ((cambios & DiferenciasProducto.CODIGO) != 0) {
+            // Mostrar código de barras si existe
+            if (producto.getCodigoBarras() != null) {
+                tvCodigoBarras.setText(producto.getCodigoBarras());
+                tvCodigoBarras.setVisibility(View.VISIBLE);
+            } else {
+                tvCodigoBarras.setVisibility(View.GONE);
+            }
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.tienda.inventario.viewmodel;
+
+import com.tienda.inventario.database.entities.ProductoFila;
+
+// Fila de producto lista para dibujar: textos ya formateados y color resuelto. Se arma
+// en segundo plano (PresentacionProductos) y el ViewHolder solo asigna valores.
+public final class FilaPresentacion {
+
+    private final ProductoFila fila;
+    private final String precio;
+    private final String stock;
+    private final String stockMinimo;
+    private final String categoria;
+    private final String proveedor;
+    // null si no hay código (la vista se oculta)
+    private final String codigoBarras;
+    private final boolean bajoStock;
+    private final int colorStock;
+
+    FilaPresentacion(ProductoFila fila, String precio, String stock, String stockMinimo,
+                     String categoria, String proveedor, String codigoBarras,
+                     boolean bajoStock, int colorStock) {
+        this.fila = fila;
+        this.precio = precio;
+        this.stock = stock;
+        this.stockMinimo = stockMinimo;
+        this.categoria = categoria;
+        this.proveedor = proveedor;
+        this.codigoBarras = codigoBarras;
+        this.bajoStock = bajoStock;
+        this.colorStock = colorStock;
+    }
+
+    // Fila de origen (clics, detalle y edición)
+    public ProductoFila getFila() {
+        return fila;
+    }
+
+    public int getIdProducto() {
+        return fila.getIdProducto();
+    }
+
+    public String getNombre() {
+        return fila.getNombreProducto();
+    }
+
+    public String getDescripcion() {
+        return fila.getDescripcion();
+    }
+
+    public String getPrecio() {
+        return precio;
+    }
+
+    public String getStock() {
+        return stock;
+    }
+
+    public String getStockMinimo() {
+        return stockMinimo;
+    }
+
+    public String getCategoria() {
+        return categoria;
+    }
+
+    public String getProveedor() {
+        return proveedor;
+    }
+
+    public String getCodigoBarras() {
+        return codigoBarras;
+    }
+
+    public boolean isBajoStock() {
+        return bajoStock;
+    }
+
+    public int getColorStock() {
+        return colorStock;
+    }
+
+    // Los textos se derivan de la fila: misma fila, misma presentación
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof FilaPresentacion)) return false;
+        return fila.equals(((FilaPresentacion) o).fila);
+    }
+
+    @Override
+    public int hashCode() {
+        return fila.hashCode();
+    }
+}
@@ -0,0 +1,95 @@
+package com.tienda.inventario.viewmodel;
+
+import android.content.Context;
+import android.util.LruCache;
+
+import com.tienda.inventario.database.entities.ProductoFila;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+// Arma las FilaPresentacion de las listas fuera del hilo principal (String.format y
+// concatenaciones no pasan por el scroll). Cachea por contenido de la fila: mientras un
+// producto no cambie, su presentación se reusa entre emisiones, páginas y pantallas.
+public final class PresentacionProductos {
+
+    // Presentaciones en memoria (unas cuantas páginas más las búsquedas recientes)
+    private static final int CAPACIDAD = 2_000;
+
+    private static volatile PresentacionProductos INSTANCE;
+
+    // La fila es la clave: su equals cubre todo lo que se dibuja, así un cambio de
+    // stock o de nombre es otra "versión". Room crea filas nuevas en cada consulta y
+    // nadie las modifica después.
+    private final LruCache<ProductoFila, FilaPresentacion> cache = new LruCache<>(CAPACIDAD);
+    private final Executor executor = Executors.newSingleThreadExecutor();
+    private final int colorStockBajo;
+    private final int colorStockNormal;
+
+    // Los textos de la caché están formateados con este Locale
+    private Locale locale = Locale.getDefault();
+
+    private PresentacionProductos(Context context) {
+        colorStockBajo = context.getColor(android.R.color.holo_red_dark);
+        colorStockNormal = context.getColor(android.R.color.black);
+    }
+
+    public static PresentacionProductos getInstance(Context context) {
+        if (INSTANCE == null) {
+            synchronized (PresentacionProductos.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new PresentacionProductos(context.getApplicationContext());
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    // Hilo único de presentación: conserva el orden de las emisiones
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    public List<FilaPresentacion> deTodas(List<ProductoFila> filas) {
+        List<FilaPresentacion> resultado = new ArrayList<>(filas.size());
+        for (ProductoFila fila : filas) {
+            resultado.add(de(fila));
+        }
+        return resultado;
+    }
+
+    // Debería llamarse en segundo plano (normalmente desde getExecutor())
+    public FilaPresentacion de(ProductoFila fila) {
+        Locale actual = Locale.getDefault();
+        synchronized (this) {
+            if (!actual.equals(locale)) {
+                cache.evictAll();
+                locale = actual;
+            }
+        }
+        FilaPresentacion presentacion = cache.get(fila);
+        if (presentacion == null) {
+            presentacion = armar(fila, actual);
+            cache.put(fila, presentacion);
+        }
+        return presentacion;
+    }
+
+    private FilaPresentacion armar(ProductoFila fila, Locale locale) {
+        String codigo = fila.getCodigoBarras();
+        return new FilaPresentacion(fila,
+                String.format(locale, "$%.2f", fila.getPrecioUnitario()),
+                String.valueOf(fila.getStockActual()),
+                String.format(locale, "(Min: %d)", fila.getStockMinimo()),
+                "Categoría: " + (fila.getNombreCategoria() != null
+                        ? fila.getNombreCategoria() : "Sin categoría"),
+                "Proveedor: " + (fila.getNombreProveedor() != null
+                        ? fila.getNombreProveedor() : "Sin proveedor"),
+                codigo != null && !codigo.isEmpty() ? "Código: " + codigo : null,
+                fila.isBajoStock(),
+                fila.isBajoStock() ? colorStockBajo : colorStockNormal);
+    }
+}
@@ -2,25 +2,109 @@ package com.tienda.inventario.viewmodel;
 
 
 import android.app.Application;
+import android.util.LruCache;
 
 import androidx.annotation.NonNull;
 import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MediatorLiveData;
+import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.Transformations;
+import androidx.lifecycle.ViewModelKt;
+import androidx.paging.PagingData;
+import androidx.paging.PagingDataTransforms;
+import androidx.paging.PagingLiveData;
 
 import com.tienda.inventario.database.entities.Producto;
+import com.tienda.inventario.database.entities.ProductoFila;
+import com.tienda.inventario.repository.AjusteStock;
+import com.tienda.inventario.repository.CambiosStockBajo;
 import com.tienda.inventario.repository.ProductoRepository;
+import com.tienda.inventario.repository.ResultadoAjuste;
+import com.tienda.inventario.repository.ResultadoSync;
+import com.tienda.inventario.repository.SyncManager;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 public class ProductoViewModel extends AndroidViewModel {
 
+    // Filas de búsquedas recientes en memoria como máximo (no búsquedas: una de tres
+    // letras puede traer miles)
+    private static final int FILAS_BUSQUEDAS_RECIENTES = 5_000;
+
     private ProductoRepository repository;
+    private SyncManager syncManager;
     private LiveData<List<Producto>> allProductos;
+    private LiveData<PagingData<FilaPresentacion>> productosPaginados;
+    private LiveData<List<FilaPresentacion>> productosStockBajo;
+    private LiveData<CambiosStockBajo> cambiosStockBajo;
+
+    // Las listas llegan a la UI ya formateadas
+    private final PresentacionProductos presentacion;
+
+    // Búsqueda: un solo flujo de entrada y uno de resultados
+    private final MutableLiveData<String> consulta = new MutableLiveData<>();
+    private final LiveData<List<FilaPresentacion>> resultadosBusqueda;
+    private final LruCache<String, List<FilaPresentacion>> busquedasRecientes =
+            new LruCache<String, List<FilaPresentacion>>(FILAS_BUSQUEDAS_RECIENTES) {
+                @Override
+                protected int sizeOf(String termino, List<FilaPresentacion> filas) {
+                    return Math.max(filas.size(), 1);
+                }
+            };
 
     public ProductoViewModel(@NonNull Application application) {
         super(application);
         repository = new ProductoRepository(application);
+        syncManager = SyncManager.getInstance(application);
         allProductos = repository.getAllProductos();
+        presentacion = PresentacionProductos.getInstance(application);
+        // Cada página se formatea en el hilo de presentación al llegar. Cacheado en el
+        // ViewModel: al rotar la pantalla se reusan las páginas cargadas
+        productosPaginados = PagingLiveData.cachedIn(
+                Transformations.map(repository.getProductosPaginados(), (PagingData<ProductoFila> pagina) ->
+                        PagingDataTransforms.map(pagina, presentacion.getExecutor(), presentacion::de)),
+                ViewModelKt.getViewModelScope(this));
+        // Los primeros escaneos ya no pasan por SQLite
+        repository.precalentarCodigosBarras();
+        productosStockBajo = presentar(repository.getProductosStockBajo());
+        // Uno solo por ViewModel: cada observación nueva fijaría otro punto de partida
+        cambiosStockBajo = repository.observarCambiosStockBajo();
+        // switchMap suelta la consulta anterior: deja de observarse y no se vuelve a
+        // ejecutar con cada cambio de productos
+        resultadosBusqueda = Transformations.switchMap(consulta, this::buscar);
+    }
+
+    // Resultados de un término: primero los recientes guardados (si los hay), para que
+    // borrar una letra sea instantáneo, y enseguida los de Room, que los reemplazan
+    private LiveData<List<FilaPresentacion>> buscar(String termino) {
+        MediatorLiveData<List<FilaPresentacion>> resultado = new MediatorLiveData<>();
+        if (termino == null || termino.isEmpty()) {
+            return resultado;
+        }
+        List<FilaPresentacion> recientes = busquedasRecientes.get(termino);
+        if (recientes != null) {
+            resultado.setValue(recientes);
+        }
+        resultado.addSource(presentar(repository.searchByName(termino)), filas -> {
+            busquedasRecientes.put(termino, filas);
+            resultado.setValue(filas);
+        });
+        return resultado;
+    }
+
+    // Formatea cada emisión en el hilo de presentación. Si llegan dos antes de que la UI
+    // lea la primera, postValue entrega solo la última.
+    private LiveData<List<FilaPresentacion>> presentar(LiveData<List<ProductoFila>> filas) {
+        MediatorLiveData<List<FilaPresentacion>> resultado = new MediatorLiveData<>();
+        resultado.addSource(filas, lista -> {
+            if (lista != null) {
+                presentacion.getExecutor().execute(() -> resultado.postValue(presentacion.deTodas(lista)));
+            }
+        });
+        return resultado;
     }
 
     // Obtener todos los productos
@@ -28,39 +112,74 @@ public class ProductoViewModel extends AndroidViewModel {
         return allProductos;
     }
 
+    // Lista principal paginada
+    public LiveData<PagingData<FilaPresentacion>> getProductosPaginados() {
+        return productosPaginados;
+    }
+
     // Obtener productos con stock bajo
-    public LiveData<List<Producto>> getProductosStockBajo() {
-        return repository.getProductosStockBajo();
+    public LiveData<List<FilaPresentacion>> getProductosStockBajo() {
+        return productosStockBajo;
     }
 
-    // Buscar productos
-    public LiveData<List<Producto>> searchByName(String nombre) {
+    // Productos que cruzaron el umbral de stock mínimo, en cualquier sentido
+    public LiveData<CambiosStockBajo> getCambiosStockBajo() {
+        return cambiosStockBajo;
+    }
+
+    // Buscar productos (consulta suelta; la pantalla principal usa setConsulta)
+    public LiveData<List<ProductoFila>> searchByName(String nombre) {
         return repository.searchByName(nombre);
     }
 
+    // Cambia el término buscado; null o vacío deja de buscar
+    public void setConsulta(String termino) {
+        consulta.setValue(termino != null ? termino.trim() : null);
+    }
+
+    // Resultados del último término de setConsulta
+    public LiveData<List<FilaPresentacion>> getResultadosBusqueda() {
+        return resultadosBusqueda;
+    }
+
     // Obtener producto por ID
     public LiveData<Producto> getProductoById(int id) {
         return repository.getProductoById(id);
     }
 
+    // Producto completo para el detalle, entregado en el hilo principal
+    public void cargarProducto(int id, Consumer<Producto> alCargar) {
+        repository.cargarProducto(id, alCargar);
+    }
+
+    // Producto por código de barras (escáner), entregado en el hilo principal
+    public void buscarPorCodigoBarras(String codigo, Consumer<Producto> alEncontrar) {
+        repository.buscarPorCodigoBarras(codigo, alEncontrar);
+    }
+
     // Insertar producto
-    public void insert(Producto producto) {
-        repository.insert(producto);
+    public CompletableFuture<Void> insert(Producto producto) {
+        return repository.insert(producto);
     }
 
     // Actualizar producto
-    public void update(Producto producto) {
-        repository.update(producto);
+    public CompletableFuture<Void> update(Producto producto) {
+        return repository.update(producto);
     }
 
     // Eliminar producto
-    public void delete(int idProducto) {
-        repository.delete(idProducto);
+    public CompletableFuture<Void> delete(int idProducto) {
+        return repository.delete(idProducto);
     }
 
     // Actualizar stock
-    public void updateStock(int idProducto, int nuevoStock) {
-        repository.updateStock(idProducto, nuevoStock);
+    public CompletableFuture<Void> updateStock(int idProducto, int nuevoStock) {
+        return repository.updateStock(idProducto, nuevoStock);
+    }
+
+    // Ajuste de stock por lotes (modo escaneo)
+    public CompletableFuture<List<ResultadoAjuste>> ajustarStock(List<AjusteStock> ajustes) {
+        return repository.ajustarStock(ajustes);
     }
 
     // Obtener estadísticas
@@ -71,4 +190,21 @@ public class ProductoViewModel extends AndroidViewModel {
     public LiveData<Double> getValorTotalInventario() {
         return repository.getValorTotalInventario();
     }
-}
\ No newline at end of file
+
+    // Sincronización con Firestore
+    public void sincronizar() {
+        syncManager.sincronizar();
+    }
+
+    public void refrescar() {
+        syncManager.refrescar();
+    }
+
+    public LiveData<Boolean> isSincronizando() {
+        return syncManager.isSincronizando();
+    }
+
+    public LiveData<ResultadoSync> getResultadoSync() {
+        return syncManager.getResultado();
+    }
+}
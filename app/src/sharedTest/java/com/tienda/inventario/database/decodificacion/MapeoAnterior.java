@@ -0,0 +1,174 @@
+package com.tienda.inventario.database.decodificacion;
+
+import com.tienda.inventario.database.entities.Producto;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Mapeo campo por campo que usaba FirestoreManager antes del plan de decodificación,
+// y documentos de prueba como los devuelve Firestore. Compartido entre las pruebas
+// unitarias (mismo resultado) y las mediciones instrumentadas.
+final class MapeoAnterior {
+
+    // Acceso por nombre de campo, como DocumentSnapshot.get(String)
+    interface Lector {
+        Object get(String campo);
+    }
+
+    private MapeoAnterior() {
+    }
+
+    static List<Producto> decodificar(List<String> ids, List<? extends Lector> documentos) {
+        List<Producto> productos = new ArrayList<>(documentos.size());
+        for (int i = 0; i < documentos.size(); i++) {
+            try {
+                productos.add(documentoAProducto(ids.get(i), documentos.get(i)));
+            } catch (Exception e) {
+                // El mapeo anterior solo lo registraba en el log
+            }
+        }
+        return productos;
+    }
+
+    static List<Producto> decodificarMapas(List<String> ids, List<Map<String, Object>> datos) {
+        List<Lector> lectores = new ArrayList<>(datos.size());
+        for (Map<String, Object> doc : datos) {
+            lectores.add(doc::get);
+        }
+        return decodificar(ids, lectores);
+    }
+
+    // Copia del mapeo que tenía FirestoreManager (getString/getBoolean/getLong son get() con cast)
+    static Producto documentoAProducto(String docId, Lector doc) {
+        Producto producto = new Producto();
+        producto.setDocId(docId);
+
+        String nombre = (String) doc.get("nombre_producto");
+        if (nombre == null)
+            nombre = (String) doc.get("nombre");
+        producto.setNombreProducto(nombre);
+
+        String descripcion = (String) doc.get("descripcion");
+        producto.setDescripcion(descripcion != null ? descripcion : "");
+
+        Object precioObj = doc.get("precio_unitario");
+        if (precioObj == null)
+            precioObj = doc.get("precio");
+        if (precioObj instanceof Double) {
+            producto.setPrecioUnitario((Double) precioObj);
+        } else if (precioObj instanceof Long) {
+            producto.setPrecioUnitario(((Long) precioObj).doubleValue());
+        }
+
+        Object stockObj = doc.get("stock_actual");
+        if (stockObj == null)
+            stockObj = doc.get("stock");
+        if (stockObj instanceof Long) {
+            producto.setStockActual(((Long) stockObj).intValue());
+        } else if (stockObj instanceof Double) {
+            producto.setStockActual(((Double) stockObj).intValue());
+        }
+
+        Object stockMinObj = doc.get("stock_minimo");
+        if (stockMinObj == null)
+            stockMinObj = doc.get("stockMin");
+        if (stockMinObj instanceof Long) {
+            producto.setStockMinimo(((Long) stockMinObj).intValue());
+        } else if (stockMinObj instanceof Double) {
+            producto.setStockMinimo(((Double) stockMinObj).intValue());
+        }
+
+        String codigoBarras = (String) doc.get("codigo_barras");
+        if (codigoBarras == null)
+            codigoBarras = (String) doc.get("codigoBarras");
+        producto.setCodigoBarras(codigoBarras != null ? codigoBarras : "");
+
+        Object catIdObj = doc.get("id_categoria");
+        if (catIdObj == null)
+            catIdObj = doc.get("idCategoria");
+        if (catIdObj instanceof Long) {
+            producto.setIdCategoria(((Long) catIdObj).intValue());
+        } else if (catIdObj instanceof Double) {
+            producto.setIdCategoria(((Double) catIdObj).intValue());
+        } else if (catIdObj instanceof String) {
+            try {
+                producto.setIdCategoria(Integer.parseInt((String) catIdObj));
+            } catch (NumberFormatException e) {
+                producto.setIdCategoria(1);
+            }
+        } else {
+            producto.setIdCategoria(1);
+        }
+
+        Object provIdObj = doc.get("id_proveedor");
+        if (provIdObj == null)
+            provIdObj = doc.get("idProveedor");
+        if (provIdObj instanceof Long) {
+            producto.setIdProveedor(((Long) provIdObj).intValue());
+        } else if (provIdObj instanceof Double) {
+            producto.setIdProveedor(((Double) provIdObj).intValue());
+        } else if (provIdObj instanceof String) {
+            try {
+                producto.setIdProveedor(Integer.parseInt((String) provIdObj));
+            } catch (NumberFormatException e) {
+                producto.setIdProveedor(1);
+            }
+        } else {
+            producto.setIdProveedor(1);
+        }
+
+        Boolean activo = (Boolean) doc.get("activo");
+        producto.setActivo(activo != null ? activo : true);
+
+        Long timestamp = (Long) doc.get("timestamp");
+        if (timestamp != null) {
+            producto.setUltimaActualizacion(timestamp);
+        }
+
+        return producto;
+    }
+
+    static List<String> crearIds(int cantidad) {
+        List<String> ids = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            ids.add("doc" + i);
+        }
+        return ids;
+    }
+
+    // Documentos como los devuelve Firestore: enteros como Long, decimales como Double.
+    // Con "mezclados" uno de cada tres usa los nombres de campo antiguos.
+    static List<Map<String, Object>> crearDocumentos(int cantidad, boolean mezclados) {
+        List<Map<String, Object>> documentos = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            Map<String, Object> doc = new HashMap<>();
+            doc.put("nombre_producto", "Producto " + i);
+            doc.put("descripcion", "Descripción del producto " + i);
+            doc.put("precio_unitario", i % 2 == 0 ? (Object) (i * 1.5) : (Object) (long) i);
+            doc.put("stock_actual", (long) (i % 50));
+            doc.put("stock_minimo", 10L);
+            doc.put("codigo_barras", String.valueOf(7500000000000L + i));
+            doc.put("id_categoria", (long) (i % 7));
+            doc.put("id_proveedor", i % 5 == 0 ? (Object) String.valueOf(i % 3) : (Object) (long) (i % 3));
+            doc.put("activo", i % 10 != 0);
+            doc.put("timestamp", 1_700_000_000_000L + i);
+            if (mezclados && i % 3 == 1) {
+                renombrarALegado(doc);
+            }
+            documentos.add(doc);
+        }
+        return documentos;
+    }
+
+    static void renombrarALegado(Map<String, Object> doc) {
+        doc.put("nombre", doc.remove("nombre_producto"));
+        doc.put("precio", doc.remove("precio_unitario"));
+        doc.put("stock", doc.remove("stock_actual"));
+        doc.put("stockMin", doc.remove("stock_minimo"));
+        doc.put("codigoBarras", doc.remove("codigo_barras"));
+        doc.put("idCategoria", doc.remove("id_categoria"));
+        doc.put("idProveedor", doc.remove("id_proveedor"));
+    }
+}
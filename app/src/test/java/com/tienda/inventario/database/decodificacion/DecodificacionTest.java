@@ -0,0 +1,67 @@
+package com.tienda.inventario.database.decodificacion;
+
+import static com.tienda.inventario.database.decodificacion.MapeoAnterior.crearDocumentos;
+import static com.tienda.inventario.database.decodificacion.MapeoAnterior.crearIds;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.tienda.inventario.database.entities.Producto;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * El plan resuelto una vez por snapshot debe producir lo mismo que el mapeo campo
+ * por campo que usaba FirestoreManager, y contar los documentos que no decodifica.
+ * La comparación de rendimiento está en DecodificacionBenchmarkTest (androidTest).
+ */
+public class DecodificacionTest {
+
+    @Test
+    public void mismoResultadoQueElMapeoAnterior() {
+        List<String> ids = crearIds(200);
+        List<Map<String, Object>> datos = crearDocumentos(200, true);
+
+        List<Producto> anteriores = MapeoAnterior.decodificarMapas(ids, datos);
+        ResultadoDecodificacion<Producto> resultado = EsquemasFirestore.PRODUCTO
+                .resolver(datos.get(0))
+                .decodificarTodos(ids, datos);
+
+        assertEquals(0, resultado.getFallidos());
+        assertEquals(anteriores.size(), resultado.getElementos().size());
+        for (int i = 0; i < anteriores.size(); i++) {
+            Producto esperado = anteriores.get(i);
+            Producto actual = resultado.getElementos().get(i);
+            assertEquals(esperado.getDocId(), actual.getDocId());
+            assertEquals(esperado.getNombreProducto(), actual.getNombreProducto());
+            assertEquals(esperado.getDescripcion(), actual.getDescripcion());
+            assertEquals(esperado.getPrecioUnitario(), actual.getPrecioUnitario(), 0.0);
+            assertEquals(esperado.getStockActual(), actual.getStockActual());
+            assertEquals(esperado.getStockMinimo(), actual.getStockMinimo());
+            assertEquals(esperado.getCodigoBarras(), actual.getCodigoBarras());
+            assertEquals(esperado.getIdCategoria(), actual.getIdCategoria());
+            assertEquals(esperado.getIdProveedor(), actual.getIdProveedor());
+            assertEquals(esperado.isActivo(), actual.isActivo());
+            assertEquals(esperado.getUltimaActualizacion(), actual.getUltimaActualizacion());
+        }
+    }
+
+    @Test
+    public void cuentaDocumentosFallidos() {
+        List<String> ids = crearIds(10);
+        List<Map<String, Object>> datos = crearDocumentos(10, false);
+        datos.get(3).remove("nombre_producto");
+        datos.get(7).put("precio_unitario", "no es un número");
+
+        ResultadoDecodificacion<Producto> resultado = EsquemasFirestore.PRODUCTO
+                .resolver(datos.get(0))
+                .decodificarTodos(ids, datos);
+
+        assertEquals(9, resultado.getElementos().size());
+        assertEquals(1, resultado.getFallidos());
+        assertEquals(1, resultado.getValoresInvalidos());
+        assertTrue(resultado.getMotivos().get(0).startsWith(ids.get(3)));
+    }
+}